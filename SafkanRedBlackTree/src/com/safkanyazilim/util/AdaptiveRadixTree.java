@@ -0,0 +1,899 @@
+package com.safkanyazilim.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+
+/**
+ * <p> This is an implementation of a {@link SearchTree} as an adaptive radix tree
+ * (Leis et al.). Elements are encoded into byte strings by a {@link KeyEncoder}, and
+ * the tree branches on one byte of the encoding per level, so a lookup costs at most
+ * one step per byte of the key, independent of the number of elements, and compares
+ * no elements at all until it reaches a leaf.
+ * </p>
+ *
+ * <p> Inner nodes come in four sizes, growing and shrinking with the number of their
+ * children: Node4 and Node16 keep sorted arrays of key bytes, Node48 maps each byte to
+ * one of 48 slots, and Node256 holds a child for every byte directly. Chains of nodes
+ * with a single child are collapsed into a prefix stored in the node below (path
+ * compression), and a single element below a node is stored as a leaf right away.
+ * Since keys of different lengths may be prefixes of each other (as with strings),
+ * every inner node also has a slot for the element whose key ends at that node.
+ * </p>
+ *
+ * <p> Iteration walks from each element to its successor, which also costs one step per
+ * byte of the key; elements may be removed during iteration through the iterator.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type stored in the tree.
+ */
+public class AdaptiveRadixTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E> {
+
+	protected abstract static class Node<E> {
+	}
+
+	protected static final class Leaf<E> extends Node<E> {
+		private final byte[] key;
+		private final E element;
+
+		Leaf(byte[] key, E element) {
+			this.key = key;
+			this.element = element;
+		}
+	}
+
+	/**
+	 * An inner node. Child bytes are handled as unsigned, from 0 to 255.
+	 */
+	protected abstract static class InnerNode<E> extends Node<E> {
+		protected byte[] prefix;
+		protected Leaf<E> terminal;
+		protected int count;
+
+		protected InnerNode(byte[] prefix) {
+			this.prefix = prefix;
+		}
+
+		/**
+		 * @return the child under the given byte, or null.
+		 */
+		protected abstract Node<E> child(int b);
+
+		/**
+		 * @return the smallest byte not less than the given one with a child, or -1.
+		 */
+		protected abstract int nextByte(int from);
+
+		/**
+		 * @return the greatest byte with a child, or -1.
+		 */
+		protected abstract int lastByte();
+
+		protected abstract boolean isFull();
+
+		/**
+		 * Add a child under a byte which has none; the node must not be full.
+		 */
+		protected abstract void addChild(int b, Node<E> child);
+
+		/**
+		 * Replace the child under a byte which has one.
+		 */
+		protected abstract void setChild(int b, Node<E> child);
+
+		protected abstract void removeChild(int b);
+
+		/**
+		 * @return a node of the next larger size, with the same contents.
+		 */
+		protected abstract InnerNode<E> grow();
+
+		/**
+		 * @return a node of a smaller size with the same contents, if this one is sparse enough; otherwise this node.
+		 */
+		protected abstract InnerNode<E> shrink();
+
+		protected <N extends InnerNode<E>> N copyInto(N node) {
+			node.terminal = this.terminal;
+
+			for (int b = this.nextByte(0); b >= 0; b = b == 255 ? -1 : this.nextByte(b + 1)) {
+				node.addChild(b, this.child(b));
+			}
+
+			return node;
+		}
+	}
+
+	/**
+	 * Node4 and Node16: the child bytes in a sorted array, and the children alongside.
+	 */
+	protected abstract static class SortedNode<E> extends InnerNode<E> {
+		private final byte[] keys;
+		private final Node<E>[] children;
+
+		@SuppressWarnings("unchecked")
+		protected SortedNode(byte[] prefix, int capacity) {
+			super(prefix);
+			this.keys = new byte[capacity];
+			this.children = (Node<E>[]) new Node<?>[capacity];
+		}
+
+		/**
+		 * @return the index of the first key byte not less than b.
+		 */
+		private int position(int b) {
+			int i = 0;
+
+			while (i < this.count && (this.keys[i] & 0xFF) < b) {
+				i++;
+			}
+
+			return i;
+		}
+
+		@Override
+		protected Node<E> child(int b) {
+			int i = this.position(b);
+
+			return i < this.count && (this.keys[i] & 0xFF) == b ? this.children[i] : null;
+		}
+
+		@Override
+		protected int nextByte(int from) {
+			int i = this.position(from);
+
+			return i < this.count ? this.keys[i] & 0xFF : -1;
+		}
+
+		@Override
+		protected int lastByte() {
+			return this.count > 0 ? this.keys[this.count - 1] & 0xFF : -1;
+		}
+
+		@Override
+		protected boolean isFull() {
+			return this.count == this.keys.length;
+		}
+
+		@Override
+		protected void addChild(int b, Node<E> child) {
+			int i = this.position(b);
+
+			System.arraycopy(this.keys, i, this.keys, i + 1, this.count - i);
+			System.arraycopy(this.children, i, this.children, i + 1, this.count - i);
+			this.keys[i] = (byte)b;
+			this.children[i] = child;
+			this.count++;
+		}
+
+		@Override
+		protected void setChild(int b, Node<E> child) {
+			this.children[this.position(b)] = child;
+		}
+
+		@Override
+		protected void removeChild(int b) {
+			int i = this.position(b);
+
+			System.arraycopy(this.keys, i + 1, this.keys, i, this.count - i - 1);
+			System.arraycopy(this.children, i + 1, this.children, i, this.count - i - 1);
+			this.children[--this.count] = null;
+		}
+	}
+
+	protected static final class Node4<E> extends SortedNode<E> {
+		protected Node4(byte[] prefix) {
+			super(prefix, 4);
+		}
+
+		@Override
+		protected InnerNode<E> grow() {
+			return this.copyInto(new Node16<E>(this.prefix));
+		}
+
+		@Override
+		protected InnerNode<E> shrink() {
+			return this;
+		}
+	}
+
+	protected static final class Node16<E> extends SortedNode<E> {
+		protected Node16(byte[] prefix) {
+			super(prefix, 16);
+		}
+
+		@Override
+		protected InnerNode<E> grow() {
+			return this.copyInto(new Node48<E>(this.prefix));
+		}
+
+		@Override
+		protected InnerNode<E> shrink() {
+			return this.count <= 3 ? this.copyInto(new Node4<E>(this.prefix)) : this;
+		}
+	}
+
+	/**
+	 * Node48: a slot number (plus one) for every byte, and 48 slots for the children.
+	 */
+	protected static final class Node48<E> extends InnerNode<E> {
+		private final byte[] index = new byte[256];
+		@SuppressWarnings("unchecked")
+		private final Node<E>[] children = (Node<E>[]) new Node<?>[48];
+
+		protected Node48(byte[] prefix) {
+			super(prefix);
+		}
+
+		@Override
+		protected Node<E> child(int b) {
+			int slot = this.index[b];
+
+			return slot == 0 ? null : this.children[slot - 1];
+		}
+
+		@Override
+		protected int nextByte(int from) {
+			for (int b = from; b < 256; b++) {
+				if (this.index[b] != 0) {
+					return b;
+				}
+			}
+
+			return -1;
+		}
+
+		@Override
+		protected int lastByte() {
+			return this.count == 0 ? -1 : this.previousByte(255);
+		}
+
+		private int previousByte(int from) {
+			for (int b = from; b >= 0; b--) {
+				if (this.index[b] != 0) {
+					return b;
+				}
+			}
+
+			return -1;
+		}
+
+		@Override
+		protected boolean isFull() {
+			return this.count == 48;
+		}
+
+		@Override
+		protected void addChild(int b, Node<E> child) {
+			int slot = 0;
+
+			while (this.children[slot] != null) {
+				slot++;
+			}
+
+			this.children[slot] = child;
+			this.index[b] = (byte)(slot + 1);
+			this.count++;
+		}
+
+		@Override
+		protected void setChild(int b, Node<E> child) {
+			this.children[this.index[b] - 1] = child;
+		}
+
+		@Override
+		protected void removeChild(int b) {
+			this.children[this.index[b] - 1] = null;
+			this.index[b] = 0;
+			this.count--;
+		}
+
+		@Override
+		protected InnerNode<E> grow() {
+			return this.copyInto(new Node256<E>(this.prefix));
+		}
+
+		@Override
+		protected InnerNode<E> shrink() {
+			return this.count <= 12 ? this.copyInto(new Node16<E>(this.prefix)) : this;
+		}
+	}
+
+	protected static final class Node256<E> extends InnerNode<E> {
+		@SuppressWarnings("unchecked")
+		private final Node<E>[] children = (Node<E>[]) new Node<?>[256];
+
+		protected Node256(byte[] prefix) {
+			super(prefix);
+		}
+
+		@Override
+		protected Node<E> child(int b) {
+			return this.children[b];
+		}
+
+		@Override
+		protected int nextByte(int from) {
+			for (int b = from; b < 256; b++) {
+				if (this.children[b] != null) {
+					return b;
+				}
+			}
+
+			return -1;
+		}
+
+		@Override
+		protected int lastByte() {
+			for (int b = 255; b >= 0 && this.count > 0; b--) {
+				if (this.children[b] != null) {
+					return b;
+				}
+			}
+
+			return -1;
+		}
+
+		@Override
+		protected boolean isFull() {
+			return false;
+		}
+
+		@Override
+		protected void addChild(int b, Node<E> child) {
+			this.children[b] = child;
+			this.count++;
+		}
+
+		@Override
+		protected void setChild(int b, Node<E> child) {
+			this.children[b] = child;
+		}
+
+		@Override
+		protected void removeChild(int b) {
+			this.children[b] = null;
+			this.count--;
+		}
+
+		@Override
+		protected InnerNode<E> grow() {
+			throw new IllegalStateException("A Node256 can not grow.");
+		}
+
+		@Override
+		protected InnerNode<E> shrink() {
+			return this.count <= 37 ? this.copyInto(new Node48<E>(this.prefix)) : this;
+		}
+	}
+
+	protected class TreeIterator implements Iterator<E> {
+		private Leaf<E> next;
+		private Leaf<E> last;
+		private int modificationCount;
+
+		public TreeIterator(Leaf<E> first) {
+			this.next = first;
+			this.modificationCount = AdaptiveRadixTree.this.modificationCount;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next != null;
+		}
+
+		@Override
+		public E next() {
+			if (this.next == null) {
+				throw new NoSuchElementException();
+			} else if (this.modificationCount != AdaptiveRadixTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			this.last = this.next;
+			this.next = AdaptiveRadixTree.this.ceiling(AdaptiveRadixTree.this.root, this.last.key, 0, false);
+
+			return this.last.element;
+		}
+
+		/*
+		 * The successor was found by key, so it is still the successor after the removal.
+		 */
+		@Override
+		public void remove() {
+			if (this.last == null) {
+				throw new IllegalStateException();
+			} else if (this.modificationCount != AdaptiveRadixTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			AdaptiveRadixTree.this.remove(this.last.element);
+			this.next = AdaptiveRadixTree.this.ceiling(AdaptiveRadixTree.this.root, this.last.key, 0, false);
+			this.last = null;
+			this.modificationCount = AdaptiveRadixTree.this.modificationCount;
+		}
+	}
+
+	private final KeyEncoder<E> encoder;
+
+	protected Node<E> root;
+
+	protected int size;
+
+	protected int modificationCount;
+
+	/**
+	 * Flag set by the recursive insert and remove, when they change the set.
+	 */
+	private boolean changed;
+
+	/**
+	 * Construct an empty tree, using the given encoder for the elements.
+	 * @param encoder the order-preserving encoder of the elements.
+	 */
+	public AdaptiveRadixTree(KeyEncoder<E> encoder) {
+		this.encoder = Objects.requireNonNull(encoder);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof Comparable<?>) {
+			@SuppressWarnings("unchecked")
+			E element = (E)o;
+
+			return this.find(this.encoder.encode(element)) != null;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new TreeIterator(this.root == null ? null : this.first(this.root));
+	}
+
+	/*
+	 * Finds the lower bound by key, then walks by successors.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#forEachInRange(java.lang.Comparable, java.lang.Comparable, java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachInRange(E from, E to, Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+
+		int modificationCount = this.modificationCount;
+		Leaf<E> leaf = from == null ? (this.root == null ? null : this.first(this.root)) : this.ceiling(this.root, this.encoder.encode(from), 0, true);
+
+		while (leaf != null && (to == null || leaf.element.compareTo(to) < 0)) {
+			action.accept(leaf.element);
+
+			if (modificationCount != this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			leaf = this.ceiling(this.root, leaf.key, 0, false);
+		}
+	}
+
+	@Override
+	public boolean add(E e) {
+		this.changed = false;
+		this.root = this.insert(this.root, this.encoder.encode(Objects.requireNonNull(e)), e, 0);
+
+		if (this.changed) {
+			this.size++;
+			this.modificationCount++;
+		}
+
+		return this.changed;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!(o instanceof Comparable<?>) || this.root == null) {
+			return false;
+		}
+
+		@SuppressWarnings("unchecked")
+		E element = (E)o;
+
+		this.changed = false;
+		this.root = this.delete(this.root, this.encoder.encode(element), 0);
+
+		if (this.changed) {
+			this.size--;
+			this.modificationCount++;
+		}
+
+		return this.changed;
+	}
+
+	@Override
+	public void clear() {
+		this.root = null;
+		this.size = 0;
+		this.modificationCount++;
+	}
+
+	@Override
+	public E minimum() {
+		return this.root == null ? null : this.first(this.root).element;
+	}
+
+	@Override
+	public E maximum() {
+		return this.root == null ? null : this.last(this.root).element;
+	}
+
+	/*
+	 * The number of inner nodes on the longest path; this depends on the keys,
+	 * not on the number of elements.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#height()
+	 */
+	@Override
+	public int height() {
+		return this.height(this.root);
+	}
+
+	// =============== Protected Methods ===============
+
+	protected int height(Node<E> node) {
+		if (!(node instanceof InnerNode<?>)) {
+			return 0;
+		}
+
+		InnerNode<E> inner = (InnerNode<E>)node;
+		int height = 0;
+
+		for (int b = inner.nextByte(0); b >= 0; b = b == 255 ? -1 : inner.nextByte(b + 1)) {
+			height = Math.max(height, this.height(inner.child(b)));
+		}
+
+		return height + 1;
+	}
+
+	/**
+	 * Look the key up.
+	 * @param key the encoded element.
+	 * @return the leaf holding the key, or null.
+	 */
+	protected Leaf<E> find(byte[] key) {
+		Node<E> node = this.root;
+		int depth = 0;
+
+		while (node instanceof InnerNode<?>) {
+			InnerNode<E> inner = (InnerNode<E>)node;
+			byte[] prefix = inner.prefix;
+
+			if (key.length - depth < prefix.length) {
+				return null;
+			}
+
+			for (int i = 0; i < prefix.length; i++) {
+				if (prefix[i] != key[depth + i]) {
+					return null;
+				}
+			}
+
+			depth += prefix.length;
+
+			if (depth == key.length) {
+				return inner.terminal;
+			}
+
+			node = inner.child(key[depth++] & 0xFF);
+		}
+
+		// Leaves are placed as high as possible, so the rest of the key is unchecked.
+		Leaf<E> leaf = (Leaf<E>)node;
+
+		return leaf != null && Arrays.equals(leaf.key, key) ? leaf : null;
+	}
+
+	/**
+	 * Insert the key under the given node, whose first depth bytes match the key.
+	 * @return the node to take the place of the given one.
+	 */
+	protected Node<E> insert(Node<E> node, byte[] key, E element, int depth) {
+		if (node == null) {
+			this.changed = true;
+			return new Leaf<E>(key, element);
+		} else if (node instanceof Leaf<?>) {
+			Leaf<E> leaf = (Leaf<E>)node;
+
+			if (Arrays.equals(leaf.key, key)) {
+				return leaf;
+			}
+
+			// Two leaves: a new node for their common prefix, each below their first different byte.
+			int common = mismatch(leaf.key, key, depth);
+			InnerNode<E> inner = new Node4<E>(Arrays.copyOfRange(key, depth, depth + common));
+
+			this.changed = true;
+			this.place(inner, leaf, depth + common);
+			this.place(inner, new Leaf<E>(key, element), depth + common);
+
+			return inner;
+		}
+
+		InnerNode<E> inner = (InnerNode<E>)node;
+		byte[] prefix = inner.prefix;
+		int matched = 0;
+
+		while (matched < prefix.length && depth + matched < key.length && prefix[matched] == key[depth + matched]) {
+			matched++;
+		}
+
+		if (matched < prefix.length) {
+			// The key leaves the prefix: split it at the first different byte.
+			InnerNode<E> split = new Node4<E>(Arrays.copyOf(prefix, matched));
+
+			split.addChild(prefix[matched] & 0xFF, inner);
+			inner.prefix = Arrays.copyOfRange(prefix, matched + 1, prefix.length);
+
+			this.changed = true;
+			this.place(split, new Leaf<E>(key, element), depth + matched);
+
+			return split;
+		}
+
+		depth += prefix.length;
+
+		if (depth == key.length) {
+			if (inner.terminal == null) {
+				inner.terminal = new Leaf<E>(key, element);
+				this.changed = true;
+			}
+
+			return inner;
+		}
+
+		int b = key[depth] & 0xFF;
+		Node<E> child = inner.child(b);
+
+		if (child == null) {
+			if (inner.isFull()) {
+				inner = inner.grow();
+			}
+
+			inner.addChild(b, new Leaf<E>(key, element));
+			this.changed = true;
+		} else {
+			Node<E> replacement = this.insert(child, key, element, depth + 1);
+
+			if (replacement != child) {
+				inner.setChild(b, replacement);
+			}
+		}
+
+		return inner;
+	}
+
+	/**
+	 * Remove the key from under the given node, whose first depth bytes match the key.
+	 * @return the node to take the place of the given one, possibly null.
+	 */
+	protected Node<E> delete(Node<E> node, byte[] key, int depth) {
+		if (node instanceof Leaf<?>) {
+			if (Arrays.equals(((Leaf<E>)node).key, key)) {
+				this.changed = true;
+				return null;
+			} else {
+				return node;
+			}
+		}
+
+		InnerNode<E> inner = (InnerNode<E>)node;
+		byte[] prefix = inner.prefix;
+
+		if (key.length - depth < prefix.length) {
+			return inner;
+		}
+
+		for (int i = 0; i < prefix.length; i++) {
+			if (prefix[i] != key[depth + i]) {
+				return inner;
+			}
+		}
+
+		depth += prefix.length;
+
+		if (depth == key.length) {
+			if (inner.terminal == null) {
+				return inner;
+			}
+
+			inner.terminal = null;
+			this.changed = true;
+		} else {
+			int b = key[depth] & 0xFF;
+			Node<E> child = inner.child(b);
+
+			if (child == null) {
+				return inner;
+			}
+
+			Node<E> replacement = this.delete(child, key, depth + 1);
+
+			if (replacement == null) {
+				inner.removeChild(b);
+			} else if (replacement != child) {
+				inner.setChild(b, replacement);
+			}
+
+			if (!this.changed) {
+				return inner;
+			}
+		}
+
+		return this.collapse(inner);
+	}
+
+	/**
+	 * Restore the shape of a node after a removal below it: a node without children
+	 * is replaced by its terminal leaf, and a node with a single child and no terminal
+	 * is merged into that child.
+	 */
+	protected Node<E> collapse(InnerNode<E> inner) {
+		if (inner.count == 0) {
+			return inner.terminal;
+		} else if (inner.count == 1 && inner.terminal == null) {
+			int b = inner.nextByte(0);
+			Node<E> child = inner.child(b);
+
+			if (child instanceof InnerNode<?>) {
+				InnerNode<E> childInner = (InnerNode<E>)child;
+				byte[] prefix = Arrays.copyOf(inner.prefix, inner.prefix.length + 1 + childInner.prefix.length);
+
+				prefix[inner.prefix.length] = (byte)b;
+				System.arraycopy(childInner.prefix, 0, prefix, inner.prefix.length + 1, childInner.prefix.length);
+				childInner.prefix = prefix;
+			}
+
+			return child;
+		} else {
+			return inner.shrink();
+		}
+	}
+
+	/**
+	 * Find the first leaf whose key is greater than (or, if inclusive, equal to) the
+	 * given key, under the given node, whose first depth bytes match the key.
+	 * @return the leaf, or null if there is none.
+	 */
+	protected Leaf<E> ceiling(Node<E> node, byte[] key, int depth, boolean inclusive) {
+		if (node == null) {
+			return null;
+		} else if (node instanceof Leaf<?>) {
+			Leaf<E> leaf = (Leaf<E>)node;
+			int comparison = compare(leaf.key, key);
+
+			return comparison > 0 || (comparison == 0 && inclusive) ? leaf : null;
+		}
+
+		InnerNode<E> inner = (InnerNode<E>)node;
+		byte[] prefix = inner.prefix;
+
+		for (int i = 0; i < prefix.length; i++) {
+			if (depth + i == key.length) {
+				// The key is a proper prefix of everything here.
+				return this.first(inner);
+			}
+
+			int difference = (prefix[i] & 0xFF) - (key[depth + i] & 0xFF);
+
+			if (difference > 0) {
+				return this.first(inner);
+			} else if (difference < 0) {
+				return null;
+			}
+		}
+
+		depth += prefix.length;
+
+		int from;
+
+		if (depth == key.length) {
+			if (inclusive && inner.terminal != null) {
+				return inner.terminal;
+			}
+
+			from = 0;
+		} else {
+			int b = key[depth] & 0xFF;
+			Leaf<E> leaf = this.ceiling(inner.child(b), key, depth + 1, inclusive);
+
+			if (leaf != null || b == 255) {
+				return leaf;
+			}
+
+			from = b + 1;
+		}
+
+		int next = inner.nextByte(from);
+
+		return next < 0 ? null : this.first(inner.child(next));
+	}
+
+	protected Leaf<E> first(Node<E> node) {
+		while (node instanceof InnerNode<?>) {
+			InnerNode<E> inner = (InnerNode<E>)node;
+
+			if (inner.terminal != null) {
+				return inner.terminal;
+			}
+
+			node = inner.child(inner.nextByte(0));
+		}
+
+		return (Leaf<E>)node;
+	}
+
+	protected Leaf<E> last(Node<E> node) {
+		while (node instanceof InnerNode<?>) {
+			InnerNode<E> inner = (InnerNode<E>)node;
+
+			if (inner.count == 0) {
+				return inner.terminal;
+			}
+
+			node = inner.child(inner.lastByte());
+		}
+
+		return (Leaf<E>)node;
+	}
+
+	/**
+	 * Put a leaf into a fresh node, as its terminal if its key ends at the given depth,
+	 * or as the child under its byte at that depth otherwise.
+	 */
+	private void place(InnerNode<E> inner, Leaf<E> leaf, int depth) {
+		if (leaf.key.length == depth) {
+			inner.terminal = leaf;
+		} else {
+			inner.addChild(leaf.key[depth] & 0xFF, leaf);
+		}
+	}
+
+	/**
+	 * @return the number of equal bytes of the two keys, starting at the given offset.
+	 */
+	private static int mismatch(byte[] a, byte[] b, int offset) {
+		int i = offset;
+
+		while (i < a.length && i < b.length && a[i] == b[i]) {
+			i++;
+		}
+
+		return i - offset;
+	}
+
+	private static int compare(byte[] a, byte[] b) {
+		int length = Math.min(a.length, b.length);
+
+		for (int i = 0; i < length; i++) {
+			int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+
+			if (difference != 0) {
+				return difference;
+			}
+		}
+
+		return a.length - b.length;
+	}
+}
@@ -0,0 +1,396 @@
+package com.safkanyazilim.util;
+
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+
+/**
+ * <p> This is a {@link SearchTree} which changes its representation according
+ * to its size. Small sets are kept in a sorted array, searched with a binary
+ * search, where inserting and removing shift the elements after the affected
+ * position. Once the number of elements goes above the promotion threshold,
+ * the elements are moved into a {@link RedBlackTree}; once it goes below the
+ * (lower) demotion threshold, they are moved back into an array. The gap between
+ * the two thresholds keeps a set whose size hovers around one of them from being
+ * converted back and forth.
+ * </p>
+ *
+ * <p> For small sets the array is both smaller and faster than a tree: there
+ * are no node objects and no NIL sentinel to allocate, and a binary search
+ * over a few dozen contiguous references beats chasing pointers.
+ * </p>
+ *
+ * <p> The iteration order and the iterator semantics are those of {@link RedBlackTree}:
+ * elements are visited in increasing order, the iterator supports removal, and it
+ * throws a ConcurrentModificationException if the set is modified by other means
+ * while it is active. This holds across a change of representation, too.
+ * </p>
+ *
+ * <p> Null elements are not allowed, trying to add a null value will result
+ * in a NullPointerException. Duplicate elements are also not allowed;
+ * trying to add an existing element into the tree will fail (however not
+ * result in an exception).
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type to be stored in the tree.
+ */
+public class AdaptiveSearchTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E> {
+
+	/**
+	 * The default size above which the elements are moved into a tree.
+	 */
+	public static final int DEFAULT_PROMOTION_THRESHOLD = 32;
+
+	/**
+	 * The default size below which the elements are moved back into an array.
+	 */
+	public static final int DEFAULT_DEMOTION_THRESHOLD = 16;
+
+	private static final Object[] EMPTY_ELEMENTS = {};
+
+	private static final int MINIMUM_CAPACITY = 4;
+
+	protected class TreeIterator implements Iterator<E> {
+		/**
+		 * The iterator of the tree, if the elements were in a tree when we last looked.
+		 */
+		private Iterator<E> treeIterator;
+		/**
+		 * The index of the next element, if the elements are in an array.
+		 */
+		private int index;
+		private E prev;
+		private int modificationCount;
+
+		public TreeIterator() {
+			this.treeIterator = AdaptiveSearchTree.this.tree == null ? null : AdaptiveSearchTree.this.tree.iterator();
+			this.index = 0;
+			this.prev = null;
+			this.modificationCount = AdaptiveSearchTree.this.modificationCount;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.treeIterator != null) {
+				return this.treeIterator.hasNext();
+			} else {
+				return this.index < AdaptiveSearchTree.this.size;
+			}
+		}
+
+		@Override
+		public E next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			} else if (this.modificationCount != AdaptiveSearchTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			} else if (this.treeIterator != null) {
+				this.prev = this.treeIterator.next();
+				return this.prev;
+			} else {
+				this.prev = AdaptiveSearchTree.this.element(this.index++);
+				return this.prev;
+			}
+		}
+
+		/*
+		 * Implementation note: A removal may demote the tree into an array, in
+		 * which case the iterator of the tree is dropped, and we continue from the
+		 * position in the array where the removed element used to be.
+		 */
+		@Override
+		public void remove() {
+			if (this.prev == null) {
+				throw new IllegalStateException();
+			} else if (this.modificationCount != AdaptiveSearchTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			if (this.treeIterator != null) {
+				this.treeIterator.remove();
+				AdaptiveSearchTree.this.size--;
+
+				if (AdaptiveSearchTree.this.size < AdaptiveSearchTree.this.demotionThreshold) {
+					AdaptiveSearchTree.this.demote();
+					this.treeIterator = null;
+					this.index = AdaptiveSearchTree.this.search(this.prev);
+					this.index = this.index < 0 ? -(this.index + 1) : this.index;
+				}
+			} else {
+				AdaptiveSearchTree.this.removeAt(--this.index);
+				AdaptiveSearchTree.this.size--;
+			}
+
+			AdaptiveSearchTree.this.modificationCount++;
+			this.modificationCount = AdaptiveSearchTree.this.modificationCount;
+			this.prev = null;
+		}
+	}
+
+	/**
+	 * The sorted elements, when the set is small. Null if the elements are in the tree.
+	 */
+	private Object[] elements;
+
+	/**
+	 * The tree holding the elements, when the set is large. Null if the elements are in the array.
+	 */
+	private RedBlackTree<E> tree;
+
+	/**
+	 * The number of elements in this set.
+	 */
+	private int size;
+
+	private final int promotionThreshold;
+
+	private final int demotionThreshold;
+
+	/**
+	 * The count of successful modification operations on this tree. This is used to keep track
+	 * of modifications being done while an iterator is active.
+	 */
+	protected int modificationCount;
+
+	/**
+	 * Construct a new AdaptiveSearchTree with the default thresholds, which is initially empty.
+	 */
+	public AdaptiveSearchTree() {
+		this(DEFAULT_PROMOTION_THRESHOLD, DEFAULT_DEMOTION_THRESHOLD);
+	}
+
+	/**
+	 * Construct a new AdaptiveSearchTree with the given thresholds, which is initially empty.
+	 *
+	 * @param promotionThreshold the largest number of elements kept in an array.
+	 * @param demotionThreshold when the tree has fewer elements than this, they are moved back into an array.
+	 * @throws IllegalArgumentException if the demotion threshold is negative, or not less than the promotion threshold.
+	 */
+	public AdaptiveSearchTree(int promotionThreshold, int demotionThreshold) {
+		if (demotionThreshold < 0 || demotionThreshold >= promotionThreshold) {
+			throw new IllegalArgumentException("The demotion threshold must be non-negative and less than the promotion threshold. We have: "
+					+ demotionThreshold + " and " + promotionThreshold);
+		}
+
+		this.promotionThreshold = promotionThreshold;
+		this.demotionThreshold = demotionThreshold;
+		this.elements = EMPTY_ELEMENTS;
+		this.tree = null;
+		this.size = 0;
+		this.modificationCount = 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof Comparable<?>) {
+			@SuppressWarnings("unchecked")
+			E element = (E)o;
+
+			if (this.tree != null) {
+				return this.tree.contains(element);
+			} else {
+				return this.search(element) >= 0;
+			}
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new TreeIterator();
+	}
+
+	@Override
+	public boolean add(E e) {
+		Objects.requireNonNull(e, "Null elements not allowed.");
+
+		if (this.tree != null) {
+			if (!this.tree.add(e)) {
+				return false;
+			}
+		} else {
+			int index = this.search(e);
+
+			if (index >= 0) {
+				return false;
+			} else if (this.size == this.promotionThreshold) {
+				this.promote();
+				this.tree.add(e);
+			} else {
+				this.insertAt(-(index + 1), e);
+			}
+		}
+
+		this.size++;
+		this.modificationCount++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (o instanceof Comparable<?>) {
+			if (this.tree != null) {
+				if (!this.tree.remove(o)) {
+					return false;
+				}
+
+				this.size--;
+
+				if (this.size < this.demotionThreshold) {
+					this.demote();
+				}
+			} else {
+				@SuppressWarnings("unchecked")
+				int index = this.search((E)o);
+
+				if (index < 0) {
+					return false;
+				}
+
+				this.removeAt(index);
+				this.size--;
+			}
+
+			this.modificationCount++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.elements = EMPTY_ELEMENTS;
+		this.tree = null;
+		this.size = 0;
+		this.modificationCount++;
+	}
+
+	@Override
+	public E minimum() {
+		if (this.tree != null) {
+			return this.tree.minimum();
+		} else {
+			return this.size == 0 ? null : this.element(0);
+		}
+	}
+
+	@Override
+	public E maximum() {
+		if (this.tree != null) {
+			return this.tree.maximum();
+		} else {
+			return this.size == 0 ? null : this.element(this.size - 1);
+		}
+	}
+
+	/*
+	 * While the elements are in an array, the height is that of the implicit
+	 * tree a binary search walks over.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#height()
+	 */
+	@Override
+	public int height() {
+		if (this.tree != null) {
+			return this.tree.height();
+		} else if (this.size == 0) {
+			return 0;
+		} else {
+			return 31 - Integer.numberOfLeadingZeros(this.size);
+		}
+	}
+
+	// =============== Protected Methods ===============
+
+	@SuppressWarnings("unchecked")
+	protected E element(int index) {
+		return (E)this.elements[index];
+	}
+
+	/**
+	 * Binary search for an element in the array. Just like {@link java.util.Arrays#binarySearch(Object[], Object)},
+	 * this returns the index of the element if found, and (-(insertion point) - 1) otherwise.
+	 * @param element the element we are seeking.
+	 * @return the index of the element, or the encoded insertion point.
+	 */
+	protected int search(E element) {
+		int low = 0;
+		int high = this.size - 1;
+
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = this.element(middle).compareTo(element);
+
+			if (comparison == 0) {
+				return middle;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				low = middle + 1;
+			}
+		}
+
+		return -(low + 1);
+	}
+
+	/**
+	 * Insert an element at the given index of the array, growing the array if needed.
+	 * This method will not touch the size.
+	 * @param index the index the element will be at.
+	 * @param element the element to be inserted.
+	 */
+	protected void insertAt(int index, E element) {
+		if (this.size == this.elements.length) {
+			int capacity = Math.min(this.promotionThreshold, Math.max(MINIMUM_CAPACITY, 2 * this.size));
+			Object[] grown = new Object[capacity];
+			System.arraycopy(this.elements, 0, grown, 0, this.size);
+			this.elements = grown;
+		}
+
+		System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+		this.elements[index] = element;
+	}
+
+	/**
+	 * Remove the element at the given index of the array. This method will not touch the size.
+	 * @param index the index of the element to be removed.
+	 */
+	protected void removeAt(int index) {
+		System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+		this.elements[this.size - 1] = null;
+	}
+
+	/**
+	 * Move the elements from the array into a tree. The array is sorted, so the
+	 * tree is built from it directly, in linear time.
+	 */
+	protected void promote() {
+		this.tree = new RedBlackTree<E>();
+		this.tree.rebuild(this.elements, this.size);
+		this.elements = null;
+	}
+
+	/**
+	 * Move the elements from the tree into an array.
+	 */
+	protected void demote() {
+		Object[] sorted = this.tree.toArray();
+
+		this.elements = new Object[Math.min(this.promotionThreshold, Math.max(MINIMUM_CAPACITY, 2 * this.size))];
+		System.arraycopy(sorted, 0, this.elements, 0, this.size);
+		this.tree = null;
+	}
+}
@@ -0,0 +1,208 @@
+package com.safkanyazilim.util;
+
+import java.util.Objects;
+
+
+/**
+ * <p> A priority queue whose entries can be addressed after insertion, through the
+ * {@link Handle} returned when inserting them: the priority of an entry can be
+ * decreased, and the entry removed, in O(lg N) time. This is what shortest path
+ * searches need, to lower the distance of a node already in the queue, instead of
+ * inserting it again.
+ * </p>
+ *
+ * <p> The entries are kept in a {@link RedBlackTree}, ordered by priority, and among
+ * equal priorities by order of insertion, so entries of equal priority leave the
+ * queue first in, first out. Lower priorities leave the queue first.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <T> The type of the items in the queue.
+ */
+public class AddressablePriorityQueue<T> {
+
+	/**
+	 * An entry of the queue: an item with its priority.
+	 *
+	 * @author Dr. Y. Safkan
+	 *
+	 * @param <T> The type of the item.
+	 */
+	public static final class Handle<T> implements Comparable<Handle<T>> {
+		private final T item;
+		private final long sequence;
+		private double priority;
+
+		/**
+		 * The queue holding this entry, or null once it has left the queue.
+		 */
+		private AddressablePriorityQueue<T> queue;
+
+		private Handle(AddressablePriorityQueue<T> queue, T item, double priority, long sequence) {
+			this.queue = queue;
+			this.item = item;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		/**
+		 * @return the item of this entry.
+		 */
+		public T getItem() {
+			return this.item;
+		}
+
+		/**
+		 * @return the current priority of this entry.
+		 */
+		public double getPriority() {
+			return this.priority;
+		}
+
+		/**
+		 * @return true if this entry is still in its queue.
+		 */
+		public boolean isQueued() {
+			return this.queue != null;
+		}
+
+		@Override
+		public int compareTo(Handle<T> other) {
+			int comparison = Double.compare(this.priority, other.priority);
+
+			return comparison != 0 ? comparison : Long.compare(this.sequence, other.sequence);
+		}
+
+		@Override
+		public String toString() {
+			return this.item + "@" + this.priority;
+		}
+	}
+
+	private final RedBlackTree<Handle<T>> entries;
+	private long nextSequence;
+
+	/**
+	 * Construct a new, empty queue.
+	 */
+	public AddressablePriorityQueue() {
+		this.entries = new RedBlackTree<Handle<T>>();
+		this.nextSequence = 0;
+	}
+
+	/**
+	 * Insert an item.
+	 * @param item the item; the same item may be inserted more than once.
+	 * @param priority the priority of the item.
+	 * @return the handle of the new entry.
+	 * @throws IllegalArgumentException if the priority is NaN.
+	 */
+	public Handle<T> insert(T item, double priority) {
+		this.checkPriority(priority);
+
+		Handle<T> handle = new Handle<T>(this, item, priority, this.nextSequence++);
+
+		this.entries.add(handle);
+
+		return handle;
+	}
+
+	/**
+	 * @return the entry with the lowest priority, without removing it, or null if
+	 * the queue is empty.
+	 */
+	public Handle<T> minimum() {
+		return this.entries.minimum();
+	}
+
+	/**
+	 * Remove the entry with the lowest priority.
+	 * @return the removed entry, or null if the queue is empty.
+	 */
+	public Handle<T> deleteMin() {
+		Handle<T> handle = this.entries.pollMinimum();
+
+		if (handle != null) {
+			handle.queue = null;
+		}
+
+		return handle;
+	}
+
+	/**
+	 * Lower the priority of an entry.
+	 * @param handle the handle of the entry, which must be in this queue.
+	 * @param priority the new priority, which may not be greater than the current one.
+	 * @throws IllegalArgumentException if the entry is not in this queue, or the new priority
+	 * is greater than the current one, or NaN.
+	 */
+	public void decreaseKey(Handle<T> handle, double priority) {
+		this.checkHandle(handle);
+		this.checkPriority(priority);
+
+		if (priority > handle.priority) {
+			throw new IllegalArgumentException("The new priority " + priority + " is greater than the current " + handle.priority + ".");
+		} else if (priority < handle.priority) {
+			// The entry must leave the tree while its position changes.
+			this.entries.remove(handle);
+			handle.priority = priority;
+			this.entries.add(handle);
+		}
+	}
+
+	/**
+	 * Remove an entry.
+	 * @param handle the handle of the entry.
+	 * @return true if the entry was in this queue, and has been removed.
+	 */
+	public boolean remove(Handle<T> handle) {
+		if (handle == null || handle.queue != this) {
+			return false;
+		}
+
+		this.entries.remove(handle);
+		handle.queue = null;
+
+		return true;
+	}
+
+	/**
+	 * @return the number of entries in the queue.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * @return true if the queue is empty.
+	 */
+	public boolean isEmpty() {
+		return this.entries.isEmpty();
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public void clear() {
+		for (Handle<T> handle : this.entries) {
+			handle.queue = null;
+		}
+
+		this.entries.clear();
+	}
+
+	// =============== Private Methods ===============
+
+	private void checkHandle(Handle<T> handle) {
+		if (Objects.requireNonNull(handle).queue != this) {
+			throw new IllegalArgumentException("The entry " + handle + " is not in this queue.");
+		}
+	}
+
+	private void checkPriority(double priority) {
+		if (Double.isNaN(priority)) {
+			throw new IllegalArgumentException("The priority may not be NaN.");
+		}
+	}
+}
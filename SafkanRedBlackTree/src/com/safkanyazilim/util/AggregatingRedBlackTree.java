@@ -0,0 +1,213 @@
+package com.safkanyazilim.util;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+
+/**
+ * <p> A Red-Black Tree which keeps, in each node, an aggregate of the elements in its
+ * subtree, such as the sum, the minimum or the maximum of some attribute. This allows
+ * aggregating the elements in any range in O(lg N) time, however many elements are in it.
+ * </p>
+ *
+ * <p> The aggregate is defined by three things: a lift function, mapping each element
+ * to a value; an associative combine function, joining the values of two consecutive
+ * runs of elements; and an identity value, which leaves any value unchanged when
+ * combined with it. The combine function need not be commutative: values are always
+ * combined in the order of their elements. For instance, the total load of a set of
+ * events, ordered by timestamp, would be aggregated with
+ * <code>new AggregatingRedBlackTree&lt;&gt;(Event::getLoad, Long::sum, 0L)</code>.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type to be stored in the tree.
+ * @param <A> The type of the aggregate values.
+ */
+public class AggregatingRedBlackTree<E extends Comparable<E>, A> extends RedBlackTree<E> {
+
+	/**
+	 * A node which also keeps the lifted value of its element, and the aggregate
+	 * of its subtree.
+	 *
+	 * @author Dr. Y. Safkan
+	 */
+	protected class AggregateNode extends Node {
+		/**
+		 * The lifted value of the element. Nodes never change their elements, so
+		 * this is computed once.
+		 */
+		private A value;
+		private boolean lifted;
+
+		/**
+		 * The aggregate of the subtree of this node.
+		 */
+		private A aggregate;
+
+		protected AggregateNode(Node parent, boolean red) {
+			super(parent, NIL, NIL, red);
+		}
+	}
+
+	private final Function<? super E, ? extends A> lift;
+	private final BinaryOperator<A> combine;
+	private final A identity;
+
+	/**
+	 * Construct a new AggregatingRedBlackTree, which is initially empty.
+	 * @param lift the function mapping each element to a value.
+	 * @param combine the associative function combining two values.
+	 * @param identity the identity value of the combine function.
+	 */
+	public AggregatingRedBlackTree(Function<? super E, ? extends A> lift, BinaryOperator<A> combine, A identity) {
+		super();
+		this.lift = Objects.requireNonNull(lift);
+		this.combine = Objects.requireNonNull(combine);
+		this.identity = identity;
+	}
+
+	/**
+	 * @return the aggregate of all elements in the tree, or the identity if it is empty.
+	 */
+	public A aggregate() {
+		return this.aggregate(this.root);
+	}
+
+	/**
+	 * <p>Aggregates the elements in the range [from, to). Either bound may be null, in
+	 * which case the range is not bounded on that side.
+	 * </p>
+	 *
+	 * <p>The search descends to the highest node in the range, then follows the two
+	 * paths to the bounds, taking whole subtrees which lie in the range from their
+	 * nodes; this takes O(lg N) time.
+	 * </p>
+	 *
+	 * @param from the lower bound (inclusive) of the range, or null.
+	 * @param to the upper bound (exclusive) of the range, or null.
+	 * @return the aggregate of the elements in the range, or the identity if there are none.
+	 */
+	public A aggregate(E from, E to) {
+		Node node = this.root;
+
+		while (node != NIL) {
+			if (from != null && node.getElement().compareTo(from) < 0) {
+				node = node.getRight();
+			} else if (to != null && node.getElement().compareTo(to) >= 0) {
+				node = node.getLeft();
+			} else {
+				break;
+			}
+		}
+
+		if (node == NIL) {
+			return this.identity;
+		}
+
+		A left = this.aggregateFrom(node.getLeft(), from);
+		A right = this.aggregateTo(node.getRight(), to);
+
+		return this.combine.apply(this.combine.apply(left, this.value(node)), right);
+	}
+
+	// =============== Protected Methods ===============
+
+	@Override
+	protected Node createNode(Node parent, boolean red) {
+		return new AggregateNode(parent, red);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void augment(Node node) {
+		AggregateNode aggregateNode = (AggregateNode)node;
+		A left = this.aggregate(node.getLeft());
+		A right = this.aggregate(node.getRight());
+
+		aggregateNode.aggregate = this.combine.apply(this.combine.apply(left, this.value(node)), right);
+	}
+
+	@Override
+	protected boolean isAugmented() {
+		return true;
+	}
+
+	/**
+	 * @param node a node, may be NIL.
+	 * @return the aggregate of the subtree of the node.
+	 */
+	@SuppressWarnings("unchecked")
+	protected A aggregate(Node node) {
+		return node == NIL ? this.identity : ((AggregateNode)node).aggregate;
+	}
+
+	/**
+	 * @param node a node, not NIL.
+	 * @return the lifted value of the element of the node.
+	 */
+	@SuppressWarnings("unchecked")
+	protected A value(Node node) {
+		AggregateNode aggregateNode = (AggregateNode)node;
+
+		if (!aggregateNode.lifted) {
+			aggregateNode.value = this.lift.apply(node.getElement());
+			aggregateNode.lifted = true;
+		}
+
+		return aggregateNode.value;
+	}
+
+	/**
+	 * Aggregate the elements not less than the bound in a subtree, descending along
+	 * the path to the bound, and prepending each node in range with its right subtree.
+	 * @param node the root of the subtree.
+	 * @param from the lower bound (inclusive), or null.
+	 * @return the aggregate.
+	 */
+	protected A aggregateFrom(Node node, E from) {
+		if (from == null) {
+			return this.aggregate(node);
+		}
+
+		A result = this.identity;
+
+		while (node != NIL) {
+			if (node.getElement().compareTo(from) >= 0) {
+				result = this.combine.apply(this.combine.apply(this.value(node), this.aggregate(node.getRight())), result);
+				node = node.getLeft();
+			} else {
+				node = node.getRight();
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Aggregate the elements less than the bound in a subtree, descending along
+	 * the path to the bound, and appending each node in range with its left subtree.
+	 * @param node the root of the subtree.
+	 * @param to the upper bound (exclusive), or null.
+	 * @return the aggregate.
+	 */
+	protected A aggregateTo(Node node, E to) {
+		if (to == null) {
+			return this.aggregate(node);
+		}
+
+		A result = this.identity;
+
+		while (node != NIL) {
+			if (node.getElement().compareTo(to) < 0) {
+				result = this.combine.apply(result, this.combine.apply(this.aggregate(node.getLeft()), this.value(node)));
+				node = node.getRight();
+			} else {
+				node = node.getLeft();
+			}
+		}
+
+		return result;
+	}
+}
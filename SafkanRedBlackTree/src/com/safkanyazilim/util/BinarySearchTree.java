@@ -1,6 +1,6 @@
 package com.safkanyazilim.util;
 
-import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -39,7 +39,7 @@ import java.util.Objects;
  *
  * @param <E> The type to be stored in the binary search tree. 
  */
-public class BinarySearchTree<E extends Comparable<E>> extends AbstractCollection<E> implements SearchTree<E> {
+public class BinarySearchTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E> {
 	
 	/**
 	 * Internal Node class, representing a node of a binary search tree.
@@ -110,14 +110,11 @@ public class BinarySearchTree<E extends Comparable<E>> extends AbstractCollectio
 		}
 
 		/*
-		 * Implementation note: Supporting this is not simple, because even if
-		 * a node is "in the past", its removal may involve its successor (if
-		 * it actually has two children). Here, we carefully navigate around
-		 * that issue by seeing if the contained elements are identical (which
-		 * can only happen on such a two-child-node removal); in which case
-		 * we jump forward one more element (which we calculate beforehand since
-		 * if the broken case has happened, navigation is no longer safe) to
-		 * avoid iterating over the same element right after its removal.
+		 * Implementation note: Deleting a node with two children copies the
+		 * element of its predecessor or successor into it, and removes that node
+		 * instead; if that was the successor, the next node is no longer in the
+		 * tree. So, we find the next node again, as the first one whose element is
+		 * greater than the removed one. This costs O(h), the same as the removal.
 		 */
 		@Override
 		public void remove() {
@@ -125,14 +122,22 @@ public class BinarySearchTree<E extends Comparable<E>> extends AbstractCollectio
 				throw new IllegalStateException();
 			}
 			
-			Node successor = BinarySearchTree.this.successor(this.next);
-			
+			E removed = this.prev.element;
+
 			BinarySearchTree.this.delete(this.prev);
-			
-			if (this.next != null && this.next.element == this.prev.element) {
-				this.next = successor;
+
+			Node current = BinarySearchTree.this.root;
+			this.next = null;
+
+			while (current != null) {
+				if (current.element.compareTo(removed) > 0) {
+					this.next = current;
+					current = current.left;
+				} else {
+					current = current.right;
+				}
 			}
-			
+
 			this.prev = null;
 			BinarySearchTree.this.size--;
 			BinarySearchTree.this.modificationCount++;
@@ -349,9 +354,9 @@ public class BinarySearchTree<E extends Comparable<E>> extends AbstractCollectio
 	// =============== Protected Methods =============== 
 
 	protected void updateHeight() {
-		if (this.root == null) {
-			this.height = 0;
-		} else {
+		this.height = 0;
+
+		if (this.root != null) {
 			this.updateHeightRecursively(this.root, 0);
 		}
 	}
@@ -572,7 +577,7 @@ public class BinarySearchTree<E extends Comparable<E>> extends AbstractCollectio
 			if (node.right != null) {
 				return this.min(node.right);
 			} else {
-				while (node.parent != null && node.equals(node.parent.right)) {
+				while (node.parent != null && node == node.parent.right) {
 					node = node.parent;
 				}
 				
@@ -597,7 +602,7 @@ public class BinarySearchTree<E extends Comparable<E>> extends AbstractCollectio
 			if (node.left != null) {
 				return this.max(node.left);
 			} else {
-				while (node.parent != null && node.equals(node.parent.left)) {
+				while (node.parent != null && node == node.parent.left) {
 					node = node.parent;
 				}
 				
@@ -0,0 +1,83 @@
+package com.safkanyazilim.util;
+
+
+/**
+ * <p> A fixed-size Bloom filter over the hash codes of objects. It answers whether an
+ * object might have been added; a negative answer is always correct, a positive one
+ * is wrong with a probability of about 1% at the sizing used here.
+ * </p>
+ *
+ * <p> The probe positions are derived from two mixed hash values (double hashing),
+ * so only one call to hashCode() is made per operation.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ */
+final class BloomFilter {
+
+	/**
+	 * The number of bits reserved for each expected element.
+	 */
+	private static final int BITS_PER_ELEMENT = 10;
+
+	/**
+	 * The number of bits set for each element; optimal for ten bits per element.
+	 */
+	private static final int HASH_COUNT = 7;
+
+	private final long[] bits;
+
+	private final int bitCount;
+
+	/**
+	 * Construct an empty filter sized for the given number of elements.
+	 * @param expectedElements the number of elements that will be added.
+	 */
+	BloomFilter(int expectedElements) {
+		long wanted = Math.max(64L, (long)expectedElements * BITS_PER_ELEMENT);
+		int words = (int)Math.min((wanted + 63) / 64, Integer.MAX_VALUE / 64);
+
+		this.bits = new long[words];
+		this.bitCount = words * 64;
+	}
+
+	void add(Object o) {
+		int h1 = mix(o.hashCode());
+		int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+
+		for (int i = 0; i < HASH_COUNT; i++) {
+			int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bitCount;
+
+			this.bits[bit >>> 6] |= 1L << bit;
+		}
+	}
+
+	boolean mightContain(Object o) {
+		int h1 = mix(o.hashCode());
+		int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+
+		for (int i = 0; i < HASH_COUNT; i++) {
+			int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bitCount;
+
+			if ((this.bits[bit >>> 6] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	 * The finalizer of MurmurHash3; hash codes of small integers and
+	 * similar strings are far too regular to be used directly.
+	 */
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+
+		return h;
+	}
+}
@@ -0,0 +1,234 @@
+package com.safkanyazilim.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+
+/**
+ * <p> A Red-Black Tree holding at most a given number of elements, such as the best K
+ * candidates seen so far. When the tree is full, adding an element which would come
+ * after the minimum (or before the maximum, depending on the {@link EvictionPolicy})
+ * evicts the minimum (or the maximum) in the same operation, so the tree never grows
+ * past its capacity; other elements are rejected.
+ * </p>
+ *
+ * <p> The node which would be evicted next is cached, so rejecting an element takes a
+ * single comparison, and evicting moves the cache to the next node in O(1) amortized
+ * time. The cache is recomputed in O(lg N) time after any other modification.
+ * </p>
+ *
+ * <p> Bulk additions, through addAll() or applyDelta(), add their elements one by one,
+ * and are subject to the capacity in the same way. A tree filled in bulk, for instance
+ * by {@link SearchTrees#toRedBlackTree(java.util.function.Supplier)}, keeps the elements
+ * the eviction policy would have kept.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type to be stored in the tree.
+ */
+public class BoundedRedBlackTree<E extends Comparable<E>> extends RedBlackTree<E> {
+
+	/**
+	 * Which element to evict when adding to a full tree.
+	 *
+	 * @author Dr. Y. Safkan
+	 */
+	public static enum EvictionPolicy {
+		/**
+		 * Evict the minimum, keeping the largest elements.
+		 */
+		EVICT_MINIMUM,
+		/**
+		 * Evict the maximum, keeping the smallest elements.
+		 */
+		EVICT_MAXIMUM
+	}
+
+	private final int capacity;
+	private final EvictionPolicy policy;
+
+	/**
+	 * The node to be evicted next: the minimum or the maximum, or NIL if the tree is empty.
+	 */
+	private Node boundary;
+
+	/**
+	 * The modification count at which the boundary was found. If this is not equal to
+	 * the modification count, the boundary is outdated and must be found again.
+	 */
+	private int boundaryModificationCount;
+
+	/**
+	 * Construct a new BoundedRedBlackTree, which is initially empty.
+	 * @param capacity the maximum number of elements in the tree.
+	 * @param policy which element to evict when adding to a full tree.
+	 * @throws IllegalArgumentException if the capacity is not positive.
+	 */
+	public BoundedRedBlackTree(int capacity, EvictionPolicy policy) {
+		super();
+
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+		}
+
+		this.capacity = capacity;
+		this.policy = Objects.requireNonNull(policy);
+		this.boundary = NIL;
+		this.boundaryModificationCount = -1;
+	}
+
+	/**
+	 * @return the maximum number of elements in the tree.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * @return which element is evicted when adding to a full tree.
+	 */
+	public EvictionPolicy getEvictionPolicy() {
+		return this.policy;
+	}
+
+	/**
+	 * @return true if the tree holds as many elements as its capacity.
+	 */
+	public boolean isFull() {
+		return this.size == this.capacity;
+	}
+
+	/**
+	 * @return the element to be evicted next, that is, the minimum or the maximum,
+	 * depending on the eviction policy, or null if the tree is empty. When the tree
+	 * is full, an element is accepted only if it is greater (or less) than this.
+	 */
+	public E boundary() {
+		Node node = this.boundaryNode();
+
+		return node == NIL ? null : node.getElement();
+	}
+
+	/*
+	 * An element which is not beyond the boundary of a full tree is rejected with
+	 * a single comparison. Otherwise, the element is inserted, and if the tree was
+	 * full, the boundary is deleted, and the node next to it becomes the boundary.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.RedBlackTree#add(java.lang.Comparable)
+	 */
+	@Override
+	public boolean add(E e) {
+		Objects.requireNonNull(e, "Null elements not allowed.");
+
+		Node boundary = this.boundaryNode();
+
+		if (this.size == this.capacity && !this.isBeyond(e, boundary)) {
+			return false;
+		}
+
+		Node node = this.insertBelow(this.root, e);
+
+		if (node == NIL) {
+			return false;
+		}
+
+		this.size++;
+
+		if (this.size > this.capacity) {
+			Node next = this.policy == EvictionPolicy.EVICT_MINIMUM ? this.successor(boundary) : this.predecessor(boundary);
+
+			this.delete(boundary);
+			this.size--;
+			boundary = next;
+		} else if (boundary == NIL || !this.isBeyond(e, boundary)) {
+			boundary = node;
+		}
+
+		this.modificationCount++;
+		this.boundary = boundary;
+		this.boundaryModificationCount = this.modificationCount;
+
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.RedBlackTree#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean changed = false;
+
+		for (E element : c) {
+			changed |= this.add(element);
+		}
+
+		return changed;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.RedBlackTree#applyDelta(com.safkanyazilim.util.SearchTreeDelta)
+	 */
+	@Override
+	public void applyDelta(SearchTreeDelta<E> delta) {
+		for (E element : delta.getRemoved()) {
+			this.remove(element);
+		}
+
+		this.addAll(delta.getAdded());
+	}
+
+	// =============== Protected Methods ===============
+
+	/**
+	 * Keep only the elements which the eviction policy would keep, at most the capacity:
+	 * the largest ones when evicting the minimum, the smallest ones otherwise. Rebuilding
+	 * is a modification, so the boundary is found again when next needed.
+	 */
+	@Override
+	protected void rebuild(Object[] sortedElements, int length) {
+		if (length > this.capacity) {
+			int from = this.policy == EvictionPolicy.EVICT_MINIMUM ? length - this.capacity : 0;
+
+			sortedElements = Arrays.copyOfRange(sortedElements, from, from + this.capacity);
+			length = this.capacity;
+		}
+
+		super.rebuild(sortedElements, length);
+		this.boundary = NIL;
+		this.boundaryModificationCount = -1;
+	}
+
+	/**
+	 * @return the node to be evicted next, found again if the tree has been modified
+	 * other than by {@link #add(Comparable)} since it was last found.
+	 */
+	protected Node boundaryNode() {
+		if (this.boundaryModificationCount != this.modificationCount) {
+			if (this.root == NIL) {
+				this.boundary = NIL;
+			} else {
+				this.boundary = this.policy == EvictionPolicy.EVICT_MINIMUM ? this.min(this.root) : this.max(this.root);
+			}
+
+			this.boundaryModificationCount = this.modificationCount;
+		}
+
+		return this.boundary;
+	}
+
+	/**
+	 * @param element an element.
+	 * @param boundary the boundary node, not NIL.
+	 * @return true if the element would be kept rather than the element of the boundary.
+	 */
+	protected boolean isBeyond(E element, Node boundary) {
+		int comparison = element.compareTo(boundary.getElement());
+
+		return this.policy == EvictionPolicy.EVICT_MINIMUM ? comparison > 0 : comparison < 0;
+	}
+}
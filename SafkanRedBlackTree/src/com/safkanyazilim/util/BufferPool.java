@@ -0,0 +1,224 @@
+package com.safkanyazilim.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * <p> A fixed number of in-memory frames caching the pages of a file. A page is
+ * read into a frame on first use, and written back when its frame is reused while
+ * dirty, or on {@link #flush()}. Frames are reused in CLOCK order: the hand sweeps
+ * the frames, giving every recently used frame a second chance, and takes the first
+ * frame which is neither pinned nor recently used.
+ * </p>
+ *
+ * <p> Pages are numbered from 0; page number p starts at byte p * pageSize of the file.
+ * Page 0 is not managed by the pool, it is left for a header.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ */
+final class BufferPool {
+
+	static final class Frame {
+		private long page = -1;
+		private final ByteBuffer buffer;
+		private int pins;
+		private boolean dirty;
+		private boolean referenced;
+
+		private Frame(int pageSize) {
+			this.buffer = ByteBuffer.allocate(pageSize);
+		}
+
+		long page() {
+			return this.page;
+		}
+
+		ByteBuffer buffer() {
+			return this.buffer;
+		}
+
+		void markDirty() {
+			this.dirty = true;
+		}
+	}
+
+	private final FileChannel channel;
+
+	private final int pageSize;
+
+	private final Frame[] frames;
+
+	private final Map<Long, Frame> resident;
+
+	private int hand;
+
+	private long pageCount;
+
+	private long pageReads;
+
+	/**
+	 * Construct a pool over the given channel.
+	 * @param channel the file, open for reading and writing.
+	 * @param pageSize the size of each page, in bytes.
+	 * @param capacity the number of frames.
+	 * @param pageCount the number of pages in the file, including the header page.
+	 */
+	BufferPool(FileChannel channel, int pageSize, int capacity, long pageCount) {
+		this.channel = channel;
+		this.pageSize = pageSize;
+		this.frames = new Frame[capacity];
+		this.resident = new HashMap<Long, Frame>(2 * capacity);
+		this.pageCount = pageCount;
+
+		for (int i = 0; i < capacity; i++) {
+			this.frames[i] = new Frame(pageSize);
+		}
+	}
+
+	/**
+	 * Pin the given page, reading it if it is not resident. The frame is not
+	 * reused until it is unpinned.
+	 * @param page the page number.
+	 * @return the frame holding the page.
+	 * @throws IOException if the page can not be read.
+	 */
+	Frame pin(long page) throws IOException {
+		Frame frame = this.resident.get(page);
+
+		if (frame == null) {
+			frame = this.victim();
+
+			ByteBuffer buffer = frame.buffer;
+			buffer.clear();
+
+			while (buffer.hasRemaining()) {
+				if (this.channel.read(buffer, page * this.pageSize + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of file reading page " + page + ".");
+				}
+			}
+
+			this.pageReads++;
+			this.assign(frame, page);
+		}
+
+		frame.pins++;
+		frame.referenced = true;
+
+		return frame;
+	}
+
+	/**
+	 * Pin a new, zero-filled page at the end of the file.
+	 * @return the frame holding the new page.
+	 * @throws IOException if a dirty page can not be written back.
+	 */
+	Frame allocate() throws IOException {
+		Frame frame = this.victim();
+
+		Arrays.fill(frame.buffer.array(), (byte)0);
+		this.assign(frame, this.pageCount++);
+		frame.dirty = true;
+		frame.pins++;
+		frame.referenced = true;
+
+		return frame;
+	}
+
+	void unpin(Frame frame) {
+		frame.pins--;
+	}
+
+	/**
+	 * Write all dirty pages back to the file.
+	 * @throws IOException if a page can not be written.
+	 */
+	void flush() throws IOException {
+		for (Frame frame : this.frames) {
+			if (frame.dirty) {
+				this.writeBack(frame);
+			}
+		}
+	}
+
+	/**
+	 * Drop all pages, without writing them back, and truncate the file to the header page.
+	 * @throws IOException if the file can not be truncated.
+	 */
+	void reset() throws IOException {
+		for (Frame frame : this.frames) {
+			frame.page = -1;
+			frame.dirty = false;
+			frame.referenced = false;
+		}
+
+		this.resident.clear();
+		this.pageCount = 1;
+		this.channel.truncate(this.pageSize);
+	}
+
+	long pageCount() {
+		return this.pageCount;
+	}
+
+	/**
+	 * @return the number of pages read from the file so far.
+	 */
+	long pageReads() {
+		return this.pageReads;
+	}
+
+	// =============== Private Methods ===============
+
+	private void assign(Frame frame, long page) {
+		frame.page = page;
+		this.resident.put(page, frame);
+	}
+
+	/*
+	 * Two full sweeps clear every reference bit, so if nothing turns up
+	 * by then, every frame is pinned.
+	 */
+	private Frame victim() throws IOException {
+		for (int step = 0; step < 2 * this.frames.length + 1; step++) {
+			Frame frame = this.frames[this.hand];
+
+			this.hand = (this.hand + 1) % this.frames.length;
+
+			if (frame.pins > 0) {
+				continue;
+			} else if (frame.referenced) {
+				frame.referenced = false;
+			} else {
+				if (frame.page >= 0) {
+					if (frame.dirty) {
+						this.writeBack(frame);
+					}
+
+					this.resident.remove(frame.page);
+					frame.page = -1;
+				}
+
+				return frame;
+			}
+		}
+
+		throw new IllegalStateException("All frames of the buffer pool are pinned.");
+	}
+
+	private void writeBack(Frame frame) throws IOException {
+		ByteBuffer buffer = frame.buffer;
+		buffer.clear();
+
+		while (buffer.hasRemaining()) {
+			this.channel.write(buffer, frame.page * this.pageSize + buffer.position());
+		}
+
+		frame.dirty = false;
+	}
+}
@@ -0,0 +1,116 @@
+package com.safkanyazilim.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+/**
+ * <p> Writes and reads elements of a sorted sequence in a binary form, as used by
+ * {@link SearchTreeDelta#write(DataOutput, ElementCodec)}. Each element is written
+ * relative to the one before it, which lets sorted sequences be encoded compactly:
+ * the numeric codecs write the gap to the previous number, and the string codec
+ * writes only the part which differs from the previous string.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type of the encoded elements.
+ */
+public interface ElementCodec<E> {
+
+	/**
+	 * Integers, as variable-length gaps.
+	 */
+	public static final ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+		@Override
+		public void write(Integer previous, Integer element, DataOutput out) throws IOException {
+			SearchTreeDelta.writeVarLong(previous == null ? (element ^ Integer.MIN_VALUE) & 0xFFFFFFFFL : (long)element - previous, out);
+		}
+
+		@Override
+		public Integer read(Integer previous, DataInput in) throws IOException {
+			long value = SearchTreeDelta.readVarLong(in);
+
+			return previous == null ? (int)value ^ Integer.MIN_VALUE : (int)(previous + value);
+		}
+	};
+
+	/**
+	 * Longs, as variable-length gaps.
+	 */
+	public static final ElementCodec<Long> LONG = new ElementCodec<Long>() {
+		@Override
+		public void write(Long previous, Long element, DataOutput out) throws IOException {
+			SearchTreeDelta.writeVarLong(previous == null ? element ^ Long.MIN_VALUE : element - previous, out);
+		}
+
+		@Override
+		public Long read(Long previous, DataInput in) throws IOException {
+			long value = SearchTreeDelta.readVarLong(in);
+
+			return previous == null ? value ^ Long.MIN_VALUE : previous + value;
+		}
+	};
+
+	/**
+	 * Strings, as the length of the prefix shared with the previous string, and the
+	 * characters after it.
+	 */
+	public static final ElementCodec<String> STRING = new ElementCodec<String>() {
+		@Override
+		public void write(String previous, String element, DataOutput out) throws IOException {
+			int shared = 0;
+
+			if (previous != null) {
+				int limit = Math.min(previous.length(), element.length());
+
+				while (shared < limit && previous.charAt(shared) == element.charAt(shared)) {
+					shared++;
+				}
+			}
+
+			SearchTreeDelta.writeVarLong(shared, out);
+			SearchTreeDelta.writeVarLong(element.length() - shared, out);
+
+			for (int i = shared; i < element.length(); i++) {
+				SearchTreeDelta.writeVarLong(element.charAt(i), out);
+			}
+		}
+
+		@Override
+		public String read(String previous, DataInput in) throws IOException {
+			int shared = (int)SearchTreeDelta.readVarLong(in);
+			int suffix = (int)SearchTreeDelta.readVarLong(in);
+			StringBuilder builder = new StringBuilder(shared + suffix);
+
+			if (shared > 0) {
+				builder.append(previous, 0, shared);
+			}
+
+			for (int i = 0; i < suffix; i++) {
+				builder.append((char)SearchTreeDelta.readVarLong(in));
+			}
+
+			return builder.toString();
+		}
+	};
+
+	/**
+	 * Write an element.
+	 * @param previous the element written before this one, which is less than it, or null for the first.
+	 * @param element the element to be written.
+	 * @param out the output.
+	 * @throws IOException if the output fails.
+	 */
+	public void write(E previous, E element, DataOutput out) throws IOException;
+
+	/**
+	 * Read an element.
+	 * @param previous the element read before this one, or null for the first.
+	 * @param in the input.
+	 * @return the element read.
+	 * @throws IOException if the input fails.
+	 */
+	public E read(E previous, DataInput in) throws IOException;
+}
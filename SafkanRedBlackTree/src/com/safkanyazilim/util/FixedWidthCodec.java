@@ -0,0 +1,78 @@
+package com.safkanyazilim.util;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * <p> Converts elements to and from a fixed number of bytes, so that they can be
+ * stored in the pages of a {@link PagedBPlusTree}. The order of the elements is
+ * always taken from their compareTo(); the encoding need not preserve it.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type of the encoded elements.
+ */
+public interface FixedWidthCodec<E> {
+
+	/**
+	 * The codec of Long elements, eight bytes each.
+	 */
+	public static final FixedWidthCodec<Long> LONG = new FixedWidthCodec<Long>() {
+		@Override
+		public int width() {
+			return Long.BYTES;
+		}
+
+		@Override
+		public void write(Long element, ByteBuffer buffer, int offset) {
+			buffer.putLong(offset, element);
+		}
+
+		@Override
+		public Long read(ByteBuffer buffer, int offset) {
+			return buffer.getLong(offset);
+		}
+	};
+
+	/**
+	 * The codec of Integer elements, four bytes each.
+	 */
+	public static final FixedWidthCodec<Integer> INTEGER = new FixedWidthCodec<Integer>() {
+		@Override
+		public int width() {
+			return Integer.BYTES;
+		}
+
+		@Override
+		public void write(Integer element, ByteBuffer buffer, int offset) {
+			buffer.putInt(offset, element);
+		}
+
+		@Override
+		public Integer read(ByteBuffer buffer, int offset) {
+			return buffer.getInt(offset);
+		}
+	};
+
+	/**
+	 * @return the number of bytes of each encoded element.
+	 */
+	public int width();
+
+	/**
+	 * Encode the element into the buffer, at the given absolute offset.
+	 * @param element the element to be encoded.
+	 * @param buffer the buffer to write into.
+	 * @param offset the offset of the first byte.
+	 */
+	public void write(E element, ByteBuffer buffer, int offset);
+
+	/**
+	 * Decode an element from the buffer, at the given absolute offset.
+	 * @param buffer the buffer to read from.
+	 * @param offset the offset of the first byte.
+	 * @return the decoded element.
+	 */
+	public E read(ByteBuffer buffer, int offset);
+}
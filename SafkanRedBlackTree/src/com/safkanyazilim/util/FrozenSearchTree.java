@@ -0,0 +1,236 @@
+package com.safkanyazilim.util;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * <p> This is an immutable, read-only implementation of a {@link SearchTree}.
+ * It is meant for sets that are built once and then queried many times, and is
+ * normally obtained through {@link RedBlackTree#freeze()}.
+ * </p>
+ *
+ * <p> There are no node objects at all. The elements are stored in a single array,
+ * in the order of a breadth-first walk of a complete binary search tree (also known
+ * as the Eytzinger layout). The children of the element at index k are at indices
+ * 2k and 2k + 1, so a lookup is a sequence of index calculations on one array, and
+ * the first few levels of the tree, which every lookup visits, sit next to each other
+ * in memory. The descent itself does not branch on the outcome of the comparisons;
+ * the comparison result is folded into the next index.
+ * </p>
+ *
+ * <p> Any attempt to modify this tree will result in an UnsupportedOperationException.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type stored in the tree.
+ */
+public class FrozenSearchTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E> {
+
+	protected class TreeIterator implements Iterator<E> {
+		private int next;
+
+		public TreeIterator() {
+			this.next = FrozenSearchTree.this.first(1);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next != 0;
+		}
+
+		@Override
+		public E next() {
+			if (this.next == 0) {
+				throw new NoSuchElementException();
+			} else {
+				int current = this.next;
+				this.next = FrozenSearchTree.this.successor(current);
+				return FrozenSearchTree.this.element(current);
+			}
+		}
+	}
+
+	/**
+	 * The elements, in Eytzinger order. Index 0 is unused, the root is at index 1.
+	 */
+	private final Object[] elements;
+
+	/**
+	 * The number of elements in this tree.
+	 */
+	private final int size;
+
+	/**
+	 * Construct a new FrozenSearchTree from the given elements, which must be
+	 * sorted in increasing order and contain no duplicates.
+	 *
+	 * @param sortedElements the elements of the tree, in increasing order.
+	 */
+	FrozenSearchTree(Object[] sortedElements) {
+		this.size = sortedElements.length;
+		this.elements = new Object[this.size + 1];
+
+		this.fill(sortedElements, 0, 1);
+	}
+
+	/*
+	 * An in-order walk of the implicit tree visits the indices in the order
+	 * of the sorted elements, so filling them in that walk produces the layout.
+	 */
+	private int fill(Object[] sortedElements, int sortedIndex, int index) {
+		if (index <= this.size) {
+			sortedIndex = this.fill(sortedElements, sortedIndex, 2 * index);
+			this.elements[index] = sortedElements[sortedIndex++];
+			sortedIndex = this.fill(sortedElements, sortedIndex, 2 * index + 1);
+		}
+
+		return sortedIndex;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof Comparable<?>) {
+			@SuppressWarnings("unchecked")
+			E element = (E)o;
+
+			int index = this.lowerBound(element);
+
+			return index != 0 && this.element(index).compareTo(element) == 0;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new TreeIterator();
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("A FrozenSearchTree can not be modified.");
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("A FrozenSearchTree can not be modified.");
+	}
+
+	@Override
+	public E minimum() {
+		if (this.size == 0) {
+			return null;
+		} else {
+			return this.element(this.first(1));
+		}
+	}
+
+	@Override
+	public E maximum() {
+		if (this.size == 0) {
+			return null;
+		} else {
+			int index = 1;
+
+			while (2 * index + 1 <= this.size) {
+				index = 2 * index + 1;
+			}
+
+			return this.element(index);
+		}
+	}
+
+	/*
+	 * The layout is a complete binary tree, so the height follows from the size.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#height()
+	 */
+	@Override
+	public int height() {
+		if (this.size == 0) {
+			return 0;
+		} else {
+			return 31 - Integer.numberOfLeadingZeros(this.size);
+		}
+	}
+
+	// =============== Protected Methods ===============
+
+	@SuppressWarnings("unchecked")
+	protected E element(int index) {
+		return (E)this.elements[index];
+	}
+
+	/**
+	 * <p>Find the index of the smallest element which is not less than the given
+	 * element, or 0 if there is no such element.
+	 * </p>
+	 *
+	 * <p>The descent goes right when the element at the current index is less than
+	 * the one sought, and left otherwise; the sign bit of the comparison is used as the
+	 * offset of the child directly. When the descent falls off the tree, the answer is
+	 * the last node where we went left; the trailing ones of the final index are the
+	 * right turns taken after it, and shifting them out (along with that last left
+	 * turn) yields its index.
+	 * </p>
+	 *
+	 * @param element the element sought.
+	 * @return the index of the lower bound, or 0.
+	 */
+	protected int lowerBound(E element) {
+		int index = 1;
+
+		while (index <= this.size) {
+			index = 2 * index + (this.element(index).compareTo(element) >>> 31);
+		}
+
+		return index >>> (Integer.numberOfTrailingZeros(~index) + 1);
+	}
+
+	/**
+	 * Find the index of the minimum element in the subtree rooted at the given
+	 * index, or 0 if the subtree is empty.
+	 * @param index the root of the subtree.
+	 * @return the index of the minimum element.
+	 */
+	protected int first(int index) {
+		if (index > this.size) {
+			return 0;
+		}
+
+		while (2 * index <= this.size) {
+			index = 2 * index;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Find the index of the element following the one at the given index,
+	 * or 0 if that is the maximum element.
+	 * @param index the index of an element.
+	 * @return the index of the successor.
+	 */
+	protected int successor(int index) {
+		if (2 * index + 1 <= this.size) {
+			return this.first(2 * index + 1);
+		} else {
+			// Climb while we are a right child; the parent of the
+			// first left child on the way up is the successor.
+			while ((index & 1) == 1) {
+				index >>>= 1;
+			}
+
+			return index >>> 1;
+		}
+	}
+}
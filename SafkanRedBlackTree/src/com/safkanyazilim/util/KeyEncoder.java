@@ -0,0 +1,65 @@
+package com.safkanyazilim.util;
+
+
+/**
+ * <p> Converts elements into byte strings whose unsigned lexicographic order is the
+ * order of the elements, as required by {@link AdaptiveRadixTree}. Two elements must
+ * have equal encodings if, and only if, they compare as equal.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type of the encoded elements.
+ */
+public interface KeyEncoder<E> {
+
+	/**
+	 * Integers as four bytes, big-endian, with the sign bit flipped so that
+	 * negative numbers come first.
+	 */
+	public static final KeyEncoder<Integer> INTEGER = element -> {
+		int value = element ^ Integer.MIN_VALUE;
+
+		return new byte[] { (byte)(value >>> 24), (byte)(value >>> 16), (byte)(value >>> 8), (byte)value };
+	};
+
+	/**
+	 * Longs as eight bytes, big-endian, with the sign bit flipped so that
+	 * negative numbers come first.
+	 */
+	public static final KeyEncoder<Long> LONG = element -> {
+		long value = element ^ Long.MIN_VALUE;
+		byte[] key = new byte[8];
+
+		for (int i = 7; i >= 0; i--) {
+			key[i] = (byte)value;
+			value >>>= 8;
+		}
+
+		return key;
+	};
+
+	/**
+	 * Strings as their UTF-16 characters, two bytes each, big-endian. String.compareTo()
+	 * compares characters as unsigned 16 bit numbers, which this order matches; a string
+	 * which is a prefix of another encodes to a prefix of its encoding, and comes first.
+	 */
+	public static final KeyEncoder<String> STRING = element -> {
+		byte[] key = new byte[2 * element.length()];
+
+		for (int i = 0; i < element.length(); i++) {
+			char c = element.charAt(i);
+
+			key[2 * i] = (byte)(c >>> 8);
+			key[2 * i + 1] = (byte)c;
+		}
+
+		return key;
+	};
+
+	/**
+	 * @param element the element to be encoded.
+	 * @return the order-preserving encoding of the element.
+	 */
+	public byte[] encode(E element);
+}
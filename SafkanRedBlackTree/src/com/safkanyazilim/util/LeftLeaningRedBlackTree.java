@@ -0,0 +1,819 @@
+package com.safkanyazilim.util;
+
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+
+/**
+ * <p> This is an implementation of a Left-Leaning Red-Black Tree (as described
+ * by R. Sedgewick). Just like {@link RedBlackTree}, the objects are directly
+ * stored in the tree, so there are no keys or values; the objects themselves
+ * must implement Comparable, and as such have a well-defined ordering.
+ * </p>
+ *
+ * <p> The point of this implementation is a smaller memory footprint. The nodes
+ * do not keep a pointer to their parent, there is no NIL sentinel, and the node
+ * class is static, so a node does not carry a hidden reference to its tree either.
+ * A node is made of the element, the two children, the color and a version number;
+ * with compressed references this is 32 bytes per node, where a {@link RedBlackTree}
+ * node takes 40, or 48 in a tree with a normalizer.
+ * </p>
+ *
+ * <p> Since there are no parent pointers, the iterator can not walk upwards
+ * from a node to find its successor. Instead, it keeps an explicit stack of the
+ * ancestors it still has to visit. The height of a Left-Leaning Red-Black Tree is
+ * at most 2 lg N, so this stack never gets deeper than 64 entries.
+ * </p>
+ *
+ * <p> {@link #forEach(Consumer)} does not even need the stack: it uses a Morris
+ * traversal, which temporarily threads the empty right links of the tree back to
+ * the successors, and removes the threads as it passes over them. While such a walk
+ * is in progress, the tree must not be accessed from within the action; any attempt
+ * to do so results in a ConcurrentModificationException.
+ * </p>
+ *
+ * <p> Since it writes into the nodes, {@link #forEach(Consumer)} counts as a structural
+ * modification as far as thread safety is concerned, even though it leaves the tree as
+ * it found it: it must not run at the same time as any other access to the tree from
+ * another thread, including another forEach(). The check above is not meant to catch
+ * that. Threads which share a tree for reading only should use
+ * <code>forEachInRange(null, null, action)</code> or the iterator instead, which walk
+ * with a stack of at most 64 entries and write nothing.
+ * </p>
+ *
+ * <p> {@link #snapshotIterator()} returns an iterator over the tree as it was when the
+ * iterator was created, which never throws a ConcurrentModificationException. Opening a
+ * snapshot starts a new version; while any snapshot is open, a node of an older version
+ * is copied before it is modified (and its parent along with it, up to the root), so the
+ * snapshot keeps seeing the old nodes. Each node is copied at most once per version, and
+ * only the nodes on the paths actually modified are copied. Once all snapshots are
+ * closed, nodes are modified in place again.
+ * </p>
+ *
+ * <p> If this is used for a class which does not obey the equals() and Comparable
+ * semantics, the results are undefined.
+ * </p>
+ *
+ * <p> Null elements are not allowed, trying to add a null value will result
+ * in a NullPointerException. Duplicate elements are also not allowed;
+ * trying to add an existing element into the tree will fail (however not
+ * result in an exception).
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type to be stored in the Left-Leaning Red-Black Tree.
+ */
+public class LeftLeaningRedBlackTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E> {
+
+	/**
+	 * The maximum depth of the explicit stack used for iteration. A tree with at most
+	 * 2^31 - 1 elements can not be higher than 62.
+	 */
+	private static final int MAXIMUM_STACK_DEPTH = 64;
+
+	/**
+	 * Internal Node class, representing a node of a Left-Leaning Red-Black Tree.
+	 *
+	 * @author Dr. Y. Safkan
+	 */
+	protected static final class Node<E> {
+		/**
+		 * This is the actual external element stored in this node.
+		 */
+		private E element;
+		/**
+		 * The left child of this node.
+		 */
+		private Node<E> left;
+		/**
+		 * The right child of this node.
+		 */
+		private Node<E> right;
+		/**
+		 * The color of the link from the parent to this node. True means red, false means black.
+		 */
+		private boolean red;
+		/**
+		 * The version of the tree in which this node was created.
+		 */
+		private final int version;
+
+		private Node(E element, int version) {
+			this.element = element;
+			this.red = true;
+			this.version = version;
+		}
+	}
+
+	protected class TreeIterator implements Iterator<E> {
+		private final Node<E>[] stack;
+		private int stackSize;
+		private E prev;
+		private int modificationCount;
+
+		@SuppressWarnings("unchecked")
+		public TreeIterator() {
+			this.stack = (Node<E>[]) new Node<?>[MAXIMUM_STACK_DEPTH];
+			this.stackSize = 0;
+			this.prev = null;
+			this.modificationCount = LeftLeaningRedBlackTree.this.modificationCount;
+			this.pushLeftPath(LeftLeaningRedBlackTree.this.root);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.stackSize > 0;
+		}
+
+		@Override
+		public E next() {
+			if (this.stackSize == 0) {
+				throw new NoSuchElementException();
+			} else if (this.modificationCount != LeftLeaningRedBlackTree.this.modificationCount
+					|| LeftLeaningRedBlackTree.this.threaded) {
+				throw new ConcurrentModificationException();
+			} else {
+				Node<E> node = this.stack[--this.stackSize];
+				this.pushLeftPath(node.right);
+				this.prev = node.element;
+				return this.prev;
+			}
+		}
+
+		/*
+		 * Implementation note: Removal restructures the tree, so the ancestors
+		 * on the stack may no longer be the ancestors of the next element. We
+		 * therefore rebuild the stack from the root, seeking the first element
+		 * larger than the one just removed. This costs O(lg N), the same as the
+		 * removal itself.
+		 */
+		@Override
+		public void remove() {
+			if (this.prev == null) {
+				throw new IllegalStateException();
+			} else if (this.modificationCount != LeftLeaningRedBlackTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			LeftLeaningRedBlackTree.this.remove(this.prev);
+			this.modificationCount = LeftLeaningRedBlackTree.this.modificationCount;
+
+			this.stackSize = 0;
+			Node<E> current = LeftLeaningRedBlackTree.this.root;
+
+			while (current != null) {
+				if (current.element.compareTo(this.prev) > 0) {
+					this.stack[this.stackSize++] = current;
+					current = current.left;
+				} else {
+					current = current.right;
+				}
+			}
+
+			this.prev = null;
+		}
+
+		private void pushLeftPath(Node<E> node) {
+			while (node != null) {
+				this.stack[this.stackSize++] = node;
+				node = node.left;
+			}
+		}
+	}
+
+	/**
+	 * An iterator over the tree as it was when the iterator was created. The iterator
+	 * closes itself when it runs out of elements; one abandoned early should be closed,
+	 * so that the tree can stop copying nodes on its behalf.
+	 *
+	 * @author Dr. Y. Safkan
+	 */
+	public class SnapshotIterator implements Iterator<E>, AutoCloseable {
+		private final Node<E>[] stack;
+		private int stackSize;
+		private E prev;
+		private boolean open;
+
+		@SuppressWarnings("unchecked")
+		protected SnapshotIterator() {
+			this.stack = (Node<E>[]) new Node<?>[MAXIMUM_STACK_DEPTH];
+			this.open = true;
+
+			for (Node<E> node = LeftLeaningRedBlackTree.this.root; node != null; node = node.left) {
+				this.stack[this.stackSize++] = node;
+			}
+
+			if (this.stackSize == 0) {
+				this.close();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.stackSize > 0;
+		}
+
+		@Override
+		public E next() {
+			if (this.stackSize == 0) {
+				throw new NoSuchElementException();
+			}
+
+			Node<E> node = this.stack[--this.stackSize];
+
+			for (Node<E> current = node.right; current != null; current = current.left) {
+				this.stack[this.stackSize++] = current;
+			}
+
+			if (this.stackSize == 0) {
+				this.close();
+			}
+
+			this.prev = node.element;
+			return this.prev;
+		}
+
+		/*
+		 * Removes the element from the tree; the snapshot is not affected.
+		 */
+		@Override
+		public void remove() {
+			if (this.prev == null) {
+				throw new IllegalStateException();
+			}
+
+			LeftLeaningRedBlackTree.this.remove(this.prev);
+			this.prev = null;
+		}
+
+		@Override
+		public void close() {
+			if (this.open) {
+				this.open = false;
+				this.stackSize = 0;
+				LeftLeaningRedBlackTree.this.openSnapshots--;
+			}
+		}
+	}
+
+	/**
+	 * The root node of the tree.
+	 */
+	protected Node<E> root;
+
+	/**
+	 * The number of nodes in this tree.
+	 */
+	protected int size;
+
+	/**
+	 * The count of successful modification operations on this tree. This is used to keep track
+	 * of modifications being done while an iterator is active.
+	 */
+	protected int modificationCount;
+
+	/**
+	 * True while a Morris traversal is in progress, and the tree contains threads.
+	 */
+	protected boolean threaded;
+
+	/**
+	 * The current version; new nodes are created with it. Nodes of older versions
+	 * may be part of a snapshot.
+	 */
+	protected int version;
+
+	/**
+	 * The number of snapshot iterators not closed yet.
+	 */
+	protected int openSnapshots;
+
+	/**
+	 * Construct a new LeftLeaningRedBlackTree, which is initially empty.
+	 */
+	public LeftLeaningRedBlackTree() {
+		this.root = null;
+		this.size = 0;
+		this.modificationCount = 0;
+		this.threaded = false;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/*
+	 * True and necessary override. The default implementation in AbstractCollection
+	 * iterates over the whole collection, taking O(N) time, while the implementation
+	 * below takes O(h) time where h is the height of tree.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		this.checkNotThreaded();
+
+		if (o instanceof Comparable<?>) {
+			@SuppressWarnings("unchecked")
+			E element = (E)o;
+
+			return this.find(element) != null;
+		} else {
+			return false;
+		}
+	}
+
+	/*
+	 * This returns an iterator, which supports removing of elements.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		this.checkNotThreaded();
+
+		return new TreeIterator();
+	}
+
+	/**
+	 * Returns an iterator over the elements of this tree as they are now. The tree
+	 * may be modified freely while the iterator is in use, and the iterator will neither
+	 * see the modifications nor throw a ConcurrentModificationException. Removing an
+	 * element through the iterator removes it from the tree, but not from the snapshot.
+	 *
+	 * @return the snapshot iterator, which should be closed if not run to its end.
+	 */
+	public SnapshotIterator snapshotIterator() {
+		this.checkNotThreaded();
+
+		this.version++;
+		this.openSnapshots++;
+
+		return new SnapshotIterator();
+	}
+
+	/*
+	 * A Morris traversal: before descending into the left subtree of a node, the
+	 * right link of its predecessor (which is empty) is pointed back at the node.
+	 * Arriving at the node a second time through that thread means its left subtree
+	 * is done; the thread is removed, the node is visited, and we go right. This
+	 * needs no stack and allocates nothing. Every thread is removed by the time the
+	 * walk ends, so if the action fails, we complete the walk without calling it
+	 * again, and only then rethrow.
+	 *
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#forEach(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		this.checkNotThreaded();
+
+		if (this.openSnapshots > 0) {
+			// Threads would show up in the nodes shared with the snapshots.
+			this.forEachInRange(null, null, action);
+			return;
+		}
+
+		Throwable failure = null;
+		Node<E> current = this.root;
+
+		this.threaded = true;
+
+		try {
+			while (current != null) {
+				if (current.left == null) {
+					failure = visit(current, action, failure);
+					current = current.right;
+				} else {
+					Node<E> predecessor = current.left;
+
+					while (predecessor.right != null && predecessor.right != current) {
+						predecessor = predecessor.right;
+					}
+
+					if (predecessor.right == null) {
+						predecessor.right = current;
+						current = current.left;
+					} else {
+						predecessor.right = null;
+						failure = visit(current, action, failure);
+						current = current.right;
+					}
+				}
+			}
+		} finally {
+			this.threaded = false;
+		}
+
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException)failure;
+		} else if (failure != null) {
+			throw (Error)failure;
+		}
+	}
+
+	/*
+	 * Uses an explicit stack, seeded with the path to the lower bound.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#forEachInRange(java.lang.Comparable, java.lang.Comparable, java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachInRange(E from, E to, Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		this.checkNotThreaded();
+
+		@SuppressWarnings("unchecked")
+		Node<E>[] stack = (Node<E>[]) new Node<?>[MAXIMUM_STACK_DEPTH];
+		int stackSize = 0;
+		int modificationCount = this.modificationCount;
+		Node<E> current = this.root;
+
+		while (current != null) {
+			if (from == null || current.element.compareTo(from) >= 0) {
+				stack[stackSize++] = current;
+				current = current.left;
+			} else {
+				current = current.right;
+			}
+		}
+
+		while (stackSize > 0) {
+			Node<E> node = stack[--stackSize];
+
+			if (to != null && node.element.compareTo(to) >= 0) {
+				break;
+			}
+
+			action.accept(node.element);
+
+			if (this.modificationCount != modificationCount || this.threaded) {
+				throw new ConcurrentModificationException();
+			}
+
+			for (current = node.right; current != null; current = current.left) {
+				stack[stackSize++] = current;
+			}
+		}
+	}
+
+	@Override
+	public boolean add(E e) {
+		Objects.requireNonNull(e, "Null elements not allowed.");
+		this.checkNotThreaded();
+
+		if (this.openSnapshots > 0 && this.find(e) != null) {
+			// Do not copy the path to an element which is already there.
+			return false;
+		}
+
+		int previousSize = this.size;
+
+		this.root = this.insert(this.root, e);
+
+		if (this.size != previousSize) {
+			this.root.red = false;
+			this.modificationCount++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		this.checkNotThreaded();
+
+		if (o instanceof Comparable<?>) {
+			@SuppressWarnings("unchecked")
+			E element = (E)o;
+
+			if (this.find(element) == null) {
+				return false;
+			}
+
+			if (!isRed(this.root.left) && !isRed(this.root.right)) {
+				this.root = this.writable(this.root);
+				this.root.red = true;
+			}
+
+			this.root = this.delete(this.root, element);
+
+			if (this.root != null) {
+				this.root.red = false;
+			}
+
+			this.size--;
+			this.modificationCount++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.checkNotThreaded();
+
+		this.root = null;
+		this.size = 0;
+		this.modificationCount++;
+	}
+
+	@Override
+	public E minimum() {
+		this.checkNotThreaded();
+
+		if (this.root == null) {
+			return null;
+		} else {
+			return min(this.root).element;
+		}
+	}
+
+	@Override
+	public E maximum() {
+		this.checkNotThreaded();
+
+		if (this.root == null) {
+			return null;
+		} else {
+			Node<E> node = this.root;
+
+			while (node.right != null) {
+				node = node.right;
+			}
+
+			return node.element;
+		}
+	}
+
+	/*
+	 * The height is not cached here, as it is cheap enough to calculate
+	 * on such a well balanced tree.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#height()
+	 */
+	@Override
+	public int height() {
+		this.checkNotThreaded();
+
+		if (this.root == null) {
+			return 0;
+		} else {
+			return this.height(this.root);
+		}
+	}
+
+	// =============== Protected Methods ===============
+
+	/**
+	 * Find a node whose contained element is equal to
+	 * the one we are looking for.
+	 *
+	 * @param element the element we are seeking.
+	 * @return The node which contains given element, or null.
+	 */
+	protected Node<E> find(E element) {
+		Node<E> current = this.root;
+
+		while (current != null) {
+			int comparison = current.element.compareTo(element);
+
+			if (comparison == 0) {
+				return current;
+			} else if (comparison > 0) {
+				current = current.left;
+			} else {
+				current = current.right;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Insert an element into the subtree whose head is the given node, and
+	 * return the new head of that subtree. If a new node is created, the size
+	 * of the tree is incremented.
+	 * @param node the head of the subtree, may be null.
+	 * @param element the element to be inserted.
+	 * @return the new head of the subtree.
+	 */
+	protected Node<E> insert(Node<E> node, E element) {
+		if (node == null) {
+			this.size++;
+			return new Node<E>(element, this.version);
+		}
+
+		int comparison = node.element.compareTo(element);
+
+		if (comparison == 0) {
+			return node;
+		}
+
+		node = this.writable(node);
+
+		if (comparison > 0) {
+			node.left = this.insert(node.left, element);
+		} else {
+			node.right = this.insert(node.right, element);
+		}
+
+		return this.balance(node);
+	}
+
+	/**
+	 * Delete an element from the subtree whose head is the given node, and
+	 * return the new head of that subtree. The element must be present in the
+	 * subtree. This method will not touch anything other than the tree structure.
+	 * @param node the head of the subtree.
+	 * @param element the element to be deleted.
+	 * @return the new head of the subtree.
+	 */
+	protected Node<E> delete(Node<E> node, E element) {
+		node = this.writable(node);
+
+		if (element.compareTo(node.element) < 0) {
+			if (!isRed(node.left) && !isRed(node.left.left)) {
+				node = this.moveRedLeft(node);
+			}
+
+			node.left = this.delete(node.left, element);
+		} else {
+			if (isRed(node.left)) {
+				node = this.rotateRight(node);
+			}
+
+			if (element.compareTo(node.element) == 0 && node.right == null) {
+				return null;
+			}
+
+			if (!isRed(node.right) && !isRed(node.right.left)) {
+				node = this.moveRedRight(node);
+			}
+
+			if (element.compareTo(node.element) == 0) {
+				node.element = min(node.right).element;
+				node.right = this.deleteMin(node.right);
+			} else {
+				node.right = this.delete(node.right, element);
+			}
+		}
+
+		return this.balance(node);
+	}
+
+	protected int height(Node<E> node) {
+		int leftHeight = node.left == null ? 0 : this.height(node.left) + 1;
+		int rightHeight = node.right == null ? 0 : this.height(node.right) + 1;
+
+		return Math.max(leftHeight, rightHeight);
+	}
+
+	// =============== Private Methods ===============
+
+	private void checkNotThreaded() {
+		if (this.threaded) {
+			throw new ConcurrentModificationException("The tree can not be accessed from within forEach().");
+		}
+	}
+
+	private static <E> Throwable visit(Node<E> node, Consumer<? super E> action, Throwable failure) {
+		if (failure == null) {
+			try {
+				action.accept(node.element);
+			} catch (RuntimeException | Error e) {
+				return e;
+			}
+		}
+
+		return failure;
+	}
+
+	private static boolean isRed(Node<?> node) {
+		return node != null && node.red;
+	}
+
+	private static <E> Node<E> min(Node<E> node) {
+		while (node.left != null) {
+			node = node.left;
+		}
+
+		return node;
+	}
+
+	private Node<E> deleteMin(Node<E> node) {
+		if (node.left == null) {
+			return null;
+		}
+
+		node = this.writable(node);
+
+		if (!isRed(node.left) && !isRed(node.left.left)) {
+			node = this.moveRedLeft(node);
+		}
+
+		node.left = this.deleteMin(node.left);
+
+		return this.balance(node);
+	}
+
+	/**
+	 * Return the node itself if it may be modified, or a copy of it which may be,
+	 * if the node is shared with an open snapshot. The caller must link the result
+	 * in place of the node. The node must be the child of a modifiable node, or the root.
+	 */
+	private Node<E> writable(Node<E> node) {
+		if (this.openSnapshots == 0 || node.version == this.version) {
+			return node;
+		}
+
+		Node<E> copy = new Node<E>(node.element, this.version);
+
+		copy.left = node.left;
+		copy.right = node.right;
+		copy.red = node.red;
+
+		return copy;
+	}
+
+	/*
+	 * The rotations, color flips and moves below expect the given node to be
+	 * modifiable already, and make the children they modify modifiable themselves.
+	 */
+	private Node<E> rotateLeft(Node<E> node) {
+		Node<E> right = this.writable(node.right);
+		node.right = right.left;
+		right.left = node;
+		right.red = node.red;
+		node.red = true;
+		return right;
+	}
+
+	private Node<E> rotateRight(Node<E> node) {
+		Node<E> left = this.writable(node.left);
+		node.left = left.right;
+		left.right = node;
+		left.red = node.red;
+		node.red = true;
+		return left;
+	}
+
+	private void flipColors(Node<E> node) {
+		node.left = this.writable(node.left);
+		node.right = this.writable(node.right);
+		node.red = !node.red;
+		node.left.red = !node.left.red;
+		node.right.red = !node.right.red;
+	}
+
+	private Node<E> moveRedLeft(Node<E> node) {
+		this.flipColors(node);
+
+		if (isRed(node.right.left)) {
+			node.right = this.rotateRight(node.right);
+			node = this.rotateLeft(node);
+			this.flipColors(node);
+		}
+
+		return node;
+	}
+
+	private Node<E> moveRedRight(Node<E> node) {
+		this.flipColors(node);
+
+		if (isRed(node.left.left)) {
+			node = this.rotateRight(node);
+			this.flipColors(node);
+		}
+
+		return node;
+	}
+
+	private Node<E> balance(Node<E> node) {
+		if (isRed(node.right) && !isRed(node.left)) {
+			node = this.rotateLeft(node);
+		}
+
+		if (isRed(node.left) && isRed(node.left.left)) {
+			node = this.rotateRight(node);
+		}
+
+		if (isRed(node.left) && isRed(node.right)) {
+			this.flipColors(node);
+		}
+
+		return node;
+	}
+}
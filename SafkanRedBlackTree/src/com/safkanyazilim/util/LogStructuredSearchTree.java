@@ -0,0 +1,983 @@
+package com.safkanyazilim.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+
+/**
+ * <p> This is a write-optimized, log-structured implementation of a {@link SearchTree}.
+ * Modifications go into a small {@link RedBlackTree}, the memtable; once the memtable
+ * holds a given number of entries, it is written out as an immutable sorted run, and
+ * a fresh memtable is started. Each sorted run is a file in the directory of the tree,
+ * holding fixed-width records encoded by a {@link FixedWidthCodec}; the file is memory
+ * mapped, so a run costs no heap beyond its Bloom filter, and its pages are cached by
+ * the operating system.
+ * </p>
+ *
+ * <p> Removing an element which lives in a sorted run records a tombstone, which
+ * shadows the element in all older runs. Lookups consult the memtable first and then
+ * the runs from the newest to the oldest; every run carries a Bloom filter, so runs
+ * which can not contain the element are skipped without a search. Iteration merges
+ * the memtable and all runs in a single pass, the newest entry of each element winning.
+ * </p>
+ *
+ * <p> Runs are compacted on a background thread, off the write path: whenever a run is
+ * at least as large as the one before it, the two are merged into one. Run sizes thus
+ * grow geometrically, there are O(log N) runs once compaction catches up, and each
+ * element is merged O(log N) times over its life. Tombstones are dropped once they
+ * reach the oldest run. A merge reads mapped runs, which never change, and the merged
+ * run replaces its sources at once, so readers see the same elements before and after.
+ * </p>
+ *
+ * <p> The tree itself is not thread safe, it is only compacted concurrently. It must be
+ * closed after use, which stops the compaction thread and deletes the run files; the
+ * runs are working storage, and the tree can not be opened again. I/O errors surface
+ * as UncheckedIOException: from the Set methods when the memtable is flushed, and from
+ * {@link #compact()} and {@link #awaitCompaction()} when a background merge has failed,
+ * after which no more merges are made.
+ * </p>
+ *
+ * <p> The Bloom filters use hashCode(), so the elements must have a hashCode()
+ * consistent with their compareTo(), in addition to the requirements of
+ * {@link RedBlackTree}.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type stored in the tree.
+ */
+public class LogStructuredSearchTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E>, Closeable {
+
+	/**
+	 * An immutable, sorted file of entries; each entry is an element, or a tombstone
+	 * for an element. An entry is a record of a flag byte, set for tombstones, followed
+	 * by the encoded element. The file is mapped in segments of whole records, as a
+	 * mapping can not exceed 2 GB.
+	 *
+	 * @author Dr. Y. Safkan
+	 */
+	protected static final class SortedRun<E extends Comparable<E>> {
+		private final Path file;
+		private final FixedWidthCodec<E> codec;
+		private final int recordSize;
+		private final int segmentRecords;
+		private final ByteBuffer[] segments;
+		private final int size;
+		private final BloomFilter filter;
+
+		/*
+		 * The mappings stay valid after the channel is closed. Only absolute
+		 * reads are made on them, so the compaction thread may share them.
+		 */
+		SortedRun(Path file, FixedWidthCodec<E> codec, FileChannel channel, int size, BloomFilter filter) throws IOException {
+			this.file = file;
+			this.codec = codec;
+			this.recordSize = codec.width() + 1;
+			this.segmentRecords = Integer.MAX_VALUE / this.recordSize;
+			this.segments = new ByteBuffer[(size + this.segmentRecords - 1) / this.segmentRecords];
+			this.size = size;
+			this.filter = filter;
+
+			for (int i = 0; i < this.segments.length; i++) {
+				long first = (long)i * this.segmentRecords;
+				long records = Math.min(this.segmentRecords, size - first);
+
+				this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * this.recordSize, records * this.recordSize);
+			}
+		}
+
+		int size() {
+			return this.size;
+		}
+
+		E element(int index) {
+			return this.codec.read(this.segments[index / this.segmentRecords], (index % this.segmentRecords) * this.recordSize + 1);
+		}
+
+		boolean isTombstone(int index) {
+			return this.segments[index / this.segmentRecords].get((index % this.segmentRecords) * this.recordSize) != 0;
+		}
+
+		/**
+		 * Find the index of the first entry not less than the given element.
+		 */
+		int ceiling(E element) {
+			int low = 0;
+			int high = this.size;
+
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+
+				if (this.element(middle).compareTo(element) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+
+			return low;
+		}
+
+		/**
+		 * Look the element up.
+		 * @return TRUE if the element is here, FALSE if there is a tombstone for it, null otherwise.
+		 */
+		Boolean lookup(E element) {
+			if (!this.filter.mightContain(element)) {
+				return null;
+			}
+
+			int index = this.ceiling(element);
+
+			return index == this.size || this.element(index).compareTo(element) != 0 ? null : !this.isTombstone(index);
+		}
+	}
+
+	/**
+	 * A position in one of the sources of entries, that is the memtable or a sorted
+	 * run. Cursors order by their current element, and then by age, the newest first.
+	 */
+	private abstract static class Cursor<E extends Comparable<E>> implements Comparable<Cursor<E>> {
+		private final int age;
+		protected E element;
+		protected boolean tombstone;
+
+		protected Cursor(int age) {
+			this.age = age;
+		}
+
+		/**
+		 * Move to the next entry; the element becomes null at the end.
+		 */
+		protected abstract void advance();
+
+		@Override
+		public int compareTo(Cursor<E> other) {
+			int comparison = this.element.compareTo(other.element);
+
+			return comparison != 0 ? comparison : Integer.compare(this.age, other.age);
+		}
+	}
+
+	private static final class RunCursor<E extends Comparable<E>> extends Cursor<E> {
+		private final SortedRun<E> run;
+		private int index;
+
+		RunCursor(SortedRun<E> run, int age, E from) {
+			super(age);
+			this.run = run;
+			this.index = (from == null ? 0 : run.ceiling(from)) - 1;
+			this.advance();
+		}
+
+		@Override
+		protected void advance() {
+			if (++this.index < this.run.size()) {
+				this.element = this.run.element(this.index);
+				this.tombstone = this.run.isTombstone(this.index);
+			} else {
+				this.element = null;
+			}
+		}
+	}
+
+	private static final class MemtableCursor<E extends Comparable<E>> extends Cursor<E> {
+		private final Iterator<E> live;
+		private final Iterator<E> dead;
+		private E nextLive;
+		private E nextDead;
+
+		MemtableCursor(RedBlackTree<E> live, RedBlackTree<E> dead, E from) {
+			super(0);
+			this.live = live.iterator(from);
+			this.dead = dead.iterator(from);
+			this.nextLive = this.live.hasNext() ? this.live.next() : null;
+			this.nextDead = this.dead.hasNext() ? this.dead.next() : null;
+			this.advance();
+		}
+
+		/*
+		 * The two trees are disjoint, so the smaller of their heads is the next entry.
+		 */
+		@Override
+		protected void advance() {
+			if (this.nextDead == null || (this.nextLive != null && this.nextLive.compareTo(this.nextDead) < 0)) {
+				this.element = this.nextLive;
+				this.tombstone = false;
+				this.nextLive = this.live.hasNext() ? this.live.next() : null;
+			} else {
+				this.element = this.nextDead;
+				this.tombstone = true;
+				this.nextDead = this.dead.hasNext() ? this.dead.next() : null;
+			}
+		}
+	}
+
+	/**
+	 * A k-way merge of cursors, producing each element once, with its newest entry.
+	 */
+	private static final class Merger<E extends Comparable<E>> {
+		private final PriorityQueue<Cursor<E>> heap;
+		private E element;
+		private boolean tombstone;
+
+		Merger(List<Cursor<E>> cursors) {
+			this.heap = new PriorityQueue<Cursor<E>>(Math.max(1, cursors.size()));
+
+			for (Cursor<E> cursor : cursors) {
+				if (cursor.element != null) {
+					this.heap.add(cursor);
+				}
+			}
+		}
+
+		boolean advance() {
+			if (this.heap.isEmpty()) {
+				return false;
+			}
+
+			Cursor<E> newest = this.heap.poll();
+
+			this.element = newest.element;
+			this.tombstone = newest.tombstone;
+			this.step(newest);
+
+			// Older entries for the same element are shadowed.
+			while (!this.heap.isEmpty() && this.heap.peek().element.compareTo(this.element) == 0) {
+				this.step(this.heap.poll());
+			}
+
+			return true;
+		}
+
+		private void step(Cursor<E> cursor) {
+			cursor.advance();
+
+			if (cursor.element != null) {
+				this.heap.add(cursor);
+			}
+		}
+	}
+
+	protected class TreeIterator implements Iterator<E> {
+		private Merger<E> merger;
+		private E next;
+		private E last;
+		private int modificationCount;
+
+		public TreeIterator(E from) {
+			this.seek(from);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next != null;
+		}
+
+		@Override
+		public E next() {
+			if (this.next == null) {
+				throw new NoSuchElementException();
+			} else if (this.modificationCount != LogStructuredSearchTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			this.last = this.next;
+			this.findNext();
+
+			return this.last;
+		}
+
+		/*
+		 * Removing may flush the memtable, so the cursors are set up again,
+		 * starting at the removed element; it is skipped, being gone.
+		 */
+		@Override
+		public void remove() {
+			if (this.last == null) {
+				throw new IllegalStateException();
+			} else if (this.modificationCount != LogStructuredSearchTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			LogStructuredSearchTree.this.remove(this.last);
+			this.seek(this.last);
+			this.last = null;
+		}
+
+		private void seek(E from) {
+			this.merger = new Merger<E>(LogStructuredSearchTree.this.cursors(from));
+			this.modificationCount = LogStructuredSearchTree.this.modificationCount;
+			this.findNext();
+		}
+
+		private void findNext() {
+			while (this.merger.advance()) {
+				if (!this.merger.tombstone) {
+					this.next = this.merger.element;
+					return;
+				}
+			}
+
+			this.next = null;
+		}
+	}
+
+	/**
+	 * The default number of entries in the memtable before it is flushed.
+	 */
+	public static final int DEFAULT_MEMTABLE_THRESHOLD = 4096;
+
+	/**
+	 * The size of the buffer through which runs are written, in bytes.
+	 */
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The number of memtable entries at which the memtable is flushed into a run.
+	 */
+	private final int memtableThreshold;
+
+	/**
+	 * The directory holding the run files.
+	 */
+	private final Path directory;
+
+	private final FixedWidthCodec<E> codec;
+
+	/**
+	 * The single thread on which runs are merged.
+	 */
+	private final ExecutorService compactor;
+
+	/**
+	 * Guards the replacement of the run list, and the fields of the compaction thread.
+	 */
+	private final Object runLock = new Object();
+
+	/**
+	 * Whether a background merge task has been submitted, and has not finished yet.
+	 */
+	private boolean compactionScheduled;
+
+	/**
+	 * The failure of the last background merge, if any.
+	 */
+	private volatile IOException compactionFailure;
+
+	/**
+	 * The elements added since the last flush.
+	 */
+	protected RedBlackTree<E> memtable = new RedBlackTree<E>();
+
+	/**
+	 * The tombstones recorded since the last flush. A tombstone is only recorded
+	 * for an element present in the runs, and never for an element in the memtable.
+	 */
+	protected RedBlackTree<E> tombstones = new RedBlackTree<E>();
+
+	/**
+	 * The sorted runs, the newest first. The list is never modified, it is replaced
+	 * under the run lock, so a reader takes a consistent snapshot by reading it once.
+	 */
+	protected volatile List<SortedRun<E>> runs = Collections.emptyList();
+
+	protected int size;
+
+	protected int modificationCount;
+
+	/**
+	 * Construct an empty tree, with the default memtable threshold.
+	 *
+	 * @param directory the directory for the run files; it is created if need be.
+	 * @param codec the encoding of the elements.
+	 * @throws IOException if the directory can not be created.
+	 */
+	public LogStructuredSearchTree(Path directory, FixedWidthCodec<E> codec) throws IOException {
+		this(directory, codec, DEFAULT_MEMTABLE_THRESHOLD);
+	}
+
+	/**
+	 * Construct an empty tree, which flushes its memtable after the given number
+	 * of entries.
+	 *
+	 * @param directory the directory for the run files; it is created if need be.
+	 * @param codec the encoding of the elements.
+	 * @param memtableThreshold the number of memtable entries which triggers a flush.
+	 * @throws IOException if the directory can not be created.
+	 */
+	public LogStructuredSearchTree(Path directory, FixedWidthCodec<E> codec, int memtableThreshold) throws IOException {
+		if (memtableThreshold < 1) {
+			throw new IllegalArgumentException("The memtable threshold must be positive.");
+		}
+
+		this.memtableThreshold = memtableThreshold;
+		this.directory = Files.createDirectories(directory);
+		this.codec = Objects.requireNonNull(codec);
+		this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "LogStructuredSearchTree compaction");
+
+			thread.setDaemon(true);
+
+			return thread;
+		});
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof Comparable<?>) {
+			@SuppressWarnings("unchecked")
+			E element = (E)o;
+
+			if (this.memtable.contains(element)) {
+				return true;
+			} else if (this.tombstones.contains(element)) {
+				return false;
+			} else {
+				return Boolean.TRUE.equals(this.lookupInRuns(element));
+			}
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new TreeIterator(null);
+	}
+
+	/*
+	 * Starts the merge at the lower bound, instead of filtering a full iteration.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#forEachInRange(java.lang.Comparable, java.lang.Comparable, java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachInRange(E from, E to, Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+
+		Iterator<E> iterator = new TreeIterator(from);
+
+		while (iterator.hasNext()) {
+			E element = iterator.next();
+
+			if (to != null && element.compareTo(to) >= 0) {
+				break;
+			}
+
+			action.accept(element);
+		}
+	}
+
+	/*
+	 * The memtable never holds an element alive in the runs, so if the element
+	 * is neither in the memtable nor alive in the runs, it is new.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E e) {
+		Objects.requireNonNull(e);
+
+		if (this.memtable.contains(e)) {
+			return false;
+		} else if (!this.tombstones.remove(e)) {
+			if (Boolean.TRUE.equals(this.lookupInRuns(e))) {
+				return false;
+			}
+
+			this.memtable.add(e);
+		}
+
+		this.size++;
+		this.modificationCount++;
+		this.flushIfFull();
+
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!(o instanceof Comparable<?>)) {
+			return false;
+		}
+
+		@SuppressWarnings("unchecked")
+		E element = (E)o;
+
+		if (!this.memtable.remove(element)) {
+			if (this.tombstones.contains(element) || !Boolean.TRUE.equals(this.lookupInRuns(element))) {
+				return false;
+			}
+
+			this.tombstones.add(element);
+		}
+
+		this.size--;
+		this.modificationCount++;
+		this.flushIfFull();
+
+		return true;
+	}
+
+	/*
+	 * A merge running meanwhile finds its sources gone, and discards its result.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#clear()
+	 */
+	@Override
+	public void clear() {
+		this.memtable.clear();
+		this.tombstones.clear();
+		this.deleteRuns();
+		this.size = 0;
+		this.modificationCount++;
+	}
+
+	@Override
+	public E minimum() {
+		Iterator<E> iterator = this.iterator();
+
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	/*
+	 * The greatest entry of all sources is the maximum, unless it is a tombstone;
+	 * then we look for the greatest entry below that, and so on.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#maximum()
+	 */
+	@Override
+	public E maximum() {
+		E bound = null;
+
+		while (true) {
+			E candidate = this.greatestEntryBelow(bound);
+
+			if (candidate == null || this.contains(candidate)) {
+				return candidate;
+			}
+
+			bound = candidate;
+		}
+	}
+
+	/*
+	 * Lookups descend the memtable and binary search the runs, so the height is
+	 * the deepest of those descents.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#height()
+	 */
+	@Override
+	public int height() {
+		int height = Math.max(this.memtable.height(), this.tombstones.height());
+
+		for (SortedRun<E> run : this.runs) {
+			height = Math.max(height, 31 - Integer.numberOfLeadingZeros(run.size()));
+		}
+
+		return height;
+	}
+
+	/**
+	 * Write the memtable out as a sorted run, even if it is not full, and let the
+	 * compaction thread merge it if need be.
+	 * @throws UncheckedIOException if the run can not be written; the memtable is kept then.
+	 */
+	public void flush() {
+		if (!this.memtable.isEmpty() || !this.tombstones.isEmpty()) {
+			List<Cursor<E>> cursors = new ArrayList<Cursor<E>>(1);
+
+			cursors.add(new MemtableCursor<E>(this.memtable, this.tombstones, null));
+
+			SortedRun<E> run;
+
+			try {
+				run = this.writeRun(cursors, this.memtable.size() + this.tombstones.size(), this.runs.isEmpty());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			this.memtable.clear();
+			this.tombstones.clear();
+			this.modificationCount++;
+
+			synchronized (this.runLock) {
+				if (run != null) {
+					List<SortedRun<E>> runs = new ArrayList<SortedRun<E>>(this.runs.size() + 1);
+
+					runs.add(run);
+					runs.addAll(this.runs);
+					this.runs = runs;
+				}
+
+				if (!this.compactionScheduled && this.compactionFailure == null && this.runs.size() >= 2) {
+					this.compactionScheduled = true;
+					this.compactor.execute(this::compactInBackground);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Flush the memtable, and merge all runs into a single one, without tombstones.
+	 * This waits for the merge, which is made on the compaction thread.
+	 * @throws UncheckedIOException if a run can not be written, now or by an earlier background merge.
+	 */
+	public void compact() {
+		this.flush();
+		this.await(this.compactor.submit(() -> {
+			this.mergeAllRuns();
+			return null;
+		}));
+	}
+
+	/**
+	 * Wait until the compaction thread has merged all runs which are due for a merge.
+	 * @throws UncheckedIOException if a background merge has failed.
+	 */
+	public void awaitCompaction() {
+		this.await(this.compactor.submit(() -> null));
+	}
+
+	/**
+	 * Returns the number of sorted runs currently held.
+	 * @return the number of runs.
+	 */
+	public int runCount() {
+		return this.runs.size();
+	}
+
+	/**
+	 * Stop the compaction thread, after the merge it is making, and delete the run files.
+	 * The tree is empty afterwards, and must not be used any more.
+	 * @throws IOException if a background merge has failed.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.compactor.shutdown();
+
+		try {
+			this.compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		this.clear();
+
+		if (this.compactionFailure != null) {
+			throw this.compactionFailure;
+		}
+	}
+
+	// =============== Protected Methods ===============
+
+	protected void flushIfFull() {
+		if (this.memtable.size() + this.tombstones.size() >= this.memtableThreshold) {
+			this.flush();
+		}
+	}
+
+	/**
+	 * Look the element up in the runs, the newest first.
+	 * @param element the element sought.
+	 * @return TRUE if the newest entry is the element, FALSE if it is a tombstone, null if there is none.
+	 */
+	protected Boolean lookupInRuns(E element) {
+		for (SortedRun<E> run : this.runs) {
+			Boolean found = run.lookup(element);
+
+			if (found != null) {
+				return found;
+			}
+		}
+
+		return null;
+	}
+
+	/*
+	 * Runs on the compaction thread. Merges the newest pair of adjacent runs in which
+	 * the newer run is at least as large as the older one, until there is no such pair.
+	 * Runs are only ever added in front by flushes, so the pair stays adjacent, and the
+	 * oldest run stays the oldest, until the merged run replaces them.
+	 */
+	private void compactInBackground() {
+		while (true) {
+			SortedRun<E> newer;
+			SortedRun<E> older;
+			boolean oldest;
+
+			synchronized (this.runLock) {
+				List<SortedRun<E>> runs = this.runs;
+				int index = 0;
+
+				while (index + 1 < runs.size() && runs.get(index).size() < runs.get(index + 1).size()) {
+					index++;
+				}
+
+				if (index + 1 >= runs.size() || this.compactor.isShutdown()) {
+					this.compactionScheduled = false;
+					return;
+				}
+
+				newer = runs.get(index);
+				older = runs.get(index + 1);
+				oldest = index + 2 == runs.size();
+			}
+
+			List<Cursor<E>> cursors = new ArrayList<Cursor<E>>(2);
+
+			cursors.add(new RunCursor<E>(newer, 0, null));
+			cursors.add(new RunCursor<E>(older, 1, null));
+
+			try {
+				this.replaceRuns(Arrays.asList(newer, older), this.writeRun(cursors, newer.size() + older.size(), oldest));
+			} catch (IOException e) {
+				synchronized (this.runLock) {
+					this.compactionFailure = e;
+					this.compactionScheduled = false;
+				}
+
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Runs on the compaction thread, while the owner of the tree waits in compact(),
+	 * so no runs are added meanwhile.
+	 */
+	private void mergeAllRuns() throws IOException {
+		if (this.compactionFailure != null) {
+			throw this.compactionFailure;
+		}
+
+		List<SortedRun<E>> runs = this.runs;
+
+		if (runs.size() >= 2) {
+			List<Cursor<E>> cursors = new ArrayList<Cursor<E>>(runs.size());
+			int capacity = 0;
+
+			for (int i = 0; i < runs.size(); i++) {
+				cursors.add(new RunCursor<E>(runs.get(i), i, null));
+				capacity += runs.get(i).size();
+			}
+
+			this.replaceRuns(runs, this.writeRun(cursors, capacity, true));
+		}
+	}
+
+	/**
+	 * Replace adjacent runs with their merge, unless they have been deleted by
+	 * {@link #clear()} meanwhile; then the merge is deleted instead.
+	 * @param sources the merged runs, the newest first.
+	 * @param merged the merge, or null if it holds no entries.
+	 */
+	private void replaceRuns(List<SortedRun<E>> sources, SortedRun<E> merged) {
+		boolean replaced = false;
+
+		synchronized (this.runLock) {
+			int index = this.runs.indexOf(sources.get(0));
+
+			if (index >= 0 && this.runs.subList(index, Math.min(index + sources.size(), this.runs.size())).equals(sources)) {
+				List<SortedRun<E>> runs = new ArrayList<SortedRun<E>>(this.runs);
+
+				runs.subList(index, index + sources.size()).clear();
+
+				if (merged != null) {
+					runs.add(index, merged);
+				}
+
+				this.runs = runs;
+				replaced = true;
+			}
+		}
+
+		for (SortedRun<E> run : replaced ? sources : Collections.singletonList(merged)) {
+			if (run != null) {
+				delete(run.file);
+			}
+		}
+	}
+
+	/**
+	 * Merge the entries of the given cursors into a new run file.
+	 *
+	 * @param cursors the cursors, aged the newest first.
+	 * @param capacity the total number of entries under the cursors.
+	 * @param oldest whether the run will be the oldest one; if so, tombstones are dropped.
+	 * @return the new run, or null if no entries are left.
+	 * @throws IOException if the file can not be written or mapped.
+	 */
+	private SortedRun<E> writeRun(List<Cursor<E>> cursors, int capacity, boolean oldest) throws IOException {
+		Merger<E> merger = new Merger<E>(cursors);
+		Path file = Files.createTempFile(this.directory, "run-", ".dat");
+		int recordSize = this.codec.width() + 1;
+		ByteBuffer buffer = ByteBuffer.allocate(Math.max(1, WRITE_BUFFER_SIZE / recordSize) * recordSize);
+		BloomFilter filter = new BloomFilter(capacity);
+		SortedRun<E> run = null;
+		int length = 0;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			while (merger.advance()) {
+				if (!oldest || !merger.tombstone) {
+					if (!buffer.hasRemaining()) {
+						drain(buffer, channel);
+					}
+
+					int offset = buffer.position();
+
+					buffer.put(offset, (byte)(merger.tombstone ? 1 : 0));
+					this.codec.write(merger.element, buffer, offset + 1);
+					buffer.position(offset + recordSize);
+					filter.add(merger.element);
+					length++;
+				}
+			}
+
+			drain(buffer, channel);
+
+			if (length > 0) {
+				run = new SortedRun<E>(file, this.codec, channel, length, filter);
+			}
+		} catch (IOException | RuntimeException e) {
+			delete(file);
+			throw e;
+		}
+
+		if (run == null) {
+			delete(file);
+		}
+
+		return run;
+	}
+
+	private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	/*
+	 * A file which can not be deleted now, typically because it is still mapped
+	 * on a platform which forbids that, is deleted when the JVM exits.
+	 */
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			file.toFile().deleteOnExit();
+		}
+	}
+
+	private void deleteRuns() {
+		List<SortedRun<E>> runs;
+
+		synchronized (this.runLock) {
+			runs = this.runs;
+			this.runs = Collections.emptyList();
+		}
+
+		for (SortedRun<E> run : runs) {
+			delete(run.file);
+		}
+	}
+
+	private void await(Future<?> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for compaction.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw new UncheckedIOException((IOException)e.getCause());
+			}
+
+			throw new IllegalStateException(e.getCause());
+		}
+
+		if (this.compactionFailure != null) {
+			throw new UncheckedIOException(this.compactionFailure);
+		}
+	}
+
+	/**
+	 * Create cursors over the memtable and all runs, positioned at the first
+	 * entry not less than the given element.
+	 * @param from the lower bound, or null for no bound.
+	 * @return the cursors, the newest first.
+	 */
+	private List<Cursor<E>> cursors(E from) {
+		List<SortedRun<E>> runs = this.runs;
+		List<Cursor<E>> cursors = new ArrayList<Cursor<E>>(runs.size() + 1);
+
+		cursors.add(new MemtableCursor<E>(this.memtable, this.tombstones, from));
+
+		for (int i = 0; i < runs.size(); i++) {
+			cursors.add(new RunCursor<E>(runs.get(i), i + 1, from));
+		}
+
+		return cursors;
+	}
+
+	/**
+	 * Find the greatest entry, alive or not, among the memtable and all runs,
+	 * which is less than the given bound.
+	 * @param bound the upper bound (exclusive), or null for no bound.
+	 * @return the greatest entry below the bound, or null.
+	 */
+	protected E greatestEntryBelow(E bound) {
+		E greatest = bound == null ? this.memtable.maximum() : this.memtable.lower(bound);
+		E tombstone = bound == null ? this.tombstones.maximum() : this.tombstones.lower(bound);
+
+		if (greatest == null || (tombstone != null && tombstone.compareTo(greatest) > 0)) {
+			greatest = tombstone;
+		}
+
+		for (SortedRun<E> run : this.runs) {
+			int index = (bound == null ? run.size() : run.ceiling(bound)) - 1;
+
+			if (index >= 0 && (greatest == null || run.element(index).compareTo(greatest) > 0)) {
+				greatest = run.element(index);
+			}
+		}
+
+		return greatest;
+	}
+}
@@ -0,0 +1,48 @@
+package com.safkanyazilim.util;
+
+
+/**
+ * <p> Normalizers for use with {@link RedBlackTree#RedBlackTree(java.util.function.ToLongFunction)}.
+ * Each maps a value to a long whose unsigned order agrees with the order of the values:
+ * a greater value never maps to a smaller long. Values which map to the same long are
+ * compared with compareTo().
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ */
+public final class NormalizedKeys {
+
+	private NormalizedKeys() {
+	}
+
+	/**
+	 * The first four characters of the string, sixteen bits each, padded with zeros.
+	 * String.compareTo() compares characters as unsigned numbers, and a proper prefix
+	 * comes first, so this order agrees with it; strings sharing their first four
+	 * characters fall back to compareTo().
+	 *
+	 * @param s the string.
+	 * @return the normalized key.
+	 */
+	public static long ofString(String s) {
+		long key = 0;
+		int length = Math.min(4, s.length());
+
+		for (int i = 0; i < length; i++) {
+			key |= (long)s.charAt(i) << (48 - 16 * i);
+		}
+
+		return key;
+	}
+
+	/**
+	 * The long with its sign bit flipped, so that negative numbers come first.
+	 * This determines the order completely.
+	 *
+	 * @param value the number.
+	 * @return the normalized key.
+	 */
+	public static long ofLong(long value) {
+		return value ^ Long.MIN_VALUE;
+	}
+}
@@ -0,0 +1,259 @@
+package com.safkanyazilim.util;
+
+import java.util.Collection;
+
+
+/**
+ * <p> A Red-Black Tree which keeps a multiplicity for each of its elements, and the
+ * total multiplicity of each subtree in its nodes. This allows finding the element
+ * at a given position in the sorted sequence of all occurrences, and the position
+ * of a given element, in O(lg N) time.
+ * </p>
+ *
+ * <p> As a {@link java.util.Set}, the tree holds its distinct elements: add() inserts an
+ * element with a multiplicity of one if it is not in the tree yet, and remove() removes
+ * an element with all its occurrences. Occurrences are counted with
+ * {@link #add(Comparable, int)}, {@link #remove(Comparable, int)} and {@link #count(Object)}.
+ * Operations on whole collections keep the multiplicities of the elements they do not
+ * remove, so they do not merge and rebuild the tree, but insert and delete one element
+ * at a time.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type to be stored in the tree.
+ */
+public class OrderStatisticTree<E extends Comparable<E>> extends RedBlackTree<E> {
+
+	/**
+	 * A node which also keeps the multiplicity of its element, and the total
+	 * multiplicity of its subtree.
+	 *
+	 * @author Dr. Y. Safkan
+	 */
+	protected class CountedNode extends Node {
+		/**
+		 * The number of occurrences of the element of this node.
+		 */
+		private long count;
+
+		/**
+		 * The sum of the counts in the subtree of this node.
+		 */
+		private long total;
+
+		protected CountedNode(Node parent, boolean red) {
+			super(parent, NIL, NIL, red);
+			this.count = 1;
+			this.total = 1;
+		}
+	}
+
+	/**
+	 * Construct a new OrderStatisticTree, which is initially empty.
+	 */
+	public OrderStatisticTree() {
+		super();
+	}
+
+	/**
+	 * Add occurrences of an element.
+	 * @param element the element; may not be null.
+	 * @param occurrences the number of occurrences to be added; may be zero.
+	 * @return the number of occurrences of the element before this call.
+	 * @throws IllegalArgumentException if the number of occurrences is negative.
+	 */
+	public long add(E element, int occurrences) {
+		if (element == null) {
+			throw new NullPointerException("Null elements not allowed.");
+		} else if (occurrences < 0) {
+			throw new IllegalArgumentException("The number of occurrences may not be negative: " + occurrences);
+		} else if (occurrences == 0) {
+			return this.count(element);
+		}
+
+		Node inserted = this.insertBelow(this.root, element);
+		CountedNode node;
+		long previous;
+
+		if (inserted != NIL) {
+			node = (CountedNode)inserted;
+			previous = 0;
+			node.count = occurrences;
+			this.size++;
+		} else {
+			node = (CountedNode)this.find(element);
+			previous = node.count;
+			node.count += occurrences;
+		}
+
+		this.augmentPath(node);
+		this.modificationCount++;
+
+		return previous;
+	}
+
+	/**
+	 * Remove occurrences of an element. The element is removed from the tree when
+	 * no occurrences are left.
+	 * @param element the element.
+	 * @param occurrences the maximum number of occurrences to be removed; may be zero.
+	 * @return the number of occurrences of the element before this call.
+	 * @throws IllegalArgumentException if the number of occurrences is negative.
+	 */
+	public long remove(E element, int occurrences) {
+		if (occurrences < 0) {
+			throw new IllegalArgumentException("The number of occurrences may not be negative: " + occurrences);
+		} else if (element == null) {
+			return 0;
+		}
+
+		Node found = this.find(element);
+
+		if (found == NIL) {
+			return 0;
+		}
+
+		CountedNode node = (CountedNode)found;
+		long previous = node.count;
+
+		if (occurrences == 0) {
+			return previous;
+		} else if (occurrences >= previous) {
+			this.delete(node);
+			this.size--;
+		} else {
+			node.count -= occurrences;
+			this.augmentPath(node);
+		}
+
+		this.modificationCount++;
+
+		return previous;
+	}
+
+	/**
+	 * @param element the element to be looked up.
+	 * @return the number of occurrences of the element, zero if it is not in the tree.
+	 */
+	@SuppressWarnings("unchecked")
+	public long count(Object element) {
+		if (element instanceof Comparable<?>) {
+			Node node = this.find((E)element);
+
+			return node == NIL ? 0 : ((CountedNode)node).count;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return the total number of occurrences of all elements in the tree.
+	 */
+	public long totalCount() {
+		return this.total(this.root);
+	}
+
+	/**
+	 * Find the element at the given position in the sorted sequence of all
+	 * occurrences of all elements. This takes O(lg N) time.
+	 * @param index the position, from zero to {@link #totalCount()} - 1.
+	 * @return the element at that position.
+	 * @throws IndexOutOfBoundsException if there is no such position.
+	 */
+	public E select(long index) {
+		if (index < 0 || index >= this.totalCount()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", total count: " + this.totalCount());
+		}
+
+		Node node = this.root;
+
+		while (true) {
+			long left = this.total(node.getLeft());
+			long count = ((CountedNode)node).count;
+
+			if (index < left) {
+				node = node.getLeft();
+			} else if (index < left + count) {
+				return node.getElement();
+			} else {
+				index -= left + count;
+				node = node.getRight();
+			}
+		}
+	}
+
+	/**
+	 * Count the occurrences of elements less than the given one; this is the position
+	 * of its first occurrence, if it is in the tree. This takes O(lg N) time.
+	 * @param element the element; it need not be in the tree.
+	 * @return the number of occurrences of smaller elements.
+	 */
+	public long rank(E element) {
+		Node node = this.root;
+		long rank = 0;
+
+		while (node != NIL) {
+			int comparison = element.compareTo(node.getElement());
+
+			if (comparison <= 0) {
+				node = node.getLeft();
+			} else {
+				rank += this.total(node.getLeft()) + ((CountedNode)node).count;
+				node = node.getRight();
+			}
+		}
+
+		return rank;
+	}
+
+	/*
+	 * Removing the elements which are not in the collection one by one keeps
+	 * the multiplicities of the others.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.RedBlackTree#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return this.removeIf(element -> !c.contains(element));
+	}
+
+	// =============== Protected Methods ===============
+
+	/*
+	 * A rebuild would reset every multiplicity to one, so bulk operations never merge.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.RedBlackTree#prefersMerge(int)
+	 */
+	@Override
+	protected boolean prefersMerge(int otherSize) {
+		return false;
+	}
+
+	@Override
+	protected Node createNode(Node parent, boolean red) {
+		return new CountedNode(parent, red);
+	}
+
+	@Override
+	protected void augment(Node node) {
+		CountedNode counted = (CountedNode)node;
+
+		counted.total = counted.count + this.total(node.getLeft()) + this.total(node.getRight());
+	}
+
+	@Override
+	protected boolean isAugmented() {
+		return true;
+	}
+
+	/**
+	 * @param node a node, may be NIL.
+	 * @return the total multiplicity of the subtree of the node.
+	 */
+	protected long total(Node node) {
+		return node == NIL ? 0 : ((CountedNode)node).total;
+	}
+}
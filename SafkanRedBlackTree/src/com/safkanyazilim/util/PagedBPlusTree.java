@@ -0,0 +1,827 @@
+package com.safkanyazilim.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+
+/**
+ * <p> This is a disk-resident implementation of a {@link SearchTree}, for sets which
+ * do not fit in memory. The elements are kept in a B+ tree, in the pages of a single
+ * file; each page is either an inner node, holding separator keys and the page numbers
+ * of its children, or a leaf, holding elements. The leaves are linked to each other
+ * in order, so iteration is a sequential scan of the leaves.
+ * </p>
+ *
+ * <p> Pages are accessed through a buffer pool of a fixed number of frames, reused
+ * in CLOCK order; a lookup reads at most one page per level of the tree, and none at
+ * all for pages already in the pool. Modified pages are written back when their frame
+ * is reused, or on {@link #flush()} and {@link #close()}.
+ * </p>
+ *
+ * <p> Elements are stored through a {@link FixedWidthCodec}. Removal is lazy: elements are
+ * taken out of their leaf, but leaves are never merged, so a tree which shrinks a lot
+ * keeps its pages. The tree must be closed after use, otherwise changes may be lost.
+ * I/O errors surface as UncheckedIOException from the Set methods.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type stored in the tree.
+ */
+public class PagedBPlusTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E>, Closeable {
+
+	protected class TreeIterator implements Iterator<E> {
+		private final Object[] keys = new Object[PagedBPlusTree.this.leafCapacity];
+		private int count;
+		private int index;
+		private long nextLeaf;
+		private E last;
+		private int modificationCount;
+
+		public TreeIterator(E from) {
+			this.seek(from);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.index < this.count;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public E next() {
+			if (this.index >= this.count) {
+				throw new NoSuchElementException();
+			} else if (this.modificationCount != PagedBPlusTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			this.last = (E)this.keys[this.index++];
+			this.skipExhaustedLeaves();
+
+			return this.last;
+		}
+
+		/*
+		 * Removing shifts the leaf, so we look the position up again; the removed
+		 * element is gone, so the first element not less than it is the next one.
+		 */
+		@Override
+		public void remove() {
+			if (this.last == null) {
+				throw new IllegalStateException();
+			} else if (this.modificationCount != PagedBPlusTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			PagedBPlusTree.this.remove(this.last);
+			this.seek(this.last);
+			this.last = null;
+		}
+
+		private void seek(E from) {
+			try {
+				this.modificationCount = PagedBPlusTree.this.modificationCount;
+
+				if (from == null) {
+					this.load(PagedBPlusTree.this.firstLeaf);
+					this.index = 0;
+				} else {
+					this.load(PagedBPlusTree.this.findLeaf(from, null, null));
+
+					int position = this.search(from);
+					this.index = position >= 0 ? position : -position - 1;
+				}
+
+				this.skipExhaustedLeaves();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/*
+		 * The keys of the current leaf are decoded at once, so the leaf is
+		 * pinned once per visit rather than once per element.
+		 */
+		private void load(long leaf) throws IOException {
+			BufferPool.Frame frame = PagedBPlusTree.this.pool.pin(leaf);
+
+			try {
+				ByteBuffer buffer = frame.buffer();
+
+				this.count = buffer.getInt(COUNT_OFFSET);
+				this.nextLeaf = buffer.getLong(NEXT_OFFSET);
+
+				for (int i = 0; i < this.count; i++) {
+					this.keys[i] = PagedBPlusTree.this.leafKey(buffer, i);
+				}
+			} finally {
+				PagedBPlusTree.this.pool.unpin(frame);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private int search(E element) {
+			int low = 0;
+			int high = this.count - 1;
+
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int comparison = ((E)this.keys[middle]).compareTo(element);
+
+				if (comparison < 0) {
+					low = middle + 1;
+				} else if (comparison > 0) {
+					high = middle - 1;
+				} else {
+					return middle;
+				}
+			}
+
+			return -low - 1;
+		}
+
+		private void skipExhaustedLeaves() {
+			try {
+				while (this.index >= this.count && this.nextLeaf != NO_PAGE) {
+					this.load(this.nextLeaf);
+					this.index = 0;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * The default size of a page, in bytes.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 4096;
+
+	/**
+	 * The default number of pages held in memory.
+	 */
+	public static final int DEFAULT_POOL_PAGES = 256;
+
+	/**
+	 * The smallest number of pages a pool may hold; an insertion pins up to four.
+	 */
+	public static final int MINIMUM_POOL_PAGES = 8;
+
+	private static final int MAGIC = 0x42505452;
+
+	private static final int HEADER_SIZE = 48;
+
+	/**
+	 * Page 0 is the header, so it is never a node; it marks a missing sibling.
+	 */
+	private static final long NO_PAGE = 0;
+
+	private static final byte LEAF = 0;
+
+	private static final byte INNER = 1;
+
+	// The layout of a node page: type, count, then for leaves the sibling
+	// links and the keys, for inner nodes the children and then the keys.
+	private static final int TYPE_OFFSET = 0;
+	private static final int COUNT_OFFSET = 4;
+	private static final int PREVIOUS_OFFSET = 8;
+	private static final int NEXT_OFFSET = 16;
+	private static final int LEAF_KEYS_OFFSET = 24;
+	private static final int CHILDREN_OFFSET = 8;
+
+	private final FileChannel channel;
+
+	private final BufferPool pool;
+
+	private final FixedWidthCodec<E> codec;
+
+	private final int pageSize;
+
+	private final int width;
+
+	private final int leafCapacity;
+
+	private final int innerCapacity;
+
+	private final int innerKeysOffset;
+
+	protected long root;
+
+	protected long firstLeaf;
+
+	/**
+	 * The number of levels, including the leaves.
+	 */
+	protected int levels;
+
+	protected long size;
+
+	protected int modificationCount;
+
+	/**
+	 * Open the tree stored in the given file, or create it, with the default
+	 * page and pool sizes.
+	 *
+	 * @param file the file holding the tree.
+	 * @param codec the encoding of the elements.
+	 * @throws IOException if the file can not be opened, or is not a tree.
+	 */
+	public PagedBPlusTree(Path file, FixedWidthCodec<E> codec) throws IOException {
+		this(file, codec, DEFAULT_PAGE_SIZE, DEFAULT_POOL_PAGES);
+	}
+
+	/**
+	 * Open the tree stored in the given file, or create it if the file does not
+	 * exist or is empty. An existing tree must have been created with the same
+	 * page size and element width.
+	 *
+	 * @param file the file holding the tree.
+	 * @param codec the encoding of the elements.
+	 * @param pageSize the size of a page, in bytes.
+	 * @param poolPages the number of pages held in memory.
+	 * @throws IOException if the file can not be opened, or is not a tree.
+	 */
+	public PagedBPlusTree(Path file, FixedWidthCodec<E> codec, int pageSize, int poolPages) throws IOException {
+		this.codec = Objects.requireNonNull(codec);
+		this.pageSize = pageSize;
+		this.width = codec.width();
+		this.leafCapacity = (pageSize - LEAF_KEYS_OFFSET) / this.width;
+		this.innerCapacity = (pageSize - CHILDREN_OFFSET - Long.BYTES) / (this.width + Long.BYTES);
+		this.innerKeysOffset = CHILDREN_OFFSET + (this.innerCapacity + 1) * Long.BYTES;
+
+		if (pageSize < HEADER_SIZE || this.leafCapacity < 3 || this.innerCapacity < 3) {
+			throw new IllegalArgumentException("The page size is too small for the element width.");
+		} else if (poolPages < MINIMUM_POOL_PAGES) {
+			throw new IllegalArgumentException("The pool must hold at least " + MINIMUM_POOL_PAGES + " pages.");
+		}
+
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			if (this.channel.size() == 0) {
+				this.pool = new BufferPool(this.channel, pageSize, poolPages, 1);
+				this.initialize();
+			} else {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+				while (header.hasRemaining()) {
+					if (this.channel.read(header, header.position()) < 0) {
+						break;
+					}
+				}
+
+				if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+					throw new IOException(file + " does not hold a paged B+ tree.");
+				} else if (header.getInt(4) != pageSize || header.getInt(8) != this.width) {
+					throw new IllegalArgumentException(file + " was created with a different page size or element width.");
+				}
+
+				this.levels = header.getInt(12);
+				this.root = header.getLong(16);
+				this.firstLeaf = header.getLong(24);
+				this.size = header.getLong(32);
+				this.pool = new BufferPool(this.channel, pageSize, poolPages, header.getLong(40));
+			}
+		} catch (IOException | RuntimeException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * The size is kept as a long in the file; a set larger than that
+	 * reports Integer.MAX_VALUE, as the Collection contract asks.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return (int)Math.min(this.size, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof Comparable<?>) {
+			@SuppressWarnings("unchecked")
+			E element = (E)o;
+
+			try {
+				BufferPool.Frame frame = this.pool.pin(this.findLeaf(element, null, null));
+
+				try {
+					return this.leafSearch(frame.buffer(), element) >= 0;
+				} finally {
+					this.pool.unpin(frame);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new TreeIterator(null);
+	}
+
+	/*
+	 * Descends once to the lower bound, then scans the leaves.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#forEachInRange(java.lang.Comparable, java.lang.Comparable, java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachInRange(E from, E to, Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+
+		Iterator<E> iterator = new TreeIterator(from);
+
+		while (iterator.hasNext()) {
+			E element = iterator.next();
+
+			if (to != null && element.compareTo(to) >= 0) {
+				break;
+			}
+
+			action.accept(element);
+		}
+	}
+
+	@Override
+	public boolean add(E e) {
+		Objects.requireNonNull(e);
+
+		try {
+			long[] path = new long[this.levels];
+			int[] positions = new int[this.levels];
+			BufferPool.Frame leaf = this.pool.pin(this.findLeaf(e, path, positions));
+
+			try {
+				ByteBuffer buffer = leaf.buffer();
+				int position = this.leafSearch(buffer, e);
+
+				if (position >= 0) {
+					return false;
+				}
+
+				position = -position - 1;
+
+				if (buffer.getInt(COUNT_OFFSET) < this.leafCapacity) {
+					this.insertIntoLeaf(buffer, position, e);
+					leaf.markDirty();
+				} else {
+					this.splitLeaf(leaf, position, e, path, positions);
+				}
+			} finally {
+				this.pool.unpin(leaf);
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+
+		this.size++;
+		this.modificationCount++;
+
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!(o instanceof Comparable<?>)) {
+			return false;
+		}
+
+		@SuppressWarnings("unchecked")
+		E element = (E)o;
+
+		try {
+			BufferPool.Frame leaf = this.pool.pin(this.findLeaf(element, null, null));
+
+			try {
+				ByteBuffer buffer = leaf.buffer();
+				int position = this.leafSearch(buffer, element);
+
+				if (position < 0) {
+					return false;
+				}
+
+				int count = buffer.getInt(COUNT_OFFSET);
+
+				this.moveKeys(buffer, LEAF_KEYS_OFFSET, position + 1, position, count - position - 1);
+				buffer.putInt(COUNT_OFFSET, count - 1);
+				leaf.markDirty();
+			} finally {
+				this.pool.unpin(leaf);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		this.size--;
+		this.modificationCount++;
+
+		return true;
+	}
+
+	/*
+	 * Drops all pages at once, instead of removing the elements one by one.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#clear()
+	 */
+	@Override
+	public void clear() {
+		try {
+			this.pool.reset();
+			this.initialize();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		this.modificationCount++;
+	}
+
+	@Override
+	public E minimum() {
+		Iterator<E> iterator = this.iterator();
+
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	@Override
+	public E maximum() {
+		try {
+			long page = this.root;
+
+			for (int level = this.levels - 1; level > 0; level--) {
+				BufferPool.Frame frame = this.pool.pin(page);
+
+				try {
+					page = this.child(frame.buffer(), frame.buffer().getInt(COUNT_OFFSET));
+				} finally {
+					this.pool.unpin(frame);
+				}
+			}
+
+			// Leaves emptied by removals are skipped backwards.
+			while (page != NO_PAGE) {
+				BufferPool.Frame frame = this.pool.pin(page);
+
+				try {
+					int count = frame.buffer().getInt(COUNT_OFFSET);
+
+					if (count > 0) {
+						return this.leafKey(frame.buffer(), count - 1);
+					}
+
+					page = frame.buffer().getLong(PREVIOUS_OFFSET);
+				} finally {
+					this.pool.unpin(frame);
+				}
+			}
+
+			return null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * All leaves are on the same level, so the height is the number of inner levels.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#height()
+	 */
+	@Override
+	public int height() {
+		return this.levels - 1;
+	}
+
+	/**
+	 * Write all modified pages and the header to the file, and force them to the disk.
+	 * @throws IOException if the file can not be written.
+	 */
+	public void flush() throws IOException {
+		this.pool.flush();
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+		header.putInt(0, MAGIC);
+		header.putInt(4, this.pageSize);
+		header.putInt(8, this.width);
+		header.putInt(12, this.levels);
+		header.putLong(16, this.root);
+		header.putLong(24, this.firstLeaf);
+		header.putLong(32, this.size);
+		header.putLong(40, this.pool.pageCount());
+
+		while (header.hasRemaining()) {
+			this.channel.write(header, header.position());
+		}
+
+		this.channel.force(false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.channel.isOpen()) {
+			try {
+				this.flush();
+			} finally {
+				this.channel.close();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of pages read from the file so far.
+	 */
+	long pageReads() {
+		return this.pool.pageReads();
+	}
+
+	// =============== Protected Methods ===============
+
+	/**
+	 * Start an empty tree, a single empty leaf, in an empty pool.
+	 */
+	protected void initialize() throws IOException {
+		BufferPool.Frame leaf = this.pool.allocate();
+
+		try {
+			leaf.buffer().put(TYPE_OFFSET, LEAF);
+			this.root = leaf.page();
+			this.firstLeaf = leaf.page();
+			this.levels = 1;
+			this.size = 0;
+		} finally {
+			this.pool.unpin(leaf);
+		}
+	}
+
+	/**
+	 * Descend from the root to the leaf which would hold the given element.
+	 *
+	 * @param element the element sought.
+	 * @param path if not null, receives the page of each level, indexed by level; the leaves are level 0.
+	 * @param positions if not null, receives the child taken at each inner level.
+	 * @return the page of the leaf.
+	 * @throws IOException if a page can not be read.
+	 */
+	protected long findLeaf(E element, long[] path, int[] positions) throws IOException {
+		long page = this.root;
+
+		for (int level = this.levels - 1; level > 0; level--) {
+			BufferPool.Frame frame = this.pool.pin(page);
+
+			try {
+				int position = this.childPosition(frame.buffer(), element);
+
+				if (path != null) {
+					path[level] = page;
+					positions[level] = position;
+				}
+
+				page = this.child(frame.buffer(), position);
+			} finally {
+				this.pool.unpin(frame);
+			}
+		}
+
+		if (path != null) {
+			path[0] = page;
+		}
+
+		return page;
+	}
+
+	/**
+	 * Split the full leaf, inserting the element at the given position, and
+	 * insert the new leaf into the parent.
+	 */
+	protected void splitLeaf(BufferPool.Frame leaf, int position, E element, long[] path, int[] positions) throws IOException {
+		BufferPool.Frame right = this.pool.allocate();
+
+		try {
+			ByteBuffer buffer = leaf.buffer();
+			ByteBuffer rightBuffer = right.buffer();
+			int count = buffer.getInt(COUNT_OFFSET);
+			int half = count / 2;
+			long next = buffer.getLong(NEXT_OFFSET);
+
+			System.arraycopy(buffer.array(), this.leafKeyOffset(half), rightBuffer.array(), LEAF_KEYS_OFFSET, (count - half) * this.width);
+			rightBuffer.put(TYPE_OFFSET, LEAF);
+			rightBuffer.putInt(COUNT_OFFSET, count - half);
+			rightBuffer.putLong(PREVIOUS_OFFSET, leaf.page());
+			rightBuffer.putLong(NEXT_OFFSET, next);
+			buffer.putInt(COUNT_OFFSET, half);
+			buffer.putLong(NEXT_OFFSET, right.page());
+			leaf.markDirty();
+
+			if (next != NO_PAGE) {
+				BufferPool.Frame nextLeaf = this.pool.pin(next);
+
+				try {
+					nextLeaf.buffer().putLong(PREVIOUS_OFFSET, right.page());
+					nextLeaf.markDirty();
+				} finally {
+					this.pool.unpin(nextLeaf);
+				}
+			}
+
+			// An element inserted on the right never lands in front, so the separator is still the first right key.
+			if (position <= half) {
+				this.insertIntoLeaf(buffer, position, element);
+			} else {
+				this.insertIntoLeaf(rightBuffer, position - half, element);
+			}
+
+			this.insertIntoParent(this.leafKey(rightBuffer, 0), right.page(), path, positions);
+		} finally {
+			this.pool.unpin(right);
+		}
+	}
+
+	/**
+	 * Insert a separator and the page to its right into the inner nodes along the path,
+	 * splitting them as needed, and growing a new root if the old one splits.
+	 */
+	protected void insertIntoParent(E separator, long rightPage, long[] path, int[] positions) throws IOException {
+		for (int level = 1; level < this.levels; level++) {
+			BufferPool.Frame node = this.pool.pin(path[level]);
+
+			try {
+				ByteBuffer buffer = node.buffer();
+				int count = buffer.getInt(COUNT_OFFSET);
+				int position = positions[level];
+
+				node.markDirty();
+
+				if (count < this.innerCapacity) {
+					this.insertIntoInner(buffer, position, separator, rightPage);
+					return;
+				}
+
+				// Split around the middle key, which moves up instead of staying in either half.
+				BufferPool.Frame right = this.pool.allocate();
+
+				try {
+					ByteBuffer rightBuffer = right.buffer();
+					int middle = count / 2;
+					E middleKey = this.innerKey(buffer, middle);
+
+					System.arraycopy(buffer.array(), this.innerKeyOffset(middle + 1), rightBuffer.array(), this.innerKeysOffset, (count - middle - 1) * this.width);
+					System.arraycopy(buffer.array(), this.childOffset(middle + 1), rightBuffer.array(), CHILDREN_OFFSET, (count - middle) * Long.BYTES);
+					rightBuffer.put(TYPE_OFFSET, INNER);
+					rightBuffer.putInt(COUNT_OFFSET, count - middle - 1);
+					buffer.putInt(COUNT_OFFSET, middle);
+
+					if (position <= middle) {
+						this.insertIntoInner(buffer, position, separator, rightPage);
+					} else {
+						this.insertIntoInner(rightBuffer, position - middle - 1, separator, rightPage);
+					}
+
+					separator = middleKey;
+					rightPage = right.page();
+				} finally {
+					this.pool.unpin(right);
+				}
+			} finally {
+				this.pool.unpin(node);
+			}
+		}
+
+		BufferPool.Frame newRoot = this.pool.allocate();
+
+		try {
+			ByteBuffer buffer = newRoot.buffer();
+
+			buffer.put(TYPE_OFFSET, INNER);
+			buffer.putInt(COUNT_OFFSET, 1);
+			buffer.putLong(this.childOffset(0), this.root);
+			buffer.putLong(this.childOffset(1), rightPage);
+			this.codec.write(separator, buffer, this.innerKeyOffset(0));
+
+			this.root = newRoot.page();
+			this.levels++;
+		} finally {
+			this.pool.unpin(newRoot);
+		}
+	}
+
+	protected void insertIntoLeaf(ByteBuffer buffer, int position, E element) {
+		int count = buffer.getInt(COUNT_OFFSET);
+
+		this.moveKeys(buffer, LEAF_KEYS_OFFSET, position, position + 1, count - position);
+		this.codec.write(element, buffer, this.leafKeyOffset(position));
+		buffer.putInt(COUNT_OFFSET, count + 1);
+	}
+
+	/**
+	 * Insert a key at the given key position of an inner node, with the given
+	 * child to its right.
+	 */
+	protected void insertIntoInner(ByteBuffer buffer, int position, E key, long rightChild) {
+		int count = buffer.getInt(COUNT_OFFSET);
+
+		this.moveKeys(buffer, this.innerKeysOffset, position, position + 1, count - position);
+		System.arraycopy(buffer.array(), this.childOffset(position + 1), buffer.array(), this.childOffset(position + 2), (count - position) * Long.BYTES);
+		this.codec.write(key, buffer, this.innerKeyOffset(position));
+		buffer.putLong(this.childOffset(position + 1), rightChild);
+		buffer.putInt(COUNT_OFFSET, count + 1);
+	}
+
+	/**
+	 * Binary search for the element in a leaf.
+	 * @return the position of the element, or (-(insertion point) - 1), as in {@link java.util.Arrays#binarySearch(Object[], Object)}.
+	 */
+	protected int leafSearch(ByteBuffer buffer, E element) {
+		int low = 0;
+		int high = buffer.getInt(COUNT_OFFSET) - 1;
+
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = this.leafKey(buffer, middle).compareTo(element);
+
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+
+		return -low - 1;
+	}
+
+	/**
+	 * Find the child of an inner node to descend into: child i holds the
+	 * elements from key i - 1 (inclusive) to key i (exclusive).
+	 * @return the number of keys not greater than the element.
+	 */
+	protected int childPosition(ByteBuffer buffer, E element) {
+		int low = 0;
+		int high = buffer.getInt(COUNT_OFFSET);
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (this.innerKey(buffer, middle).compareTo(element) <= 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	protected long child(ByteBuffer buffer, int position) {
+		return buffer.getLong(this.childOffset(position));
+	}
+
+	protected E leafKey(ByteBuffer buffer, int position) {
+		return this.codec.read(buffer, this.leafKeyOffset(position));
+	}
+
+	protected E innerKey(ByteBuffer buffer, int position) {
+		return this.codec.read(buffer, this.innerKeyOffset(position));
+	}
+
+	private int leafKeyOffset(int position) {
+		return LEAF_KEYS_OFFSET + position * this.width;
+	}
+
+	private int innerKeyOffset(int position) {
+		return this.innerKeysOffset + position * this.width;
+	}
+
+	private int childOffset(int position) {
+		return CHILDREN_OFFSET + position * Long.BYTES;
+	}
+
+	private void moveKeys(ByteBuffer buffer, int keysOffset, int from, int to, int count) {
+		System.arraycopy(buffer.array(), keysOffset + from * this.width, buffer.array(), keysOffset + to * this.width, count * this.width);
+	}
+}
@@ -1,10 +1,19 @@
 package com.safkanyazilim.util;
 
-import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
 
 
 /**
@@ -32,11 +41,25 @@ import java.util.Objects;
  * <p> This tree will remain "approximately balanced" throughout its life.
  * </p>
  * 
+ * <p> When the other collection is also a {@link SearchTree}, containsAll(), addAll(),
+ * retainAll() and removeAll() walk both trees in order simultaneously, taking O(N + M)
+ * time, and rebuild this tree from the result in linear time where needed. Since
+ * equals() relies on containsAll(), comparing two trees is linear as well.
+ * </p>
+ * 
+ * <p> When comparing elements is expensive, as with long strings or composite keys,
+ * a normalizer may be given: a function mapping each element to a long, such that
+ * a greater element never maps to a smaller long, comparing as unsigned numbers.
+ * Each node keeps the normalized key of its element, and comparisons during lookups
+ * and insertions are decided on these keys, calling compareTo() only when they are
+ * equal. See {@link NormalizedKeys} for normalizers of common types.
+ * </p>
+ * 
  * @author Dr. Y. Safkan
  *
  * @param <E> The type to be stored in the Red-Black Tree. 
  */
-public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E> implements SearchTree<E> {
+public class RedBlackTree<E extends Comparable<E>> extends AbstractSet<E> implements SearchTree<E> {
 	
 	/**
 	 * Internal Node class, representing a node of a Red-Black Tree.
@@ -66,7 +89,7 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		 */
 		private boolean red;
 		
-		private Node(Node parent, Node left, Node right, boolean red) {
+		protected Node(Node parent, Node left, Node right, boolean red) {
 			this.parent = parent;
 			this.left = left;
 			this.right = right;
@@ -81,6 +104,34 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 			this.red = false;
 		}
 
+		/**
+		 * @return the element stored in this node.
+		 */
+		protected E getElement() {
+			return this.element;
+		}
+
+		/**
+		 * @return the left child of this node, or NIL.
+		 */
+		protected Node getLeft() {
+			return this.left;
+		}
+
+		/**
+		 * @return the right child of this node, or NIL.
+		 */
+		protected Node getRight() {
+			return this.right;
+		}
+
+		/**
+		 * @return the parent of this node, or NIL.
+		 */
+		protected Node getParent() {
+			return this.parent;
+		}
+
 		@Override
 		public String toString() {
 			if (this == NIL) {
@@ -93,6 +144,23 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 
 		
 	}
+	
+	/**
+	 * A node which also keeps the normalized key of its element. Only trees with a
+	 * normalizer create these, so that the nodes of other trees do not carry the key.
+	 * 
+	 * @author Dr. Y. Safkan
+	 */
+	private class KeyedNode extends Node {
+		/**
+		 * The normalized key of the element.
+		 */
+		private long key;
+		
+		private KeyedNode(Node parent, boolean red) {
+			super(parent, NIL, NIL, red);
+		}
+	}
 
 	protected class TreeIterator implements Iterator<E> {
 		private Node next;
@@ -100,7 +168,11 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		private int modificationCount;
 		
 		public TreeIterator() {
-			this.next = RedBlackTree.this.min(RedBlackTree.this.root);
+			this(RedBlackTree.this.root == NIL ? NIL : RedBlackTree.this.min(RedBlackTree.this.root));
+		}
+
+		public TreeIterator(Node first) {
+			this.next = first;
 			this.prev = NIL;
 			this.modificationCount = RedBlackTree.this.modificationCount;
 		}
@@ -124,29 +196,20 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		}
 
 		/*
-		 * Implementation note: Supporting this is not simple, because even if
-		 * a node is "in the past", its removal may involve its successor (if
-		 * it actually has two children). Here, we carefully navigate around
-		 * that issue by seeing if the contained elements are identical (which
-		 * can only happen on such a two-child-node removal); in which case
-		 * we jump forward one more element (which we calculate beforehand since
-		 * if the broken case has happened, navigation is no longer safe) to
-		 * avoid iterating over the same element right after its removal.
+		 * Implementation note: Deleting a node with two children moves its
+		 * successor node into its place, but the successor keeps its element.
+		 * So, the next node is still the next node after the removal.
 		 */
 		@Override
 		public void remove() {
 			if (this.prev == NIL) {
 				throw new IllegalStateException();
+			} else if (this.modificationCount != RedBlackTree.this.modificationCount) {
+				throw new ConcurrentModificationException();
 			}
-			
-			Node successor = RedBlackTree.this.successor(this.next);
-			
+
 			RedBlackTree.this.delete(this.prev);
-			
-			if (this.next != null && this.next.element == this.prev.element) {
-				this.next = successor;
-			}
-			
+
 			this.prev = NIL;
 			RedBlackTree.this.size--;
 			RedBlackTree.this.modificationCount++;
@@ -156,11 +219,27 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		
 	}
 
+	/**
+	 * The number of probes at or above which {@link #containsBatch(Comparable[])} splits
+	 * the work across threads.
+	 */
+	public static final int PARALLEL_BATCH_THRESHOLD = 1 << 14;
+
+	/**
+	 * The number of probes each thread resolves at once in a parallel batch lookup.
+	 */
+	private static final int PARALLEL_BATCH_CHUNK = 1 << 12;
+
 	/**
 	 * The NIL node.
 	 */
 	protected final Node NIL = new Node();
 	
+	/**
+	 * The normalizer of the elements, or null if comparisons always use compareTo().
+	 */
+	protected final ToLongFunction<? super E> normalizer;
+	
 	/**
 	 * The root node of the tree.
 	 */
@@ -193,6 +272,17 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 	 * Construct a new RedBlackTree, which is initially empty.
 	 */
 	public RedBlackTree() {
+		this((ToLongFunction<? super E>)null);
+	}
+	
+	/**
+	 * Construct a new RedBlackTree, which is initially empty, and which compares
+	 * normalized keys before elements.
+	 * 
+	 * @param normalizer the normalizer of the elements, or null for none.
+	 */
+	public RedBlackTree(ToLongFunction<? super E> normalizer) {
+		this.normalizer = normalizer;
 		this.root = NIL;
 		this.size = 0;
 		this.height = 0;
@@ -213,26 +303,32 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		// in the correct order with an iterator, and toArray uses that.
 		Object[] elements = binarySearchTree.toArray();
 		
-		this.root = this.generateTreeFromSortedArrayRange(elements, 0, elements.length - 1);
+		this.normalizer = binarySearchTree.normalizer;
+		this.root = this.generateTreeFromSortedArray(elements, elements.length);
 		this.size = elements.length;
 		this.modificationCount = 0;
 		this.height = 0;
 		this.heightCalculatedModificationCount = -1;
 	}
 	
+	/*
+	 * Splitting at the middle makes every NIL child sit at depth lg N or one
+	 * above it; coloring the nodes on the deepest level red (and all others black)
+	 * gives every path the same number of black nodes.
+	 */
 	@SuppressWarnings("unchecked")
-	private Node generateTreeFromSortedArrayRange(Object[] elements, int start, int end) {
+	private Node generateTreeFromSortedArrayRange(Object[] elements, int start, int end, int depth, int redDepth) {
 		if (start > end) {
 			return NIL;
 		}
 		
-		Node node = new Node(NIL, NIL, NIL, false);
+		Node node = this.createNode(NIL, depth == redDepth);
 		
 		int middle = (start + end)/2;
-		node.element = (E)elements[middle];
+		this.setElement(node, (E)elements[middle], this.normalize((E)elements[middle]));
 
-		node.left = generateTreeFromSortedArrayRange(elements, start, middle - 1);
-		node.right = generateTreeFromSortedArrayRange(elements, middle + 1, end);
+		node.left = generateTreeFromSortedArrayRange(elements, start, middle - 1, depth + 1, redDepth);
+		node.right = generateTreeFromSortedArrayRange(elements, middle + 1, end, depth + 1, redDepth);
 		
 		if (node.left != NIL) {
 			node.left.parent = node;
@@ -242,9 +338,18 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 			node.right.parent = node;
 		}
 		
+		this.augment(node);
+		
 		return node;
 	}
 	
+	private Node generateTreeFromSortedArray(Object[] elements, int length) {
+		// The root is black even if it is the only level.
+		int redDepth = length <= 1 ? -1 : 31 - Integer.numberOfLeadingZeros(length);
+		
+		return this.generateTreeFromSortedArrayRange(elements, 0, length - 1, 0, redDepth);
+	}
+	
 	
 	@Override
 	public int size() {
@@ -282,6 +387,114 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		return new TreeIterator();
 	}
 
+	/**
+	 * Returns an iterator over the elements not less than the given element,
+	 * in increasing order. This supports removing of elements, just like
+	 * {@link #iterator()}.
+	 *
+	 * @param from the lower bound (inclusive), or null for no bound.
+	 * @return the iterator.
+	 */
+	Iterator<E> iterator(E from) {
+		if (from == null) {
+			return new TreeIterator();
+		} else {
+			return new TreeIterator(this.ceiling(from));
+		}
+	}
+
+	/*
+	 * Walks the tree in order directly, without allocating an iterator.
+	 *
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#forEach(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+
+		if (this.root != NIL) {
+			this.walk(this.min(this.root), null, action);
+		}
+	}
+
+	/*
+	 * Descends to the lower bound, and walks in order from there, so this takes
+	 * O(h + k) time where k is the number of elements in the range.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#forEachInRange(java.lang.Comparable, java.lang.Comparable, java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachInRange(E from, E to, Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+
+		if (this.root != NIL) {
+			this.walk(from == null ? this.min(this.root) : this.ceiling(from), to, action);
+		}
+	}
+
+	/*
+	 * The filter is applied to every element first, in order, collecting the nodes
+	 * to be removed. If only a few are to be removed, they are deleted one by one,
+	 * in O(K lg N) time; deletion moves nodes rather than elements, so the collected
+	 * nodes stay valid meanwhile. Otherwise, the survivors are gathered in a second
+	 * walk, and the tree is rebuilt from them in O(N) time.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.Collection#removeIf(java.util.function.Predicate)
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super E> filter) {
+		Objects.requireNonNull(filter);
+
+		if (this.root == NIL) {
+			return false;
+		}
+
+		int modificationCount = this.modificationCount;
+		List<Node> removed = new ArrayList<Node>();
+
+		for (Node node = this.min(this.root); node != NIL; node = this.successor(node)) {
+			boolean matches = filter.test(node.element);
+
+			if (this.modificationCount != modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			if (matches) {
+				removed.add(node);
+			}
+		}
+
+		if (removed.isEmpty()) {
+			return false;
+		} else if (this.prefersMerge(removed.size())) {
+			Object[] survivors = new Object[this.size - removed.size()];
+			int length = 0;
+			int next = 0;
+
+			for (Node node = this.min(this.root); node != NIL; node = this.successor(node)) {
+				if (next < removed.size() && node == removed.get(next)) {
+					next++;
+				} else {
+					survivors[length++] = node.element;
+				}
+			}
+
+			this.rebuild(survivors, length);
+		} else {
+			for (Node node : removed) {
+				this.delete(node);
+			}
+
+			this.size -= removed.size();
+			this.modificationCount++;
+		}
+
+		return true;
+	}
+
 	/*
 	 * The default implementation throws UnsupportedOperationException!
 	 * 
@@ -331,6 +544,112 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		}
 	}
 
+	/*
+	 * If the other collection is a search tree, its elements come in order, so
+	 * a merge is enough, unless the other tree is so small compared to this one
+	 * that looking its elements up one by one is cheaper.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#containsAll(java.util.Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean containsAll(Collection<?> c) {
+		if (!(c instanceof SearchTree<?>) || !this.prefersMerge(c.size())) {
+			return super.containsAll(c);
+		} else if (c.size() > this.size) {
+			return false;
+		}
+
+		Node node = this.root == NIL ? NIL : this.min(this.root);
+
+		for (Object o : c) {
+			E other = (E)o;
+
+			while (node != NIL && node.element.compareTo(other) < 0) {
+				node = this.successor(node);
+			}
+
+			if (node == NIL || node.element.compareTo(other) != 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	 * Merges both trees into a sorted array of their union, and rebuilds
+	 * this tree from that.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#addAll(java.util.Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean addAll(Collection<? extends E> c) {
+		if (!(c instanceof SearchTree<?>) || !this.prefersMerge(c.size())) {
+			return super.addAll(c);
+		}
+
+		Object[] union = new Object[this.size + c.size()];
+		int length = 0;
+		Node node = this.root == NIL ? NIL : this.min(this.root);
+
+		for (E other : c) {
+			while (node != NIL && node.element.compareTo(other) < 0) {
+				union[length++] = node.element;
+				node = this.successor(node);
+			}
+
+			if (node != NIL && node.element.compareTo(other) == 0) {
+				node = this.successor(node);
+			}
+
+			union[length++] = other;
+		}
+
+		for (; node != NIL; node = this.successor(node)) {
+			union[length++] = node.element;
+		}
+
+		if (length == this.size) {
+			return false;
+		}
+
+		this.rebuild(union, length);
+		return true;
+	}
+
+	/*
+	 * Every element of this tree must be visited anyway, so with another
+	 * search tree, this is always a merge.
+	 *
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		if (!(c instanceof SearchTree<?>)) {
+			return super.retainAll(c);
+		}
+
+		return this.retainByMerge(c, true);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractSet#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		if (!(c instanceof SearchTree<?>) || !this.prefersMerge(c.size())) {
+			return super.removeAll(c);
+		}
+
+		return this.retainByMerge(c, false);
+	}
+
 	@Override
 	public void clear() {
 		this.root = NIL;
@@ -356,6 +675,36 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		}
 	}
 
+	/**
+	 * Remove and return the minimum element, with a single descent. This takes O(lg N) time.
+	 * @return the former minimum element, or null if the tree is empty.
+	 */
+	public E pollMinimum() {
+		return this.root == NIL ? null : this.poll(this.min(this.root));
+	}
+
+	/**
+	 * Remove and return the maximum element, with a single descent. This takes O(lg N) time.
+	 * @return the former maximum element, or null if the tree is empty.
+	 */
+	public E pollMaximum() {
+		return this.root == NIL ? null : this.poll(this.max(this.root));
+	}
+
+	/**
+	 * Find the greatest element strictly less than the given element.
+	 *
+	 * @param element the upper bound (exclusive).
+	 * @return the greatest element less than the bound, or null if there is none.
+	 */
+	E lower(E element) {
+		Node node = this.ceiling(element);
+
+		node = node == NIL ? (this.root == NIL ? NIL : this.max(this.root)) : this.predecessor(node);
+
+		return node == NIL ? null : node.element;
+	}
+
 	@Override
 	public int height() {
 		if (this.heightCalculatedModificationCount != this.modificationCount) {
@@ -366,18 +715,305 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		return this.height;
 	}
 	
+	/*
+	 * The probes are sorted, and then resolved in a single descent: at each node,
+	 * the sorted range of probes is split into the ones less than, equal to and
+	 * greater than the element of the node, and the outer parts continue into the
+	 * left and right subtrees. The upper levels of the tree are thus visited once
+	 * per batch, not once per probe. Large batches are cut into chunks of consecutive
+	 * sorted probes, resolved in parallel; the tree must not be modified meanwhile.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#containsBatch(java.lang.Comparable[])
+	 */
+	@Override
+	public BitSet containsBatch(E[] probes) {
+		E[] sorted = probes.clone();
+		boolean[] sortedFound = new boolean[sorted.length];
+		boolean parallel = sorted.length >= PARALLEL_BATCH_THRESHOLD;
+
+		if (parallel) {
+			Arrays.parallelSort(sorted);
+
+			int chunks = (sorted.length + PARALLEL_BATCH_CHUNK - 1) / PARALLEL_BATCH_CHUNK;
+
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int from = chunk * PARALLEL_BATCH_CHUNK;
+				int to = Math.min(sorted.length, from + PARALLEL_BATCH_CHUNK);
+
+				this.resolveBatch(this.root, sorted, from, to, sortedFound);
+			});
+		} else {
+			Arrays.sort(sorted);
+			this.resolveBatch(this.root, sorted, 0, sorted.length, sortedFound);
+		}
+
+		BitSet found = new BitSet(probes.length);
+
+		for (int i = 0; i < probes.length; i++) {
+			if (sortedFound[Arrays.binarySearch(sorted, probes[i])]) {
+				found.set(i);
+			}
+		}
+
+		return found;
+	}
+
+	/*
+	 * A delta large compared to this tree is merged with it in a single in-order
+	 * walk, and the tree rebuilt in O(N + K) time. Otherwise, the removed elements
+	 * are deleted one by one, and the added ones inserted in increasing order, each
+	 * starting from the node of the one before: climbing from there only as far as
+	 * the first subtree which can hold the new element, and descending again. For
+	 * elements close together, this costs O(lg D) rather than O(lg N) per insertion,
+	 * where D is the distance from the previous element.
+	 *
+	 * (non-Javadoc)
+	 * @see com.safkanyazilim.util.SearchTree#applyDelta(com.safkanyazilim.util.SearchTreeDelta)
+	 */
+	@Override
+	public void applyDelta(SearchTreeDelta<E> delta) {
+		if (delta.isEmpty()) {
+			return;
+		} else if (this.prefersMerge(delta.size())) {
+			this.mergeDelta(delta.getAdded(), delta.getRemoved());
+			return;
+		}
+
+		int removed = 0;
+		int added = 0;
+
+		for (E element : delta.getRemoved()) {
+			Node node = this.find(element);
+
+			if (node != NIL) {
+				this.delete(node);
+				removed++;
+			}
+		}
+
+		Node finger = this.root;
+
+		for (E element : delta.getAdded()) {
+			Node start = finger;
+
+			while (start != this.root && !(start == start.parent.left && element.compareTo(start.parent.element) < 0)) {
+				start = start.parent;
+			}
+
+			Node node = this.insertBelow(start, element);
+
+			if (node != NIL) {
+				finger = node;
+				added++;
+			}
+		}
+
+		if (removed + added > 0) {
+			this.size += added - removed;
+			this.modificationCount++;
+		}
+	}
+
+	/**
+	 * <p>Returns an immutable copy of this tree, which does not use any node
+	 * objects. See {@link FrozenSearchTree}. This takes O(N) time.
+	 * </p>
+	 *
+	 * <p>The returned tree is independent of this one; later changes to this
+	 * tree are not reflected in it.
+	 * </p>
+	 *
+	 * @return a frozen copy of this tree.
+	 */
+	public FrozenSearchTree<E> freeze() {
+		return new FrozenSearchTree<E>(this.toArray());
+	}
+
 	@Override
 	public String toString() {
 		return this.root.toString();
-		
+
 	}
 	
 	// =============== Protected Methods =============== 
 
+	/**
+	 * Replace the contents of this tree with the given elements, building
+	 * a balanced tree in O(N) time.
+	 * @param sortedElements the new elements, in increasing order without duplicates.
+	 * @param length the number of elements to be taken from the array.
+	 */
+	protected void rebuild(Object[] sortedElements, int length) {
+		this.root = this.generateTreeFromSortedArray(sortedElements, length);
+		this.size = length;
+		this.modificationCount++;
+	}
+
+	/**
+	 * Decide whether a merge with an ordered collection of the given size is cheaper
+	 * than looking up or inserting its elements one by one, which takes O(M lg N).
+	 * @param otherSize the size of the other collection.
+	 * @return true if the merge should be used.
+	 */
+	protected boolean prefersMerge(int otherSize) {
+		return (long)otherSize * (32 - Integer.numberOfLeadingZeros(this.size)) >= this.size;
+	}
+
+	/**
+	 * Delete a node, and return its element.
+	 * @param node the node to be deleted, not NIL.
+	 * @return the element of the node.
+	 */
+	protected E poll(Node node) {
+		this.delete(node);
+		this.size--;
+		this.modificationCount++;
+
+		return node.element;
+	}
+
+	/**
+	 * Create a node, with NIL children and no element yet; a node keeping the normalized
+	 * key if the tree has a normalizer. Subclasses which keep additional data in their
+	 * nodes override this to create nodes of their own, and do not take a normalizer.
+	 * @param parent the parent of the node.
+	 * @param red the color of the node.
+	 * @return the new node.
+	 */
+	protected Node createNode(Node parent, boolean red) {
+		return this.normalizer == null ? new Node(parent, NIL, NIL, red) : new KeyedNode(parent, red);
+	}
+	
+	/**
+	 * Set the element of a new node, and its normalized key if the tree has a normalizer.
+	 * @param node the node.
+	 * @param element the element.
+	 * @param key the normalized key of the element.
+	 */
+	private void setElement(Node node, E element, long key) {
+		node.element = element;
+		
+		if (this.normalizer != null) {
+			((KeyedNode)node).key = key;
+		}
+	}
+
+	/**
+	 * <p>Recompute any data a subclass keeps in the given node about its subtree, such
+	 * as the number of elements in it, from the node itself and its children.
+	 * </p>
+	 *
+	 * <p>This is called whenever the children of a node change: for both nodes of a
+	 * rotation, lower one first; for every node on the path to the root after an
+	 * insertion or a deletion, if {@link #isAugmented()} is true; and for every node of a
+	 * rebuilt tree, children first. It is never called for NIL. This implementation
+	 * does nothing.
+	 * </p>
+	 *
+	 * @param node the node to be updated.
+	 */
+	protected void augment(Node node) {
+	}
+
+	/**
+	 * @return true if this tree keeps data about subtrees in its nodes, so that
+	 * {@link #augment(Node)} must be called along the whole path of an update.
+	 */
+	protected boolean isAugmented() {
+		return false;
+	}
+
+	/**
+	 * Call {@link #augment(Node)} for the given node and all its ancestors, if this
+	 * tree is augmented.
+	 * @param node the lowest node to be updated, may be NIL.
+	 */
+	protected void augmentPath(Node node) {
+		if (this.isAugmented()) {
+			for (; node != NIL; node = node.parent) {
+				this.augment(node);
+			}
+		}
+	}
+
+	/**
+	 * Merge sorted lists of elements to be added and removed with this tree, in a
+	 * single in-order walk, and rebuild it from the result. As when removing and then
+	 * adding one by one, an element in both lists ends up in the tree.
+	 * @param added the elements to be added, in increasing order.
+	 * @param removed the elements to be removed, in increasing order.
+	 */
+	protected void mergeDelta(List<E> added, List<E> removed) {
+		Object[] merged = new Object[this.size + added.size()];
+		int length = 0;
+		int i = 0;
+		int j = 0;
+		Node node = this.root == NIL ? NIL : this.min(this.root);
+
+		while (node != NIL || i < added.size()) {
+			int comparison = node == NIL ? 1 : i == added.size() ? -1 : node.element.compareTo(added.get(i));
+
+			if (comparison < 0) {
+				while (j < removed.size() && removed.get(j).compareTo(node.element) < 0) {
+					j++;
+				}
+
+				if (j == removed.size() || removed.get(j).compareTo(node.element) != 0) {
+					merged[length++] = node.element;
+				}
+
+				node = this.successor(node);
+			} else {
+				merged[length++] = added.get(i++);
+
+				if (comparison == 0) {
+					node = this.successor(node);
+				}
+			}
+		}
+
+		this.rebuild(merged, length);
+	}
+
+	/**
+	 * Keep either the elements that are, or the ones that are not in the
+	 * given search tree, with a single merge.
+	 * @param c the search tree, whose elements come in increasing order.
+	 * @param retain true to keep the common elements, false to drop them.
+	 * @return true if this tree has changed.
+	 */
+	@SuppressWarnings("unchecked")
+	protected boolean retainByMerge(Collection<?> c, boolean retain) {
+		Object[] survivors = new Object[this.size];
+		int length = 0;
+		Iterator<?> others = c.iterator();
+		E other = others.hasNext() ? (E)others.next() : null;
+
+		for (Node node = this.root == NIL ? NIL : this.min(this.root); node != NIL; node = this.successor(node)) {
+			while (other != null && other.compareTo(node.element) < 0) {
+				other = others.hasNext() ? (E)others.next() : null;
+			}
+
+			boolean common = other != null && other.compareTo(node.element) == 0;
+
+			if (common == retain) {
+				survivors[length++] = node.element;
+			}
+		}
+
+		if (length == this.size) {
+			return false;
+		}
+
+		this.rebuild(survivors, length);
+		return true;
+	}
+
 	protected void updateHeight() {
-		if (this.root == NIL) {
-			this.height = 0;
-		} else {
+		this.height = 0;
+
+		if (this.root != NIL) {
 			this.updateHeightRecursively(this.root, 0);
 		}
 	}
@@ -410,9 +1046,10 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 	 */
 	protected Node find(E element) {
 		Node current = this.root;
+		long key = this.normalize(element);
 		
 		while (current != NIL) {
-			int comparison = current.element.compareTo(element);
+			int comparison = this.compare(current, element, key);
 
 			if (comparison == 0) {
 				return current;
@@ -433,88 +1070,260 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 	}
 
 	/**
-	 * Delete a node from the tree. This method will not touch
-	 * anything other than the tree structure.
-	 * @param node the node to be deleted from the tree.
+	 * Normalize the element, if the tree has a normalizer.
+	 * 
+	 * @param element the element.
+	 * @return the normalized key of the element, or 0 if the tree has no normalizer.
 	 */
+	protected long normalize(E element) {
+		return this.normalizer == null ? 0 : this.normalizer.applyAsLong(element);
+	}
 	
-	protected void delete(Node node) {
-		if (node.right == NIL && node.left == NIL) {
-			this.deleteNodeWithNoChild(node);
-		} else if (node.right == NIL ^ node.left == NIL) {
-			this.deleteNodeWithOneChild(node);
-		} else {
-			this.deleteNodeWithTwoChildren(node); 
+	/**
+	 * Compare the element of the node to the given element, deciding on the
+	 * normalized keys where they differ.
+	 * 
+	 * @param node the node.
+	 * @param element the element.
+	 * @param key the normalized key of the element.
+	 * @return a negative number, zero or a positive number, as the element of the node
+	 * is less than, equal to or greater than the given element.
+	 */
+	protected int compare(Node node, E element, long key) {
+		if (this.normalizer != null) {
+			long nodeKey = ((KeyedNode)node).key;
+			
+			if (nodeKey != key) {
+				return Long.compareUnsigned(nodeKey, key);
+			}
 		}
+		
+		return node.element.compareTo(element);
 	}
 	
 	/**
-	 * Delete a node from the tree. The node must have no
-	 * children.
-	 * @param node the node with no children to be deleted.
+	 * Find the node with the smallest element which is not less than
+	 * the given element.
+	 *
+	 * @param element the lower bound.
+	 * @return The node holding the lower bound, or NIL if all elements are less.
 	 */
-	protected void deleteNodeWithNoChild(Node node) {
-		if (node.parent == NIL) {
-			this.root = NIL;
-		} else if (node == node.parent.right) {
-			node.parent.right = NIL;
+	protected Node ceiling(E element) {
+		Node current = this.root;
+		long key = this.normalize(element);
+		Node candidate = NIL;
+
+		while (current != NIL) {
+			int comparison = this.compare(current, element, key);
+
+			if (comparison == 0) {
+				return current;
+			} else if (comparison > 0) {
+				candidate = current;
+				current = current.left;
+			} else {
+				current = current.right;
+			}
+		}
+
+		return candidate;
+	}
+
+	/**
+	 * Perform the given action on the elements from the given node onwards, in order,
+	 * stopping before the first element not less than the upper bound.
+	 *
+	 * @param node the node to start from, may be NIL.
+	 * @param to the upper bound (exclusive), or null for no bound.
+	 * @param action the action to be performed.
+	 * @throws ConcurrentModificationException if the action modifies the tree.
+	 */
+	protected void walk(Node node, E to, Consumer<? super E> action) {
+		int modificationCount = this.modificationCount;
+
+		while (node != NIL && (to == null || node.element.compareTo(to) < 0)) {
+			action.accept(node.element);
+
+			if (this.modificationCount != modificationCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			node = this.successor(node);
+		}
+	}
+
+	/**
+	 * Resolve the sorted probes in the given range against the subtree whose
+	 * head is the given node. This recurses to the left and loops to the right,
+	 * so the recursion is never deeper than the height of the tree.
+	 * @param node the head of the subtree.
+	 * @param sorted the probes, in increasing order.
+	 * @param from the start (inclusive) of the range of probes.
+	 * @param to the end (exclusive) of the range of probes.
+	 * @param found the flags of the sorted probes, set for the ones found.
+	 */
+	protected void resolveBatch(Node node, E[] sorted, int from, int to, boolean[] found) {
+		while (node != NIL && from < to) {
+			int low = from;
+			int high = to;
+
+			// Find the first probe not less than the element of the node.
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+
+				if (sorted[middle].compareTo(node.element) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+
+			int equalEnd = low;
+
+			while (equalEnd < to && sorted[equalEnd].compareTo(node.element) == 0) {
+				found[equalEnd++] = true;
+			}
+
+			this.resolveBatch(node.left, sorted, from, low, found);
+
+			node = node.right;
+			from = equalEnd;
+		}
+	}
+
+	/**
+	 * Delete a node from the tree, restoring the Red-Black properties
+	 * afterwards. This method will not touch anything other than the
+	 * tree structure.
+	 *
+	 * If the node has two children, its successor node is moved into its
+	 * place. Nodes are moved around, but never have their elements changed,
+	 * so a reference to any other node stays valid through a deletion.
+	 *
+	 * @param node the node to be deleted from the tree.
+	 */
+	protected void delete(Node node) {
+		Node replacement = node;
+		boolean removedRed = replacement.red;
+		Node child;
+
+		if (node.left == NIL) {
+			child = node.right;
+			this.transplant(node, node.right);
+		} else if (node.right == NIL) {
+			child = node.left;
+			this.transplant(node, node.left);
 		} else {
-			node.parent.left = NIL;
+			replacement = this.min(node.right);
+			removedRed = replacement.red;
+			child = replacement.right;
+
+			if (replacement.parent == node) {
+				child.parent = replacement;
+			} else {
+				this.transplant(replacement, replacement.right);
+				replacement.right = node.right;
+				replacement.right.parent = replacement;
+			}
+
+			this.transplant(node, replacement);
+			replacement.left = node.left;
+			replacement.left.parent = replacement;
+			replacement.red = node.red;
+		}
+
+		// The parent of the child is the lowest node whose subtree has changed.
+		this.augmentPath(child.parent);
+
+		if (!removedRed) {
+			this.deleteFixup(child);
 		}
+
+		// The fixup may have used the parent of NIL; do not keep a removed node reachable.
+		NIL.parent = null;
 	}
 
 	/**
-	 * Delete a node from the tree. The node must have one
-	 * and only one child.
-	 * @param node the node with one child to be deleted.
+	 * Replace the subtree rooted at one node with the subtree rooted at another.
+	 * The parent of the replacing node is set even if it is NIL, as the delete
+	 * fixup needs it.
+	 * @param node the node to be replaced.
+	 * @param replacement the replacing node, may be NIL.
 	 */
-	protected void deleteNodeWithOneChild(Node node) {
-		Node child = node.right == NIL ? node.left : node.right;
-		
+	protected void transplant(Node node, Node replacement) {
 		if (node.parent == NIL) {
-			this.root = child;
-			child.parent = NIL;
-		} else if (node == node.parent.right) {
-			node.parent.right = child;
-			child.parent = node.parent;
+			this.root = replacement;
+		} else if (node == node.parent.left) {
+			node.parent.left = replacement;
 		} else {
-			node.parent.left = child;
-			child.parent = node.parent;
+			node.parent.right = replacement;
 		}
+
+		replacement.parent = node.parent;
 	}
-	
-	/**
-	 * This handles the "hard case" of deleting a node, which is
-	 * when the node has two children. The algorithm is to choose 
-	 * either the predecessor or successor, swap values, and delete 
-	 * that instead. Here, to avoid bias and due to lack of any 
-	 * other information, predecessor-successor choice is done
-	 * by a coin-flip.
-	 * @param node the node with two children to be deleted.
-	 */
-	protected void deleteNodeWithTwoChildren(Node node) {
-		Node replacement;
-		
-		replacement = Math.random() < 0.5 ? this.predecessor(node) : this.successor(node);
-		
-		node.element = replacement.element;
-
-		/* Implementation note: This call looks recursive, but it is only so
-		 * for one level; this can not come back here again.
-		 * 
-		 * The reason is that, if a node has two children, its successor or
-		 * predecessor can not have two children since they are the right-subtree-minimum
-		 * and left-subtree-maximum elements, respectively.
-		 * 
-		 * They could though, potentially have no children.
-		 * 
-		 * Putting in another method just for the removal of such a node does
-		 * not make much sense. Hence the below call.
-		 */
-		
-		this.delete(replacement); 
+
+	protected void deleteFixup(Node node) {
+		while (node != this.root && !node.red) {
+			if (node == node.parent.left) {
+				Node sibling = node.parent.right;
+
+				if (sibling.red) {
+					sibling.red = false;
+					node.parent.red = true;
+					this.leftRotate(node.parent);
+					sibling = node.parent.right;
+				}
+
+				if (!sibling.left.red && !sibling.right.red) {
+					sibling.red = true;
+					node = node.parent;
+				} else {
+					if (!sibling.right.red) {
+						sibling.left.red = false;
+						sibling.red = true;
+						this.rightRotate(sibling);
+						sibling = node.parent.right;
+					}
+
+					sibling.red = node.parent.red;
+					node.parent.red = false;
+					sibling.right.red = false;
+					this.leftRotate(node.parent);
+					node = this.root;
+				}
+			} else {
+				Node sibling = node.parent.left;
+
+				if (sibling.red) {
+					sibling.red = false;
+					node.parent.red = true;
+					this.rightRotate(node.parent);
+					sibling = node.parent.left;
+				}
+
+				if (!sibling.right.red && !sibling.left.red) {
+					sibling.red = true;
+					node = node.parent;
+				} else {
+					if (!sibling.left.red) {
+						sibling.right.red = false;
+						sibling.red = true;
+						this.leftRotate(sibling);
+						sibling = node.parent.left;
+					}
+
+					sibling.red = node.parent.red;
+					node.parent.red = false;
+					sibling.left.red = false;
+					this.rightRotate(node.parent);
+					node = this.root;
+				}
+			}
+		}
+
+		node.red = false;
 	}
-	
+
 	protected void insertFixup(Node node) {
 		while (node.parent.red) {
 			if (node.parent == node.parent.parent.left) {
@@ -559,33 +1368,54 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 	}
 	
 	protected boolean insert(E element) {
+		return this.insertBelow(this.root, element) != NIL;
+	}
+
+	/**
+	 * Insert an element, descending from the given node rather than the root. The
+	 * element must belong to the subtree of that node, that is, lie between the
+	 * elements of the nodes to its left and right in an in-order walk.
+	 * @param start the node to start descending from; the root when the tree is empty.
+	 * @param element the element to be inserted.
+	 * @return the new node, or NIL if the element is already in the tree.
+	 */
+	protected Node insertBelow(Node start, E element) {
+		long key = this.normalize(element);
+		
 		if (this.root == NIL) {
-			this.root = new Node(NIL);
-			this.root.element = element;
-			return true;
+			this.root = this.createNode(NIL, false);
+			this.setElement(this.root, element, key);
+			this.augment(this.root);
+			return this.root;
 		} else {
-			Node current = this.root;
+			Node current = start;
 			
 			while (true) {
-				int comparison = current.element.compareTo(element);
+				int comparison = this.compare(current, element, key);
 			
 				if (comparison == 0) {
-					return false;
+					return NIL;
 				} else if (comparison > 0) {
 					if (current.left == NIL) {
-						current.left = new Node(current, NIL, NIL, true);
-						current.left.element = element;
-						this.insertFixup(current.left);
-						return true;
+						Node node = this.createNode(current, true);
+						
+						this.setElement(node, element, key);
+						current.left = node;
+						this.augmentPath(node);
+						this.insertFixup(node);
+						return node;
 					} else {
 						current = current.left;
 					}
 				} else {
 					if (current.right == NIL) {
-						current.right = new Node(current, NIL, NIL, true);
-						current.right.element = element;
-						this.insertFixup(current.right);
-						return true;
+						Node node = this.createNode(current, true);
+						
+						this.setElement(node, element, key);
+						current.right = node;
+						this.augmentPath(node);
+						this.insertFixup(node);
+						return node;
 					} else {
 						current = current.right;
 					}
@@ -643,7 +1473,7 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 			if (node.right != NIL) {
 				return this.min(node.right);
 			} else {
-				while (node.parent != NIL && node.equals(node.parent.right)) {
+				while (node.parent != NIL && node == node.parent.right) {
 					node = node.parent;
 				}
 				
@@ -668,7 +1498,7 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 			if (node.left != NIL) {
 				return this.max(node.left);
 			} else {
-				while (node.parent != NIL && node.equals(node.parent.left)) {
+				while (node.parent != NIL && node == node.parent.left) {
 					node = node.parent;
 				}
 				
@@ -698,6 +1528,9 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		
 		y.left = x;
 		x.parent = y;
+		
+		this.augment(x);
+		this.augment(y);
 	}
 
 	protected void rightRotate(Node x) {
@@ -720,6 +1553,9 @@ public class RedBlackTree<E extends Comparable<E>> extends AbstractCollection<E>
 		
 		y.right = x;
 		x.parent = y;
+		
+		this.augment(x);
+		this.augment(y);
 	}
 
 
@@ -1,6 +1,12 @@
 package com.safkanyazilim.util;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * <p> This is the interface definition for a binary search tree.</p>
@@ -11,6 +17,13 @@ import java.util.Set;
  * Comparable<>. 
  * </p>
  * 
+ * <p> Implementations follow the contract of {@link Set} for equals() and
+ * hashCode(), so a search tree is equal to any set holding the same elements.
+ * Since all search trees are ordered by the natural ordering of their elements,
+ * two of them can be compared or combined with a single simultaneous in-order
+ * walk, and implementations are expected to take advantage of that.
+ * </p>
+ * 
  * <p> In addition, there are a few binary search tree functions that
  * are defined here.</p>
  * 
@@ -42,4 +55,125 @@ public interface SearchTree<E extends Comparable<E>> extends Set<E> {
 	 * @return the height of the tree.
 	 */
 	public int height();
+
+	/**
+	 * <p>Performs the given action for each element in the range [from, to), in
+	 * increasing order. Either bound may be null, in which case the range is not
+	 * bounded on that side.
+	 * </p>
+	 *
+	 * <p>This default implementation iterates from the minimum element. Implementations
+	 * are expected to start at the lower bound instead, taking O(h + k) time, where
+	 * k is the number of elements in the range.
+	 * </p>
+	 *
+	 * @param from the lower bound (inclusive) of the range, or null.
+	 * @param to the upper bound (exclusive) of the range, or null.
+	 * @param action the action to be performed for each element.
+	 */
+	public default void forEachInRange(E from, E to, Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+
+		for (E element : this) {
+			if (to != null && element.compareTo(to) >= 0) {
+				break;
+			} else if (from == null || element.compareTo(from) >= 0) {
+				action.accept(element);
+			}
+		}
+	}
+
+	/**
+	 * <p>Looks up a batch of elements at once. Bit i of the returned set is set if,
+	 * and only if, probes[i] is contained in this tree.
+	 * </p>
+	 *
+	 * <p>This default implementation calls {@link #contains(Object)} for each probe.
+	 * Implementations are expected to sort the probes and resolve them together,
+	 * sharing the work on the upper levels of the tree.
+	 * </p>
+	 *
+	 * @param probes the elements to be looked up; may not contain null.
+	 * @return the set of indices of the probes found in this tree.
+	 */
+	public default BitSet containsBatch(E[] probes) {
+		BitSet found = new BitSet(probes.length);
+
+		for (int i = 0; i < probes.length; i++) {
+			if (this.contains(Objects.requireNonNull(probes[i]))) {
+				found.set(i);
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * <p>Computes the difference between this tree and the other: the delta holds the
+	 * elements of the other tree which are not in this one as added, and the elements of
+	 * this tree which are not in the other as removed. Applying the delta to a tree equal
+	 * to this one makes it equal to the other.
+	 * </p>
+	 *
+	 * <p>Both trees are walked in order simultaneously, which takes O(N + M) time.
+	 * </p>
+	 *
+	 * @param other the tree to compare against.
+	 * @return the delta from this tree to the other.
+	 */
+	public default SearchTreeDelta<E> diff(SearchTree<E> other) {
+		List<E> added = new ArrayList<E>();
+		List<E> removed = new ArrayList<E>();
+		Iterator<E> mine = this.iterator();
+		Iterator<E> theirs = other.iterator();
+		E a = mine.hasNext() ? mine.next() : null;
+		E b = theirs.hasNext() ? theirs.next() : null;
+
+		while (a != null && b != null) {
+			int comparison = a.compareTo(b);
+
+			if (comparison < 0) {
+				removed.add(a);
+				a = mine.hasNext() ? mine.next() : null;
+			} else if (comparison > 0) {
+				added.add(b);
+				b = theirs.hasNext() ? theirs.next() : null;
+			} else {
+				a = mine.hasNext() ? mine.next() : null;
+				b = theirs.hasNext() ? theirs.next() : null;
+			}
+		}
+
+		for (; a != null; a = mine.hasNext() ? mine.next() : null) {
+			removed.add(a);
+		}
+
+		for (; b != null; b = theirs.hasNext() ? theirs.next() : null) {
+			added.add(b);
+		}
+
+		return new SearchTreeDelta<E>(added, removed);
+	}
+
+	/**
+	 * <p>Applies a delta to this tree: removes its removed elements, and adds its added
+	 * elements. Removed elements which are not in the tree, and added elements which
+	 * already are, are ignored.
+	 * </p>
+	 *
+	 * <p>This default implementation removes and adds the elements one by one.
+	 * Implementations are expected to take advantage of the elements being sorted.
+	 * </p>
+	 *
+	 * @param delta the delta to be applied.
+	 */
+	public default void applyDelta(SearchTreeDelta<E> delta) {
+		for (E element : delta.getRemoved()) {
+			this.remove(element);
+		}
+
+		for (E element : delta.getAdded()) {
+			this.add(element);
+		}
+	}
 }
@@ -0,0 +1,199 @@
+package com.safkanyazilim.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * <p> The difference between two search trees: the elements to be added to, and the
+ * elements to be removed from one of them to make it equal to the other. Both lists are
+ * in increasing order, and hold no duplicates. A delta is computed with
+ * {@link SearchTree#diff(SearchTree)}, and applied with {@link SearchTree#applyDelta(SearchTreeDelta)}.
+ * </p>
+ *
+ * <p> Deltas can be written to, and read from a binary stream, to replicate the contents
+ * of a tree between processes. Since the elements are sorted, each one is written
+ * relative to the one before it, using an {@link ElementCodec}.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type of the elements.
+ */
+public final class SearchTreeDelta<E extends Comparable<E>> {
+	private final List<E> added;
+	private final List<E> removed;
+
+	/**
+	 * Creates a new delta.
+	 * @param added the elements to be added, in strictly increasing order.
+	 * @param removed the elements to be removed, in strictly increasing order.
+	 * @throws IllegalArgumentException if either list is not in strictly increasing order.
+	 */
+	public SearchTreeDelta(List<E> added, List<E> removed) {
+		this.added = Collections.unmodifiableList(checkSorted(new ArrayList<E>(added)));
+		this.removed = Collections.unmodifiableList(checkSorted(new ArrayList<E>(removed)));
+	}
+
+	/**
+	 * @return the elements to be added, in increasing order.
+	 */
+	public List<E> getAdded() {
+		return this.added;
+	}
+
+	/**
+	 * @return the elements to be removed, in increasing order.
+	 */
+	public List<E> getRemoved() {
+		return this.removed;
+	}
+
+	/**
+	 * @return true if this delta neither adds nor removes any elements.
+	 */
+	public boolean isEmpty() {
+		return this.added.isEmpty() && this.removed.isEmpty();
+	}
+
+	/**
+	 * @return the total number of elements added and removed.
+	 */
+	public int size() {
+		return this.added.size() + this.removed.size();
+	}
+
+	/**
+	 * Writes this delta: the number of added elements followed by the elements, and
+	 * likewise for the removed elements.
+	 * @param out the output.
+	 * @param codec the codec for the elements.
+	 * @throws IOException if the output fails.
+	 */
+	public void write(DataOutput out, ElementCodec<E> codec) throws IOException {
+		writeList(this.added, out, codec);
+		writeList(this.removed, out, codec);
+	}
+
+	/**
+	 * Reads a delta written by {@link #write(DataOutput, ElementCodec)}.
+	 * @param <E> The type of the elements.
+	 * @param in the input.
+	 * @param codec the codec for the elements.
+	 * @return the delta read.
+	 * @throws IOException if the input fails.
+	 * @throws IllegalArgumentException if the elements read are not in increasing order.
+	 */
+	public static <E extends Comparable<E>> SearchTreeDelta<E> read(DataInput in, ElementCodec<E> codec) throws IOException {
+		List<E> added = readList(in, codec);
+		List<E> removed = readList(in, codec);
+
+		return new SearchTreeDelta<E>(added, removed);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		} else if (!(object instanceof SearchTreeDelta)) {
+			return false;
+		} else {
+			SearchTreeDelta<?> other = (SearchTreeDelta<?>)object;
+
+			return this.added.equals(other.added) && this.removed.equals(other.removed);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * this.added.hashCode() + this.removed.hashCode();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "+" + this.added + " -" + this.removed;
+	}
+
+	// =============== Private Methods ===============
+
+	private static <E extends Comparable<E>> List<E> checkSorted(List<E> elements) {
+		for (int i = 1; i < elements.size(); i++) {
+			if (elements.get(i - 1).compareTo(elements.get(i)) >= 0) {
+				throw new IllegalArgumentException("The elements of a delta must be in strictly increasing order.");
+			}
+		}
+
+		return elements;
+	}
+
+	private static <E> void writeList(List<E> elements, DataOutput out, ElementCodec<E> codec) throws IOException {
+		E previous = null;
+
+		writeVarLong(elements.size(), out);
+
+		for (E element : elements) {
+			codec.write(previous, element, out);
+			previous = element;
+		}
+	}
+
+	private static <E> List<E> readList(DataInput in, ElementCodec<E> codec) throws IOException {
+		long count = readVarLong(in);
+
+		if (count < 0 || count > Integer.MAX_VALUE) {
+			throw new IOException("Invalid element count: " + count);
+		}
+
+		List<E> elements = new ArrayList<E>((int)Math.min(count, 1024));
+		E previous = null;
+
+		for (long i = 0; i < count; i++) {
+			previous = codec.read(previous, in);
+			elements.add(previous);
+		}
+
+		return elements;
+	}
+
+	/*
+	 * Writes the value as an unsigned number, seven bits per byte, least significant first;
+	 * the high bit of each byte tells whether more bytes follow.
+	 */
+	static void writeVarLong(long value, DataOutput out) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int)(value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		out.writeByte((int)value);
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+
+			value |= (long)(b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+
+		throw new IOException("Malformed variable-length number.");
+	}
+}
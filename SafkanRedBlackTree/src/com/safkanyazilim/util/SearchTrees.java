@@ -0,0 +1,154 @@
+package com.safkanyazilim.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+
+/**
+ * <p> Static utilities for {@link SearchTree} implementations.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ */
+public final class SearchTrees {
+
+	/**
+	 * The elements collected by one thread: appended unsorted, and sorted
+	 * (without duplicates) once, when they meet the elements of another thread.
+	 */
+	private static final class Partial<E extends Comparable<E>> {
+		private Object[] elements = new Object[16];
+		private int length;
+		private boolean sorted = true;
+
+		void add(E element) {
+			Objects.requireNonNull(element, "Null elements not allowed.");
+
+			if (this.length == this.elements.length) {
+				this.elements = Arrays.copyOf(this.elements, Math.max(16, 2 * this.length));
+			}
+
+			this.elements[this.length++] = element;
+			this.sorted = this.length == 1;
+		}
+
+		@SuppressWarnings("unchecked")
+		void sort() {
+			if (!this.sorted) {
+				Arrays.sort(this.elements, 0, this.length);
+
+				int unique = 0;
+
+				for (int i = 0; i < this.length; i++) {
+					if (unique == 0 || ((E)this.elements[unique - 1]).compareTo((E)this.elements[i]) != 0) {
+						this.elements[unique++] = this.elements[i];
+					}
+				}
+
+				Arrays.fill(this.elements, unique, this.length, null);
+				this.length = unique;
+				this.sorted = true;
+			}
+		}
+
+		/*
+		 * A linear merge of the two sorted runs, keeping one of each pair of equal elements.
+		 */
+		@SuppressWarnings("unchecked")
+		Partial<E> merge(Partial<E> other) {
+			this.sort();
+			other.sort();
+
+			Partial<E> merged = new Partial<E>();
+			int i = 0;
+			int j = 0;
+			int length = 0;
+
+			merged.elements = new Object[this.length + other.length];
+
+			while (i < this.length && j < other.length) {
+				int comparison = ((E)this.elements[i]).compareTo((E)other.elements[j]);
+
+				if (comparison < 0) {
+					merged.elements[length++] = this.elements[i++];
+				} else if (comparison > 0) {
+					merged.elements[length++] = other.elements[j++];
+				} else {
+					merged.elements[length++] = this.elements[i++];
+					j++;
+				}
+			}
+
+			while (i < this.length) {
+				merged.elements[length++] = this.elements[i++];
+			}
+
+			while (j < other.length) {
+				merged.elements[length++] = other.elements[j++];
+			}
+
+			merged.length = length;
+
+			return merged;
+		}
+	}
+
+	private SearchTrees() {
+	}
+
+	/**
+	 * <p>Returns a Collector which collects the elements of a stream into a new
+	 * {@link RedBlackTree}, dropping duplicates.
+	 * </p>
+	 *
+	 * <p>Each thread of a parallel stream appends its elements to an array of its own;
+	 * the arrays are sorted in parallel when partial results are combined, merged
+	 * linearly, and the tree is built from the final sorted array in O(N) time, instead
+	 * of inserting the elements one by one in O(N lg N).
+	 * </p>
+	 *
+	 * @param <E> The type of the elements.
+	 * @return the Collector.
+	 */
+	public static <E extends Comparable<E>> Collector<E, ?, RedBlackTree<E>> toRedBlackTree() {
+		return toRedBlackTree(RedBlackTree::new);
+	}
+
+	/**
+	 * Returns a Collector which collects the elements of a stream into an empty
+	 * {@link RedBlackTree} provided by the given supplier, in the same way as
+	 * {@link #toRedBlackTree()}. This allows building, for instance, a tree with a normalizer.
+	 *
+	 * @param <E> The type of the elements.
+	 * @param treeSupplier the supplier of the tree, which must return an empty tree.
+	 * @return the Collector.
+	 */
+	public static <E extends Comparable<E>> Collector<E, ?, RedBlackTree<E>> toRedBlackTree(Supplier<RedBlackTree<E>> treeSupplier) {
+		Supplier<Partial<E>> supplier = Partial::new;
+		BiConsumer<Partial<E>, E> accumulator = Partial::add;
+		BinaryOperator<Partial<E>> combiner = Partial::merge;
+		Function<Partial<E>, RedBlackTree<E>> finisher = partial -> {
+			RedBlackTree<E> tree = treeSupplier.get();
+
+			if (!tree.isEmpty()) {
+				throw new IllegalArgumentException("The tree supplier must return an empty tree.");
+			}
+
+			partial.sort();
+			tree.rebuild(partial.elements, partial.length);
+
+			return tree;
+		};
+
+		// The result is a set, so the encounter order does not matter. This is not
+		// CONCURRENT: that would make all threads accumulate into one shared container,
+		// which would have to be synchronized, while separate containers merged
+		// afterwards keep every core busy without any locking.
+		return Collector.of(supplier, accumulator, combiner, finisher, Collector.Characteristics.UNORDERED);
+	}
+}
@@ -0,0 +1,151 @@
+package com.safkanyazilim.util;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+
+
+/**
+ * <p> Tracks quantiles, such as the median or the 99th percentile, of a sliding window
+ * of values, for instance the latencies of the most recent requests. Values enter the
+ * window with {@link #add(Comparable)}, and leave it, oldest first, with {@link #expire()},
+ * or automatically once the window is full, if it has a capacity.
+ * </p>
+ *
+ * <p> The values in the window are kept in an {@link OrderStatisticTree}, counting equal
+ * values as occurrences of one element, so adding, expiring and querying a quantile
+ * each take O(lg N) time, and the window is never sorted again.
+ * </p>
+ *
+ * @author Dr. Y. Safkan
+ *
+ * @param <E> The type of the values.
+ */
+public class SlidingWindowQuantiles<E extends Comparable<E>> {
+	private final int capacity;
+	private final ArrayDeque<E> window;
+	private final OrderStatisticTree<E> values;
+
+	/**
+	 * Construct a tracker whose window is unbounded; values leave it only through
+	 * {@link #expire()}.
+	 */
+	public SlidingWindowQuantiles() {
+		this.capacity = Integer.MAX_VALUE;
+		this.window = new ArrayDeque<E>();
+		this.values = new OrderStatisticTree<E>();
+	}
+
+	/**
+	 * Construct a tracker whose window holds at most the given number of values;
+	 * adding to a full window expires the oldest value.
+	 * @param capacity the maximum number of values in the window.
+	 * @throws IllegalArgumentException if the capacity is not positive.
+	 */
+	public SlidingWindowQuantiles(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+		}
+
+		this.capacity = capacity;
+		this.window = new ArrayDeque<E>(Math.min(capacity, 1024));
+		this.values = new OrderStatisticTree<E>();
+	}
+
+	/**
+	 * Add a value to the window.
+	 * @param value the value; may not be null.
+	 * @return the value expired to make room for this one, or null if none was.
+	 */
+	public E add(E value) {
+		Objects.requireNonNull(value, "Null values not allowed.");
+
+		E expired = this.window.size() == this.capacity ? this.expire() : null;
+
+		this.values.add(value, 1);
+		this.window.addLast(value);
+
+		return expired;
+	}
+
+	/**
+	 * Remove the oldest value from the window.
+	 * @return the removed value, or null if the window is empty.
+	 */
+	public E expire() {
+		E value = this.window.pollFirst();
+
+		if (value != null) {
+			this.values.remove(value, 1);
+		}
+
+		return value;
+	}
+
+	/**
+	 * @return the oldest value in the window, or null if the window is empty.
+	 */
+	public E oldest() {
+		return this.window.peekFirst();
+	}
+
+	/**
+	 * <p>Returns the q-quantile of the values in the window, using the nearest rank: the
+	 * smallest value such that at least a fraction q of the values are less than or equal
+	 * to it. Equal values are counted separately, so a value which makes up half of the
+	 * window is the median, even if all others are larger.
+	 * </p>
+	 *
+	 * @param q the fraction, from 0 to 1; 0.5 for the median, 0.99 for the 99th percentile.
+	 * @return the quantile, or null if the window is empty.
+	 * @throws IllegalArgumentException if q is not between 0 and 1.
+	 */
+	public E quantile(double q) {
+		if (!(q >= 0 && q <= 1)) {
+			throw new IllegalArgumentException("The quantile must be between 0 and 1: " + q);
+		} else if (this.window.isEmpty()) {
+			return null;
+		}
+
+		long rank = (long)Math.ceil(q * this.window.size());
+
+		return this.values.select(Math.max(rank, 1) - 1);
+	}
+
+	/**
+	 * @return the median of the values in the window, or null if the window is empty.
+	 */
+	public E median() {
+		return this.quantile(0.5);
+	}
+
+	/**
+	 * @param value a value; it need not be in the window.
+	 * @return the fraction of the values in the window which are less than the given
+	 * value, or zero if the window is empty.
+	 */
+	public double fractionBelow(E value) {
+		return this.window.isEmpty() ? 0 : (double)this.values.rank(value) / this.window.size();
+	}
+
+	/**
+	 * @return the number of values in the window.
+	 */
+	public int size() {
+		return this.window.size();
+	}
+
+	/**
+	 * @return true if the window is empty.
+	 */
+	public boolean isEmpty() {
+		return this.window.isEmpty();
+	}
+
+	/**
+	 * Remove all values from the window.
+	 */
+	public void clear() {
+		this.window.clear();
+		this.values.clear();
+	}
+}
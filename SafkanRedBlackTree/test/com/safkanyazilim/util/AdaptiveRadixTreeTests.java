@@ -0,0 +1,142 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class AdaptiveRadixTreeTests {
+
+	private static String randomString(Random random) {
+		char[] characters = new char[random.nextInt(6)];
+
+		for (int i = 0; i < characters.length; i++) {
+			characters[i] = random.nextInt(10) == 0 ? (char)(0xFF00 + random.nextInt(3)) : (char)('a' + random.nextInt(3));
+		}
+
+		return new String(characters);
+	}
+
+	@Test
+	public void testIntegersAgainstTreeSet() {
+		AdaptiveRadixTree<Integer> tree = new AdaptiveRadixTree<Integer>(KeyEncoder.INTEGER);
+		TreeSet<Integer> reference = new TreeSet<Integer>();
+		Random random = new Random(34);
+
+		for (int i = 0; i < 30000; i++) {
+			Integer value = random.nextInt(4000) - 2000;
+
+			if (random.nextInt(3) > 0 ^ i % 10000 > 6000) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+
+			assertEquals(reference.size(), tree.size());
+		}
+
+		assertArrayEquals(reference.toArray(), tree.toArray());
+		assertEquals(reference.first(), tree.minimum());
+		assertEquals(reference.last(), tree.maximum());
+	}
+
+	@Test
+	public void testLongs() {
+		AdaptiveRadixTree<Long> tree = new AdaptiveRadixTree<Long>(KeyEncoder.LONG);
+		TreeSet<Long> reference = new TreeSet<Long>();
+		Random random = new Random(34);
+
+		for (int i = 0; i < 5000; i++) {
+			Long value = random.nextLong();
+
+			assertEquals(reference.add(value), tree.add(value));
+		}
+
+		assertTrue(tree.add(Long.MIN_VALUE));
+		assertTrue(tree.add(Long.MAX_VALUE));
+		reference.add(Long.MIN_VALUE);
+		reference.add(Long.MAX_VALUE);
+
+		assertArrayEquals(reference.toArray(), tree.toArray());
+		assertTrue(tree.height() <= 8);
+	}
+
+	@Test
+	public void testStringsAgainstTreeSet() {
+		AdaptiveRadixTree<String> tree = new AdaptiveRadixTree<String>(KeyEncoder.STRING);
+		TreeSet<String> reference = new TreeSet<String>();
+		Random random = new Random(34);
+
+		for (int i = 0; i < 20000; i++) {
+			String value = randomString(random);
+
+			if (random.nextInt(3) > 0) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+
+			assertEquals(reference.contains(value), tree.contains(value));
+		}
+
+		assertEquals(reference.size(), tree.size());
+		assertArrayEquals(reference.toArray(), tree.toArray());
+
+		List<String> visited = new ArrayList<String>();
+
+		tree.forEachInRange("ab", "b", visited::add);
+		assertEquals(new ArrayList<String>(reference.subSet("ab", "b")), visited);
+	}
+
+	@Test
+	public void testNodeGrowthAndShrinking() {
+		AdaptiveRadixTree<Integer> tree = new AdaptiveRadixTree<Integer>(KeyEncoder.INTEGER);
+
+		for (int i = 0; i < 1000; i++) {
+			tree.add(i);
+		}
+
+		assertEquals(1000, tree.size());
+		assertEquals(2, tree.height());
+
+		for (int i = 999; i >= 1; i--) {
+			assertTrue(tree.remove(i));
+			assertEquals(i - 1, tree.maximum().intValue());
+		}
+
+		assertArrayEquals(new Object[] { 0 }, tree.toArray());
+		assertEquals(0, tree.height());
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		AdaptiveRadixTree<String> tree = new AdaptiveRadixTree<String>(KeyEncoder.STRING);
+
+		tree.addAll(Arrays.asList("", "a", "ab", "abc", "b", "ba", "bab"));
+
+		Iterator<String> iterator = tree.iterator();
+
+		while (iterator.hasNext()) {
+			if (iterator.next().length() % 2 == 1) {
+				iterator.remove();
+			}
+		}
+
+		assertArrayEquals(new Object[] { "", "ab", "ba" }, tree.toArray());
+		assertEquals("", tree.minimum());
+		assertEquals("ba", tree.maximum());
+	}
+}
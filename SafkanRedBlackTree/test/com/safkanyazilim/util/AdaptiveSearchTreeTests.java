@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class AdaptiveSearchTreeTests {
+
+	private static AdaptiveSearchTree<Integer> generateTree(int size) {
+		AdaptiveSearchTree<Integer> tree = new AdaptiveSearchTree<>(8, 4);
+
+		for (int i = size - 1; i >= 0; i--) {
+			tree.add(i);
+		}
+
+		return tree;
+	}
+
+	@Test
+	public void testSmallSet() {
+		AdaptiveSearchTree<Integer> tree = generateTree(8);
+
+		assertEquals(8, tree.size());
+		assertFalse(tree.add(3));
+		assertTrue(tree.contains(7));
+		assertFalse(tree.contains(8));
+		assertEquals(0, tree.minimum().intValue());
+		assertEquals(7, tree.maximum().intValue());
+		assertEquals(3, tree.height());
+		assertArrayEquals(new Object[] { 0, 1, 2, 3, 4, 5, 6, 7 }, tree.toArray());
+	}
+
+	@Test
+	public void testPromotionAndDemotion() {
+		AdaptiveSearchTree<Integer> tree = generateTree(20);
+
+		assertEquals(20, tree.size());
+		assertEquals(0, tree.minimum().intValue());
+		assertEquals(19, tree.maximum().intValue());
+
+		for (int i = 19; i >= 2; i--) {
+			assertTrue(tree.remove(i));
+			assertFalse(tree.contains(i));
+			assertEquals(i, tree.size());
+		}
+
+		assertArrayEquals(new Object[] { 0, 1 }, tree.toArray());
+	}
+
+	@Test
+	public void testIteratorRemoveAcrossDemotion() {
+		AdaptiveSearchTree<Integer> tree = generateTree(12);
+		Iterator<Integer> iterator = tree.iterator();
+		int visited = 0;
+
+		while (iterator.hasNext()) {
+			int element = iterator.next();
+			visited++;
+
+			if (element < 10) {
+				iterator.remove();
+			}
+		}
+
+		assertEquals(12, visited);
+		assertArrayEquals(new Object[] { 10, 11 }, tree.toArray());
+	}
+
+	@Test
+	public void testConcurrentModificationException() {
+		for (int size : new int[] { 6, 20 }) {
+			AdaptiveSearchTree<Integer> tree = generateTree(size);
+
+			try {
+				for (Integer i : tree) {
+					if (i == 3) {
+						tree.remove(0);
+					}
+				}
+
+				fail();
+			} catch (ConcurrentModificationException e) {
+
+			}
+		}
+	}
+
+	@Test
+	public void testRandomOperationsAgainstTreeSet() {
+		AdaptiveSearchTree<Integer> tree = new AdaptiveSearchTree<Integer>();
+		TreeSet<Integer> reference = new TreeSet<Integer>();
+		Random random = new Random(28);
+
+		for (int i = 0; i < 20000; i++) {
+			Integer value = random.nextInt(80);
+
+			if (random.nextInt(3) > 0 ^ i % 4000 > 2000) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+
+			assertEquals(reference.size(), tree.size());
+		}
+
+		assertArrayEquals(reference.toArray(), tree.toArray());
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.safkanyazilim.util.AddressablePriorityQueue.Handle;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class AddressablePriorityQueueTests {
+
+	@Test
+	public void testShortestPaths() {
+		Random random = new Random(43);
+		int nodes = 400;
+		List<List<int[]>> edges = new ArrayList<List<int[]>>();
+
+		for (int i = 0; i < nodes; i++) {
+			edges.add(new ArrayList<int[]>());
+
+			for (int j = 0; j < 5; j++) {
+				edges.get(i).add(new int[] { random.nextInt(nodes), 1 + random.nextInt(100) });
+			}
+		}
+
+		// Dijkstra with decrease-key.
+		double[] distance = new double[nodes];
+		List<Handle<Integer>> handles = new ArrayList<Handle<Integer>>();
+		AddressablePriorityQueue<Integer> queue = new AddressablePriorityQueue<Integer>();
+
+		for (int i = 0; i < nodes; i++) {
+			handles.add(queue.insert(i, i == 0 ? 0 : Double.POSITIVE_INFINITY));
+		}
+
+		while (!queue.isEmpty()) {
+			Handle<Integer> closest = queue.deleteMin();
+			int node = closest.getItem();
+
+			assertFalse(closest.isQueued());
+			distance[node] = closest.getPriority();
+
+			for (int[] edge : edges.get(node)) {
+				Handle<Integer> next = handles.get(edge[0]);
+
+				if (next.isQueued() && distance[node] + edge[1] < next.getPriority()) {
+					queue.decreaseKey(next, distance[node] + edge[1]);
+				}
+			}
+		}
+
+		// Bellman-Ford.
+		double[] expected = new double[nodes];
+
+		Arrays.fill(expected, Double.POSITIVE_INFINITY);
+		expected[0] = 0;
+
+		for (int round = 0; round < nodes; round++) {
+			for (int i = 0; i < nodes; i++) {
+				for (int[] edge : edges.get(i)) {
+					expected[edge[0]] = Math.min(expected[edge[0]], expected[i] + edge[1]);
+				}
+			}
+		}
+
+		assertArrayEquals(expected, distance, 0);
+	}
+
+	@Test
+	public void testHandles() {
+		AddressablePriorityQueue<String> queue = new AddressablePriorityQueue<String>();
+		Handle<String> a = queue.insert("a", 5);
+		Handle<String> b = queue.insert("b", 5);
+		Handle<String> c = queue.insert("c", 7);
+
+		assertSame(a, queue.minimum());
+
+		queue.decreaseKey(c, 5);
+		assertTrue(queue.remove(a));
+		assertFalse(queue.remove(a));
+		assertFalse(a.isQueued());
+		assertEquals(2, queue.size());
+
+		// Equal priorities leave in order of insertion.
+		assertSame(b, queue.deleteMin());
+		assertSame(c, queue.deleteMin());
+		assertNull(queue.deleteMin());
+
+		try {
+			queue.decreaseKey(c, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// The entry has left the queue.
+		}
+
+		Handle<String> d = queue.insert("d", 1);
+
+		try {
+			queue.decreaseKey(d, 2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Priorities may only decrease.
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class AggregatingRedBlackTreeTests {
+
+	@Test
+	public void testRangeSums() {
+		Random random = new Random(42);
+		AggregatingRedBlackTree<Integer, Long> tree = new AggregatingRedBlackTree<Integer, Long>(Integer::longValue, Long::sum, 0L);
+		TreeSet<Integer> reference = new TreeSet<Integer>();
+
+		for (int i = 0; i < 4000; i++) {
+			Integer value = random.nextInt(2000);
+
+			if (random.nextInt(3) > 0) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+
+			if (i % 20 == 0) {
+				int from = random.nextInt(2100) - 50;
+				int to = from + random.nextInt(500);
+
+				assertEquals(sum(reference.subSet(from, to)), tree.aggregate(from, to));
+				assertEquals(sum(reference.headSet(to)), tree.aggregate(null, to));
+				assertEquals(sum(reference.tailSet(from)), tree.aggregate(from, null));
+			}
+		}
+
+		assertEquals(sum(reference), tree.aggregate());
+
+		// Bulk removal rebuilds the tree, which must recompute the aggregates.
+		tree.removeIf(v -> v % 2 == 0);
+		reference.removeIf(v -> v % 2 == 0);
+		assertEquals(sum(reference), tree.aggregate());
+		assertEquals(sum(reference.subSet(100, 900)), tree.aggregate(100, 900));
+		assertEquals(Long.valueOf(0), tree.aggregate(900, 100));
+	}
+
+	@Test
+	public void testNonCommutativeAggregate() {
+		AggregatingRedBlackTree<String, String> tree = new AggregatingRedBlackTree<String, String>(s -> s, String::concat, "");
+
+		for (String s : "q w e r t y u i o p a s d f g h j k l z x c v b n m".split(" ")) {
+			tree.add(s);
+		}
+
+		assertEquals("abcdefghijklmnopqrstuvwxyz", tree.aggregate());
+		assertEquals("defghij", tree.aggregate("d", "k"));
+		assertEquals("xyz", tree.aggregate("w1", null));
+		assertEquals("", tree.aggregate("b", "b"));
+
+		AggregatingRedBlackTree<Integer, Integer> maxima = new AggregatingRedBlackTree<Integer, Integer>(v -> v % 100, Math::max, Integer.MIN_VALUE);
+
+		for (int i = 0; i < 1000; i += 7) {
+			maxima.add(i);
+		}
+
+		assertEquals(Integer.valueOf(98), maxima.aggregate(0, 200));
+		assertEquals(Integer.valueOf(59), maxima.aggregate(250, 260));
+	}
+
+	private static Long sum(Iterable<Integer> values) {
+		long sum = 0;
+
+		for (Integer value : values) {
+			sum += value;
+		}
+
+		return sum;
+	}
+}
@@ -211,6 +211,30 @@ public class BinarySearchTreeTests {
 		
 		assertEquals(6, balanced.height());
 	}
-	
-	
+
+	@Test
+	public void testIteratorRemoveEveryOther() {
+		// Deletion picks the predecessor or the successor at random, so repeat.
+		for (int round = 0; round < 50; round++) {
+			BinarySearchTree<Integer> tree = generateTree();
+			Iterator<Integer> iterator = tree.iterator();
+			boolean remove = false;
+			int visited = 0;
+
+			while (iterator.hasNext()) {
+				iterator.next();
+				visited++;
+
+				if (remove) {
+					iterator.remove();
+				}
+
+				remove = !remove;
+			}
+
+			assertEquals(14, visited);
+			assertArrayEquals(new Object[] { 6, 12, 30, 45, 55, 75, 85 }, tree.toArray());
+		}
+	}
+
 }
@@ -0,0 +1,100 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.safkanyazilim.util.BoundedRedBlackTree.EvictionPolicy;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class BoundedRedBlackTreeTests {
+
+	@Test
+	public void testTopK() {
+		Random random = new Random(42);
+
+		for (EvictionPolicy policy : EvictionPolicy.values()) {
+			BoundedRedBlackTree<Integer> tree = new BoundedRedBlackTree<Integer>(100, policy);
+			TreeSet<Integer> reference = new TreeSet<Integer>();
+
+			for (int i = 0; i < 20000; i++) {
+				Integer value = random.nextInt(50000);
+
+				if (i % 10 == 9) {
+					assertEquals(reference.remove(value), tree.remove(value));
+				} else {
+					boolean added = reference.add(value);
+
+					if (reference.size() > 100) {
+						Integer evicted = policy == EvictionPolicy.EVICT_MINIMUM ? reference.pollFirst() : reference.pollLast();
+
+						added &= !evicted.equals(value);
+					}
+
+					assertEquals(added, tree.add(value));
+				}
+
+				assertTrue(tree.size() <= 100);
+				assertEquals(policy == EvictionPolicy.EVICT_MINIMUM ? reference.first() : reference.last(), tree.boundary());
+			}
+
+			assertTrue(tree.isFull());
+			assertArrayEquals(reference.toArray(), tree.toArray());
+		}
+	}
+
+	@Test
+	public void testCollectorRespectsCapacity() {
+		BoundedRedBlackTree<Integer> largest = (BoundedRedBlackTree<Integer>) IntStream.range(0, 1000).boxed().parallel()
+				.collect(SearchTrees.toRedBlackTree(() -> new BoundedRedBlackTree<Integer>(10, EvictionPolicy.EVICT_MINIMUM)));
+
+		assertEquals(10, largest.size());
+		assertEquals(Integer.valueOf(990), largest.boundary());
+		assertArrayEquals(IntStream.range(990, 1000).boxed().toArray(), largest.toArray());
+
+		// The boundary must follow the rebuilt contents.
+		assertFalse(largest.add(500));
+		assertTrue(largest.add(1000));
+		assertEquals(Integer.valueOf(991), largest.boundary());
+
+		BoundedRedBlackTree<Integer> smallest = (BoundedRedBlackTree<Integer>) IntStream.range(0, 1000).boxed()
+				.collect(SearchTrees.toRedBlackTree(() -> new BoundedRedBlackTree<Integer>(10, EvictionPolicy.EVICT_MAXIMUM)));
+
+		assertArrayEquals(IntStream.range(0, 10).boxed().toArray(), smallest.toArray());
+		assertEquals(Integer.valueOf(9), smallest.boundary());
+	}
+
+	@Test
+	public void testBulkAdditionsRespectCapacity() {
+		BoundedRedBlackTree<Integer> tree = new BoundedRedBlackTree<Integer>(3, EvictionPolicy.EVICT_MAXIMUM);
+		RedBlackTree<Integer> other = new RedBlackTree<Integer>();
+
+		other.addAll(Arrays.asList(9, 2, 7, 4, 5));
+		assertTrue(tree.addAll(other));
+		assertArrayEquals(new Object[] { 2, 4, 5 }, tree.toArray());
+		assertFalse(tree.add(6));
+
+		tree.applyDelta(new SearchTreeDelta<Integer>(Arrays.asList(1, 3), Arrays.asList(2)));
+		assertArrayEquals(new Object[] { 1, 3, 4 }, tree.toArray());
+		assertEquals(Integer.valueOf(4), tree.boundary());
+
+		tree.clear();
+		assertNull(tree.boundary());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new BoundedRedBlackTree<Integer>(0, EvictionPolicy.EVICT_MINIMUM);
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class FrozenSearchTreeTests {
+
+	@Test
+	public void testFreezeAllSizes() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+
+		for (int size = 0; size < 70; size++) {
+			FrozenSearchTree<Integer> frozen = tree.freeze();
+
+			assertEquals(size, frozen.size());
+			assertArrayEquals(tree.toArray(), frozen.toArray());
+			assertEquals(tree.minimum(), frozen.minimum());
+			assertEquals(tree.maximum(), frozen.maximum());
+
+			for (int i = -1; i <= 2 * size + 1; i++) {
+				assertEquals(tree.contains(i), frozen.contains(i));
+			}
+
+			tree.add(2 * size);
+		}
+	}
+
+	@Test
+	public void testHeight() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+
+		for (int i = 0; i < 127; i++) {
+			tree.add(i);
+		}
+
+		assertEquals(6, tree.freeze().height());
+	}
+
+	@Test
+	public void testIndependentOfSource() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		tree.add(1);
+
+		FrozenSearchTree<Integer> frozen = tree.freeze();
+		tree.add(2);
+
+		assertEquals(1, frozen.size());
+		assertFalse(frozen.contains(2));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testAdd() {
+		new RedBlackTree<Integer>().freeze().add(1);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testRemove() {
+		new RedBlackTree<Integer>().freeze().remove(1);
+	}
+}
@@ -0,0 +1,321 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class LeftLeaningRedBlackTreeTests {
+
+	private LeftLeaningRedBlackTree<Integer> tree;
+
+	private static LeftLeaningRedBlackTree<Integer> generateTree() {
+		LeftLeaningRedBlackTree<Integer> tree = new LeftLeaningRedBlackTree<>();
+
+		tree.add(50);
+		tree.add(25);
+		tree.add(12);
+		tree.add(6);
+		tree.add(9);
+		tree.add(40);
+		tree.add(30);
+		tree.add(45);
+		tree.add(75);
+		tree.add(60);
+		tree.add(55);
+		tree.add(85);
+		tree.add(80);
+		tree.add(99);
+
+		return tree;
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		this.tree = generateTree();
+	}
+
+	@Test
+	public void testSize() {
+		assertEquals(14, tree.size());
+		assertFalse(tree.add(50));
+		assertEquals(14, tree.size());
+	}
+
+	@Test
+	public void testMinimum() {
+		assertEquals(6, tree.minimum().intValue());
+	}
+
+	@Test
+	public void testMaximum() {
+		assertEquals(99, tree.maximum().intValue());
+	}
+
+	@Test
+	public void testIteration() {
+		int sum = 0;
+		int count = 0;
+
+		for (Integer i : this.tree) {
+			sum += i;
+			count++;
+		}
+
+		assertEquals(671, sum);
+		assertEquals(14, count);
+	}
+
+	@Test
+	public void testOrderedWalk() {
+		int previous = Integer.MIN_VALUE;
+
+		for (Integer i : this.tree) {
+			assertTrue(previous < i);
+			previous = i;
+		}
+	}
+
+	@Test
+	public void testConcurrentModificationException() {
+		try {
+			for (Integer i : this.tree) {
+				if (i == 50) {
+					this.tree.remove(6);
+				}
+			}
+
+			fail();
+		} catch (ConcurrentModificationException e) {
+
+		}
+	}
+
+	@Test
+	public void testIteratorRemoveEveryOther() {
+		Iterator<Integer> iterator = this.tree.iterator();
+		boolean remove = true;
+		int visited = 0;
+
+		while (iterator.hasNext()) {
+			iterator.next();
+			visited++;
+
+			if (remove) {
+				iterator.remove();
+			}
+
+			remove = !remove;
+		}
+
+		assertEquals(14, visited);
+		assertEquals(7, this.tree.size());
+		assertArrayEquals(new Object[] { 9, 25, 40, 50, 60, 80, 99 }, this.tree.toArray());
+	}
+
+	@Test
+	public void testExhaustiveRemove() {
+		LeftLeaningRedBlackTree<Integer> fixedTree = generateTree();
+
+		for (Integer i : fixedTree) {
+			LeftLeaningRedBlackTree<Integer> tree = generateTree();
+
+			assertTrue(tree.remove(i));
+			assertFalse(tree.remove(i));
+			assertFalse(tree.contains(i));
+			assertEquals(13, tree.size());
+
+			for (Integer j : tree) {
+				assertNotEquals(i, j);
+ 			}
+		}
+	}
+
+	@Test
+	public void testInsertBalancing() {
+		LeftLeaningRedBlackTree<Integer> tree = new LeftLeaningRedBlackTree<Integer>();
+
+		for (int i = 0; i < 256; i++) {
+			tree.add(i);
+		}
+
+		assertTrue(tree.height() <= 16);
+	}
+
+	@Test
+	public void testRandomOperationsAgainstTreeSet() {
+		LeftLeaningRedBlackTree<Integer> tree = new LeftLeaningRedBlackTree<Integer>();
+		TreeSet<Integer> reference = new TreeSet<Integer>();
+		Random random = new Random(26);
+
+		for (int i = 0; i < 20000; i++) {
+			Integer value = random.nextInt(2000);
+
+			if (random.nextBoolean()) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+		}
+
+		assertEquals(reference.size(), tree.size());
+		assertArrayEquals(reference.toArray(), tree.toArray());
+		assertEquals(reference.first(), tree.minimum());
+		assertEquals(reference.last(), tree.maximum());
+		assertTrue(tree.height() <= 2 * (32 - Integer.numberOfLeadingZeros(tree.size())));
+	}
+
+	@Test
+	public void testForEach() {
+		List<Integer> visited = new ArrayList<Integer>();
+
+		this.tree.forEach(visited::add);
+
+		assertArrayEquals(this.tree.toArray(), visited.toArray());
+	}
+
+	@Test
+	public void testForEachFailureRestoresTree() {
+		List<Integer> visited = new ArrayList<Integer>();
+
+		try {
+			this.tree.forEach(i -> {
+				visited.add(i);
+
+				if (i == 45) {
+					throw new IllegalStateException();
+				}
+			});
+
+			fail();
+		} catch (IllegalStateException e) {
+
+		}
+
+		assertEquals(Arrays.asList(6, 9, 12, 25, 30, 40, 45), visited);
+		assertArrayEquals(generateTree().toArray(), this.tree.toArray());
+		assertTrue(this.tree.contains(99));
+		assertFalse(this.tree.contains(98));
+	}
+
+	@Test
+	public void testForEachAccessFromAction() {
+		try {
+			this.tree.forEach(i -> this.tree.contains(i - 1));
+			fail();
+		} catch (ConcurrentModificationException e) {
+
+		}
+
+		assertEquals(14, this.tree.size());
+		assertTrue(this.tree.add(100));
+	}
+
+	@Test
+	public void testForEachInRange() {
+		List<Integer> visited = new ArrayList<Integer>();
+
+		this.tree.forEachInRange(25, 60, visited::add);
+		assertEquals(Arrays.asList(25, 30, 40, 45, 50, 55), visited);
+
+		visited.clear();
+		this.tree.forEachInRange(26, null, visited::add);
+		assertEquals(Arrays.asList(30, 40, 45, 50, 55, 60, 75, 80, 85, 99), visited);
+	}
+
+	@Test
+	public void testSnapshotIterator() {
+		Object[] before = this.tree.toArray();
+		List<Integer> visited = new ArrayList<Integer>();
+		Iterator<Integer> iterator = this.tree.snapshotIterator();
+
+		while (iterator.hasNext()) {
+			Integer i = iterator.next();
+			visited.add(i);
+
+			// Churn the live tree while the snapshot is being read.
+			this.tree.remove(i);
+			this.tree.add(i + 1000);
+			this.tree.add(i - 1000);
+		}
+
+		assertArrayEquals(before, visited.toArray());
+		assertEquals(28, this.tree.size());
+		assertFalse(this.tree.contains(50));
+		assertTrue(this.tree.contains(1050));
+		assertTrue(this.tree.contains(-950));
+	}
+
+	@Test
+	public void testSnapshotsAgainstTreeSet() {
+		LeftLeaningRedBlackTree<Integer> tree = new LeftLeaningRedBlackTree<Integer>();
+		TreeSet<Integer> reference = new TreeSet<Integer>();
+		List<LeftLeaningRedBlackTree<Integer>.SnapshotIterator> snapshots = new ArrayList<>();
+		List<Object[]> expected = new ArrayList<Object[]>();
+		Random random = new Random(36);
+
+		for (int i = 0; i < 20000; i++) {
+			Integer value = random.nextInt(500);
+
+			if (random.nextBoolean()) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+
+			if (i % 4000 == 1000) {
+				snapshots.add(tree.snapshotIterator());
+				expected.add(reference.toArray());
+			}
+		}
+
+		assertArrayEquals(reference.toArray(), tree.toArray());
+
+		for (int i = 0; i < snapshots.size(); i++) {
+			List<Integer> visited = new ArrayList<Integer>();
+
+			snapshots.get(i).forEachRemaining(visited::add);
+			assertArrayEquals(expected.get(i), visited.toArray());
+		}
+
+		assertEquals(0, tree.openSnapshots);
+
+		// With no snapshots open, the Morris traversal is back in use.
+		List<Integer> visited = new ArrayList<Integer>();
+
+		tree.forEach(visited::add);
+		assertArrayEquals(reference.toArray(), visited.toArray());
+	}
+
+	@Test
+	public void testSnapshotIteratorRemoveAndClose() {
+		try (LeftLeaningRedBlackTree<Integer>.SnapshotIterator iterator = this.tree.snapshotIterator()) {
+			assertEquals(6, iterator.next().intValue());
+			iterator.remove();
+			assertEquals(9, iterator.next().intValue());
+		}
+
+		assertEquals(0, this.tree.openSnapshots);
+		assertEquals(13, this.tree.size());
+		assertFalse(this.tree.contains(6));
+		assertFalse(new LeftLeaningRedBlackTree<Integer>().snapshotIterator().hasNext());
+	}
+}
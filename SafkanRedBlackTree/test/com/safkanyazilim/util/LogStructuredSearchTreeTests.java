@@ -0,0 +1,254 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class LogStructuredSearchTreeTests {
+
+	private Path directory;
+
+	private List<LogStructuredSearchTree<Integer>> trees = new ArrayList<LogStructuredSearchTree<Integer>>();
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		this.directory = Files.createTempDirectory("lsmtree");
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		for (LogStructuredSearchTree<Integer> tree : this.trees) {
+			tree.close();
+		}
+
+		assertEquals(0, this.runFiles());
+		Files.delete(this.directory);
+	}
+
+	private LogStructuredSearchTree<Integer> open(int memtableThreshold) throws IOException {
+		LogStructuredSearchTree<Integer> tree = new LogStructuredSearchTree<Integer>(this.directory, FixedWidthCodec.INTEGER, memtableThreshold);
+
+		this.trees.add(tree);
+
+		return tree;
+	}
+
+	private LogStructuredSearchTree<Integer> generateTree(int size) throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.open(4);
+
+		for (int i = 0; i < size; i++) {
+			tree.add(i * 2);
+		}
+
+		return tree;
+	}
+
+	private long runFiles() throws IOException {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.count();
+		}
+	}
+
+	@Test
+	public void testAddAcrossFlushes() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.generateTree(50);
+
+		tree.awaitCompaction();
+
+		assertEquals(50, tree.size());
+		assertTrue(tree.runCount() >= 1);
+		assertEquals(tree.runCount(), this.runFiles());
+		assertFalse(tree.add(10));
+		assertTrue(tree.contains(98));
+		assertFalse(tree.contains(99));
+		assertEquals(0, tree.minimum().intValue());
+		assertEquals(98, tree.maximum().intValue());
+	}
+
+	@Test
+	public void testTombstones() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.generateTree(50);
+
+		for (int i = 90; i < 100; i += 2) {
+			assertTrue(tree.remove(i));
+			assertFalse(tree.remove(i));
+		}
+
+		assertFalse(tree.contains(90));
+		assertEquals(88, tree.maximum().intValue());
+		assertEquals(45, tree.size());
+
+		assertTrue(tree.add(92));
+		assertTrue(tree.contains(92));
+		assertEquals(92, tree.maximum().intValue());
+
+		tree.compact();
+
+		assertEquals(1, tree.runCount());
+		assertEquals(46, tree.size());
+		assertEquals(46, tree.toArray().length);
+	}
+
+	@Test
+	public void testForEachInRange() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.generateTree(20);
+		List<Integer> visited = new ArrayList<Integer>();
+
+		tree.remove(14);
+		tree.forEachInRange(9, 20, visited::add);
+
+		assertEquals(Arrays.asList(10, 12, 16, 18), visited);
+	}
+
+	@Test
+	public void testIteratorRemove() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.generateTree(30);
+		Iterator<Integer> iterator = tree.iterator();
+		int visited = 0;
+
+		while (iterator.hasNext()) {
+			if (iterator.next() % 4 == 0) {
+				iterator.remove();
+			}
+
+			visited++;
+		}
+
+		assertEquals(30, visited);
+		assertEquals(15, tree.size());
+
+		for (Integer i : tree) {
+			assertEquals(2, i % 4);
+		}
+	}
+
+	@Test
+	public void testConcurrentModificationException() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.generateTree(30);
+
+		try {
+			for (Integer i : tree) {
+				if (i == 20) {
+					tree.add(1);
+				}
+			}
+
+			fail();
+		} catch (ConcurrentModificationException e) {
+
+		}
+	}
+
+	@Test
+	public void testRandomOperationsAgainstTreeSet() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.open(16);
+		TreeSet<Integer> reference = new TreeSet<Integer>();
+		Random random = new Random(32);
+
+		for (int i = 0; i < 20000; i++) {
+			Integer value = random.nextInt(1000);
+
+			if (random.nextInt(3) > 0 ^ i % 5000 > 2500) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+
+			assertEquals(reference.size(), tree.size());
+		}
+
+		assertArrayEquals(reference.toArray(), tree.toArray());
+		assertEquals(reference.first(), tree.minimum());
+		assertEquals(reference.last(), tree.maximum());
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(reference.contains(i), tree.contains(i));
+		}
+	}
+
+	@Test
+	public void testBackgroundCompaction() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.open(16);
+
+		for (int i = 0; i < 10000; i++) {
+			tree.add(i);
+		}
+
+		tree.awaitCompaction();
+
+		// Each run is larger than the one after it, so sizes at least double.
+		assertTrue(tree.runCount() <= 10);
+		assertEquals(tree.runCount(), this.runFiles());
+		assertEquals(10000, tree.size());
+		assertEquals(10000, tree.toArray().length);
+
+		for (int i = 0; i < 10000; i += 7) {
+			assertTrue(tree.contains(i));
+		}
+	}
+
+	@Test
+	public void testClearDeletesRuns() throws IOException {
+		LogStructuredSearchTree<Integer> tree = this.generateTree(40);
+
+		assertTrue(this.runFiles() > 0);
+
+		tree.clear();
+		tree.awaitCompaction();
+
+		assertEquals(0, tree.runCount());
+		assertEquals(0, this.runFiles());
+		assertTrue(tree.isEmpty());
+		assertTrue(tree.add(3));
+		assertEquals(Arrays.asList(3), new ArrayList<Integer>(tree));
+	}
+
+	@Test
+	public void testBloomFilterHasNoFalseNegatives() {
+		BloomFilter filter = new BloomFilter(1000);
+		int falsePositives = 0;
+
+		for (int i = 0; i < 1000; i++) {
+			filter.add(i);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(filter.mightContain(i));
+		}
+
+		for (int i = 1000; i < 11000; i++) {
+			if (filter.mightContain(i)) {
+				falsePositives++;
+			}
+		}
+
+		assertTrue(falsePositives < 300);
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class OrderStatisticTreeTests {
+
+	@Test
+	public void testSelectAndRankWithDuplicates() {
+		Random random = new Random(40);
+		OrderStatisticTree<Integer> tree = new OrderStatisticTree<Integer>();
+		List<Integer> reference = new ArrayList<Integer>();
+
+		for (int i = 0; i < 5000; i++) {
+			Integer value = random.nextInt(500);
+
+			if (random.nextInt(3) > 0) {
+				int occurrences = 1 + random.nextInt(3);
+
+				tree.add(value, occurrences);
+				reference.addAll(Collections.nCopies(occurrences, value));
+			} else {
+				long previous = tree.remove(value, 2);
+
+				assertEquals(Collections.frequency(reference, value), previous);
+				reference.remove(value);
+				reference.remove(value);
+			}
+		}
+
+		Collections.sort(reference);
+		assertEquals(reference.size(), tree.totalCount());
+		assertEquals(reference.stream().distinct().count(), tree.size());
+
+		for (int i = 0; i < reference.size(); i += 7) {
+			assertEquals(reference.get(i), tree.select(i));
+		}
+
+		for (int value = -1; value <= 500; value += 3) {
+			final int bound = value;
+
+			assertEquals(reference.stream().filter(v -> v < bound).count(), tree.rank(value));
+			assertEquals(Collections.frequency(reference, value), tree.count(value));
+		}
+	}
+
+	@Test
+	public void testSetOperationsKeepCounts() {
+		OrderStatisticTree<Integer> tree = new OrderStatisticTree<Integer>();
+
+		tree.add(1, 3);
+		tree.add(2, 2);
+		tree.add(3);
+		tree.add(4, 4);
+
+		RedBlackTree<Integer> other = new RedBlackTree<Integer>();
+
+		other.addAll(Arrays.asList(2, 4, 5));
+		tree.retainAll(other);
+		assertArrayEquals(new Object[] { 2, 4 }, tree.toArray());
+		assertEquals(6, tree.totalCount());
+
+		tree.addAll(other);
+		assertEquals(7, tree.totalCount());
+		assertEquals(4, tree.count(4));
+		assertEquals(Integer.valueOf(4), tree.select(5));
+
+		tree.remove(4);
+		assertEquals(3, tree.totalCount());
+		assertEquals(Integer.valueOf(5), tree.select(2));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testSelectOutOfRange() {
+		OrderStatisticTree<Integer> tree = new OrderStatisticTree<Integer>();
+
+		tree.add(1, 2);
+		tree.select(2);
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class PagedBPlusTreeTests {
+
+	private Path file;
+
+	/**
+	 * Small pages and a small pool, so that splits and evictions happen early.
+	 */
+	private PagedBPlusTree<Long> open() throws IOException {
+		return new PagedBPlusTree<Long>(this.file, FixedWidthCodec.LONG, 128, 8);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		this.file = Files.createTempFile("bplustree", ".db");
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(this.file);
+	}
+
+	@Test
+	public void testRandomOperationsAgainstTreeSet() throws IOException {
+		TreeSet<Long> reference = new TreeSet<Long>();
+		Random random = new Random(33);
+
+		try (PagedBPlusTree<Long> tree = this.open()) {
+			for (int i = 0; i < 20000; i++) {
+				Long value = (long)random.nextInt(5000);
+
+				if (random.nextInt(3) > 0) {
+					assertEquals(reference.add(value), tree.add(value));
+				} else {
+					assertEquals(reference.remove(value), tree.remove(value));
+				}
+			}
+
+			assertEquals(reference.size(), tree.size());
+			assertArrayEquals(reference.toArray(), tree.toArray());
+			assertEquals(reference.first(), tree.minimum());
+			assertEquals(reference.last(), tree.maximum());
+
+			for (long i = 0; i < 5000; i++) {
+				assertEquals(reference.contains(i), tree.contains(i));
+			}
+		}
+	}
+
+	@Test
+	public void testReopen() throws IOException {
+		try (PagedBPlusTree<Long> tree = this.open()) {
+			for (long i = 0; i < 1000; i++) {
+				tree.add(i * 3);
+			}
+		}
+
+		try (PagedBPlusTree<Long> tree = this.open()) {
+			assertEquals(1000, tree.size());
+			assertTrue(tree.contains(2997L));
+			assertFalse(tree.contains(2998L));
+			assertEquals(0L, tree.minimum().longValue());
+			assertEquals(2997L, tree.maximum().longValue());
+		}
+	}
+
+	@Test
+	public void testLookupReadsAtMostHeightPages() throws IOException {
+		try (PagedBPlusTree<Long> tree = this.open()) {
+			for (long i = 0; i < 5000; i++) {
+				tree.add(i);
+			}
+
+			Random random = new Random(33);
+
+			for (int i = 0; i < 100; i++) {
+				long reads = tree.pageReads();
+
+				assertTrue(tree.contains((long)random.nextInt(5000)));
+				assertTrue(tree.pageReads() - reads <= tree.height() + 1);
+			}
+
+			// A page used over and over stays in the pool.
+			tree.contains(42L);
+
+			long reads = tree.pageReads();
+
+			tree.contains(42L);
+			assertEquals(reads, tree.pageReads());
+		}
+	}
+
+	@Test
+	public void testRangeAndIteratorRemove() throws IOException {
+		try (PagedBPlusTree<Long> tree = this.open()) {
+			for (long i = 0; i < 300; i++) {
+				tree.add(i);
+			}
+
+			List<Long> visited = new ArrayList<Long>();
+
+			tree.forEachInRange(95L, 101L, visited::add);
+			assertEquals(Arrays.asList(95L, 96L, 97L, 98L, 99L, 100L), visited);
+
+			Iterator<Long> iterator = tree.iterator();
+
+			while (iterator.hasNext()) {
+				if (iterator.next() >= 10) {
+					iterator.remove();
+				}
+			}
+
+			assertEquals(10, tree.size());
+			assertEquals(9L, tree.maximum().longValue());
+
+			tree.clear();
+			assertTrue(tree.isEmpty());
+			assertNull(tree.maximum());
+			assertTrue(tree.add(7L));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMismatchedPageSize() throws IOException {
+		try (PagedBPlusTree<Long> tree = this.open()) {
+			tree.add(1L);
+		}
+
+		new PagedBPlusTree<Long>(this.file, FixedWidthCodec.LONG, 256, 8).close();
+	}
+}
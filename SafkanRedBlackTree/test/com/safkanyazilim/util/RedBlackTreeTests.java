@@ -5,8 +5,15 @@ package com.safkanyazilim.util;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -224,4 +231,288 @@ public class RedBlackTreeTests {
 	}
 
 	
+	@Test
+	public void testForEach() {
+		List<Integer> visited = new ArrayList<Integer>();
+
+		this.tree.forEach(visited::add);
+
+		assertArrayEquals(this.tree.toArray(), visited.toArray());
+	}
+
+	@Test
+	public void testForEachInRange() {
+		List<Integer> visited = new ArrayList<Integer>();
+
+		this.tree.forEachInRange(25, 60, visited::add);
+		assertEquals(Arrays.asList(25, 30, 40, 45, 50, 55), visited);
+
+		visited.clear();
+		this.tree.forEachInRange(26, null, visited::add);
+		assertEquals(Arrays.asList(30, 40, 45, 50, 55, 60, 75, 80, 85, 99), visited);
+
+		visited.clear();
+		this.tree.forEachInRange(null, 9, visited::add);
+		assertEquals(Arrays.asList(6), visited);
+
+		visited.clear();
+		this.tree.forEachInRange(100, 200, visited::add);
+		assertTrue(visited.isEmpty());
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testForEachConcurrentModification() {
+		this.tree.forEach(i -> this.tree.remove(99));
+	}
+
+	@Test
+	public void testRemoveIf() {
+		for (int remainder = 0; remainder < 3; remainder++) {
+			for (int attempt = 0; attempt < 20; attempt++) {
+				RedBlackTree<Integer> tree = generateTree();
+				List<Integer> expected = new ArrayList<Integer>();
+				int currentRemainder = remainder;
+
+				for (Integer i : tree) {
+					if (i % 3 != remainder) {
+						expected.add(i);
+					}
+				}
+
+				assertTrue(tree.removeIf(i -> i % 3 == currentRemainder));
+				assertFalse(tree.removeIf(i -> i % 3 == currentRemainder));
+				assertEquals(expected.size(), tree.size());
+				assertArrayEquals(expected.toArray(), tree.toArray());
+			}
+		}
+	}
+
+	@Test
+	public void testRandomOperationsAgainstTreeSet() {
+		Random random = new Random(29);
+
+		for (int round = 0; round < 10; round++) {
+			RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+			TreeSet<Integer> reference = new TreeSet<Integer>();
+
+			for (int i = 0; i < 5000; i++) {
+				Integer value = random.nextInt(1000);
+
+				if (random.nextBoolean()) {
+					assertEquals(reference.add(value), tree.add(value));
+				} else {
+					assertEquals(reference.remove(value), tree.remove(value));
+				}
+			}
+
+			// A copied tree must be a valid Red-Black Tree as well, so keep modifying it.
+			tree = new RedBlackTree<Integer>(tree);
+
+			for (int i = 0; i < 5000; i++) {
+				Integer value = random.nextInt(1000);
+
+				if (random.nextBoolean()) {
+					assertEquals(reference.add(value), tree.add(value));
+				} else {
+					assertEquals(reference.remove(value), tree.remove(value));
+				}
+			}
+
+			assertEquals(reference.size(), tree.size());
+			assertArrayEquals(reference.toArray(), tree.toArray());
+			assertTrue(tree.height() < 2 * (32 - Integer.numberOfLeadingZeros(tree.size() + 1)));
+		}
+	}
+
+	@Test
+	public void testSetEquality() {
+		RedBlackTree<Integer> other = new RedBlackTree<Integer>();
+
+		for (Integer i : new Integer[] { 99, 80, 85, 55, 60, 75, 45, 30, 40, 9, 6, 12, 25, 50 }) {
+			other.add(i);
+		}
+
+		HashSet<Integer> hashSet = new HashSet<Integer>(other);
+
+		assertEquals(this.tree, other);
+		assertEquals(this.tree, hashSet);
+		assertEquals(hashSet, this.tree);
+		assertEquals(hashSet.hashCode(), this.tree.hashCode());
+		assertEquals(other.hashCode(), this.tree.hashCode());
+
+		other.remove(50);
+		other.add(51);
+
+		assertNotEquals(this.tree, other);
+		assertNotEquals(this.tree, new LeftLeaningRedBlackTree<Integer>());
+	}
+
+	@Test
+	public void testMergeOperations() {
+		Random random = new Random(30);
+
+		for (int round = 0; round < 50; round++) {
+			RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+			LeftLeaningRedBlackTree<Integer> other = new LeftLeaningRedBlackTree<Integer>();
+			int otherSize = random.nextInt(200);
+
+			for (int i = 0; i < 200; i++) {
+				tree.add(random.nextInt(400));
+			}
+
+			for (int i = 0; i < otherSize; i++) {
+				other.add(random.nextInt(400));
+			}
+
+			TreeSet<Integer> reference = new TreeSet<Integer>(tree);
+
+			assertEquals(reference.containsAll(other), tree.containsAll(other));
+			assertTrue(tree.containsAll(new RedBlackTree<Integer>(tree)));
+
+			RedBlackTree<Integer> copy = new RedBlackTree<Integer>(tree);
+			TreeSet<Integer> expected = new TreeSet<Integer>(reference);
+			assertEquals(expected.addAll(other), copy.addAll(other));
+			assertArrayEquals(expected.toArray(), copy.toArray());
+			assertTrue(copy.containsAll(other));
+
+			copy = new RedBlackTree<Integer>(tree);
+			expected = new TreeSet<Integer>(reference);
+			assertEquals(expected.retainAll(other), copy.retainAll(other));
+			assertArrayEquals(expected.toArray(), copy.toArray());
+
+			copy = new RedBlackTree<Integer>(tree);
+			expected = new TreeSet<Integer>(reference);
+			assertEquals(expected.removeAll(other), copy.removeAll(other));
+			assertArrayEquals(expected.toArray(), copy.toArray());
+
+			// The rebuilt tree must still be a valid Red-Black Tree.
+			for (int i = 0; i < 400; i++) {
+				assertEquals(expected.remove(i), copy.remove(i));
+			}
+
+			assertTrue(copy.isEmpty());
+		}
+	}
+
+	@Test
+	public void testContainsBatch() {
+		Integer[] probes = { 99, 7, 50, 6, 50, 100, 12, -1 };
+		BitSet found = this.tree.containsBatch(probes);
+
+		for (int i = 0; i < probes.length; i++) {
+			assertEquals(this.tree.contains(probes[i]), found.get(i));
+		}
+
+		assertEquals(5, found.cardinality());
+		assertTrue(new RedBlackTree<Integer>().containsBatch(probes).isEmpty());
+	}
+
+	@Test
+	public void testParallelContainsBatch() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		Random random = new Random(31);
+
+		for (int i = 0; i < 10000; i++) {
+			tree.add(random.nextInt(50000));
+		}
+
+		Integer[] probes = new Integer[RedBlackTree.PARALLEL_BATCH_THRESHOLD * 3 + 17];
+
+		for (int i = 0; i < probes.length; i++) {
+			probes[i] = random.nextInt(50000);
+		}
+
+		BitSet found = tree.containsBatch(probes);
+
+		for (int i = 0; i < probes.length; i++) {
+			assertEquals(tree.contains(probes[i]), found.get(i));
+		}
+	}
+
+	@Test
+	public void testNormalizedKeys() {
+		RedBlackTree<String> tree = new RedBlackTree<String>(NormalizedKeys::ofString);
+		TreeSet<String> reference = new TreeSet<String>();
+		Random random = new Random(35);
+		String[] prefixes = { "", "a", "ab", "abcd", "abcde", "b\uffff" };
+
+		for (int i = 0; i < 5000; i++) {
+			String value = prefixes[random.nextInt(prefixes.length)] + random.nextInt(50);
+
+			if (random.nextInt(3) > 0) {
+				assertEquals(reference.add(value), tree.add(value));
+			} else {
+				assertEquals(reference.remove(value), tree.remove(value));
+			}
+		}
+
+		assertArrayEquals(reference.toArray(), tree.toArray());
+
+		// Rebuilt trees keep the normalizer, and normalize their elements.
+		RedBlackTree<String> copy = new RedBlackTree<String>(tree);
+
+		for (String prefix : prefixes) {
+			for (int i = 0; i < 50; i++) {
+				assertEquals(reference.contains(prefix + i), copy.contains(prefix + i));
+				assertEquals(reference.add(prefix + i), copy.add(prefix + i));
+			}
+		}
+
+		assertArrayEquals(reference.toArray(), copy.toArray());
+
+		RedBlackTree<Long> numbers = new RedBlackTree<Long>(NormalizedKeys::ofLong);
+
+		numbers.addAll(Arrays.asList(5L, -3L, Long.MIN_VALUE, Long.MAX_VALUE, 0L));
+		assertArrayEquals(new Object[] { Long.MIN_VALUE, -3L, 0L, 5L, Long.MAX_VALUE }, numbers.toArray());
+	}
+
+	@Test
+	public void testRemoveIfInPlaceAndRebuild() {
+		Random random = new Random(38);
+
+		// Removing one in a hundred deletes in place, removing half rebuilds.
+		for (int divisor : new int[] { 100, 2 }) {
+			RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+			TreeSet<Integer> reference = new TreeSet<Integer>();
+
+			for (int i = 0; i < 3000; i++) {
+				Integer value = random.nextInt(10000);
+
+				tree.add(value);
+				reference.add(value);
+			}
+
+			assertEquals(reference.removeIf(i -> i % divisor == 0), tree.removeIf(i -> i % divisor == 0));
+			assertEquals(reference.size(), tree.size());
+			assertArrayEquals(reference.toArray(), tree.toArray());
+			assertFalse(tree.removeIf(i -> i % divisor == 0));
+
+			for (int i = 0; i < 3000; i++) {
+				Integer value = random.nextInt(10000);
+
+				if (random.nextBoolean()) {
+					assertEquals(reference.add(value), tree.add(value));
+				} else {
+					assertEquals(reference.remove(value), tree.remove(value));
+				}
+			}
+
+			assertArrayEquals(reference.toArray(), tree.toArray());
+		}
+	}
+
+	@Test
+	public void testPollMinimumAndMaximum() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+
+		assertNull(tree.pollMinimum());
+		tree.addAll(Arrays.asList(4, 8, 1, 9, 3));
+
+		assertEquals(Integer.valueOf(1), tree.pollMinimum());
+		assertEquals(Integer.valueOf(9), tree.pollMaximum());
+		assertEquals(Integer.valueOf(3), tree.pollMinimum());
+		assertArrayEquals(new Object[] { 4, 8 }, tree.toArray());
+		assertEquals(2, tree.size());
+	}
+
 }
@@ -0,0 +1,123 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class SearchTreeDeltaTests {
+
+	@Test
+	public void testDiffAndApply() {
+		Random random = new Random(39);
+
+		// Small deltas are applied with finger insertions, large ones by a merge.
+		for (int changes : new int[] { 20, 2000 }) {
+			RedBlackTree<Integer> source = new RedBlackTree<Integer>();
+			RedBlackTree<Integer> target = new RedBlackTree<Integer>();
+
+			for (int i = 0; i < 5000; i++) {
+				Integer value = random.nextInt(20000);
+
+				source.add(value);
+				target.add(value);
+			}
+
+			for (int i = 0; i < changes; i++) {
+				Integer value = random.nextInt(20000);
+
+				if (!target.remove(value)) {
+					target.add(value);
+				}
+			}
+
+			SearchTreeDelta<Integer> delta = source.diff(target);
+			TreeSet<Integer> reference = new TreeSet<Integer>(source);
+
+			reference.removeAll(delta.getRemoved());
+			reference.addAll(delta.getAdded());
+			assertEquals(reference, target);
+
+			source.applyDelta(delta);
+			assertEquals(target.size(), source.size());
+			assertArrayEquals(target.toArray(), source.toArray());
+			assertTrue(source.diff(target).isEmpty());
+
+			for (int i = 0; i < 1000; i++) {
+				Integer value = random.nextInt(20000);
+
+				assertEquals(target.add(value), source.add(value));
+			}
+
+			assertArrayEquals(target.toArray(), source.toArray());
+		}
+	}
+
+	@Test
+	public void testApplyOverlappingDelta() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		SearchTreeDelta<Integer> delta = new SearchTreeDelta<Integer>(Arrays.asList(2, 4), Arrays.asList(2, 3, 5));
+
+		tree.addAll(Arrays.asList(1, 2, 3));
+		tree.applyDelta(delta);
+		assertArrayEquals(new Object[] { 1, 2, 4 }, tree.toArray());
+
+		LeftLeaningRedBlackTree<Integer> other = new LeftLeaningRedBlackTree<Integer>();
+
+		other.addAll(Arrays.asList(1, 2, 3));
+		other.applyDelta(delta);
+		assertArrayEquals(new Object[] { 1, 2, 4 }, other.toArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsortedDelta() {
+		new SearchTreeDelta<Integer>(Arrays.asList(3, 1), Collections.<Integer>emptyList());
+	}
+
+	@Test
+	public void testEncoding() throws IOException {
+		SearchTreeDelta<Integer> integers = new SearchTreeDelta<Integer>(Arrays.asList(Integer.MIN_VALUE, -7, 0, 1000000, Integer.MAX_VALUE), Arrays.asList(-1));
+		SearchTreeDelta<Long> longs = new SearchTreeDelta<Long>(Arrays.asList(Long.MIN_VALUE, 0L, Long.MAX_VALUE), Collections.<Long>emptyList());
+		SearchTreeDelta<String> strings = new SearchTreeDelta<String>(Arrays.asList("", "apple", "applesauce", "apply", "\u00e7\uffff"), Arrays.asList("banana"));
+
+		assertEquals(integers, roundTrip(integers, ElementCodec.INTEGER));
+		assertEquals(longs, roundTrip(longs, ElementCodec.LONG));
+		assertEquals(strings, roundTrip(strings, ElementCodec.STRING));
+
+		// Gaps of consecutive numbers take a byte each.
+		Integer[] consecutive = new Integer[1000];
+
+		for (int i = 0; i < consecutive.length; i++) {
+			consecutive[i] = 5000 + i;
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		new SearchTreeDelta<Integer>(Arrays.asList(consecutive), Collections.<Integer>emptyList()).write(new DataOutputStream(bytes), ElementCodec.INTEGER);
+		assertTrue(bytes.size() < 1020);
+	}
+
+	private static <E extends Comparable<E>> SearchTreeDelta<E> roundTrip(SearchTreeDelta<E> delta, ElementCodec<E> codec) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		delta.write(new DataOutputStream(bytes), codec);
+
+		return SearchTreeDelta.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), codec);
+	}
+}
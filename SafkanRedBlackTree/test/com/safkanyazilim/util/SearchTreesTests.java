@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class SearchTreesTests {
+
+	@Test
+	public void testParallelCollect() {
+		int[] values = new Random(37).ints(200000, 0, 100000).toArray();
+		TreeSet<Integer> reference = new TreeSet<Integer>();
+
+		for (int value : values) {
+			reference.add(value);
+		}
+
+		RedBlackTree<Integer> tree = IntStream.of(values).boxed().parallel().collect(SearchTrees.toRedBlackTree());
+
+		assertEquals(reference.size(), tree.size());
+		assertArrayEquals(reference.toArray(), tree.toArray());
+		assertTrue(tree.height() <= 2 * (32 - Integer.numberOfLeadingZeros(tree.size())));
+
+		// The result must be a valid tree, which keeps working.
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(reference.remove(values[i]), tree.remove(values[i]));
+		}
+
+		assertArrayEquals(reference.toArray(), tree.toArray());
+	}
+
+	@Test
+	public void testSequentialCollect() {
+		RedBlackTree<String> tree = Stream.of("b", "a", "c", "a").collect(SearchTrees.toRedBlackTree(() -> new RedBlackTree<String>(NormalizedKeys::ofString)));
+
+		assertArrayEquals(new Object[] { "a", "b", "c" }, tree.toArray());
+		assertTrue(tree.contains("c"));
+		assertTrue(Stream.<String>empty().collect(SearchTrees.toRedBlackTree()).isEmpty());
+	}
+
+	@Test
+	public void testNullElements() {
+		for (Stream<Integer> stream : Arrays.asList(Stream.of((Integer) null), Stream.of(1, null, 2), Stream.of(3, 1, null).parallel())) {
+			try {
+				stream.collect(SearchTrees.toRedBlackTree());
+				fail("Null elements should be rejected.");
+			} catch (NullPointerException e) {
+				// An exception of a worker thread may be rethrown as a copy, caused by the original.
+				Throwable original = e.getCause() instanceof NullPointerException ? e.getCause() : e;
+
+				assertEquals("Null elements not allowed.", original.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testCharacteristics() {
+		Collector<Integer, ?, RedBlackTree<Integer>> collector = SearchTrees.toRedBlackTree();
+
+		assertTrue(collector.characteristics().contains(Collector.Characteristics.UNORDERED));
+		assertFalse(collector.characteristics().contains(Collector.Characteristics.CONCURRENT));
+		assertFalse(collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH));
+	}
+}
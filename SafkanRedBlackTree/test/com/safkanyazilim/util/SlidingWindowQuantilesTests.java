@@ -0,0 +1,81 @@
+/**
+ *
+ */
+package com.safkanyazilim.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Dr. Y. Safkan
+ *
+ */
+public class SlidingWindowQuantilesTests {
+
+	@Test
+	public void testAgainstSortedWindow() {
+		Random random = new Random(41);
+		SlidingWindowQuantiles<Integer> quantiles = new SlidingWindowQuantiles<Integer>(300);
+		ArrayDeque<Integer> window = new ArrayDeque<Integer>();
+
+		for (int i = 0; i < 3000; i++) {
+			Integer value = random.nextInt(100);
+			Integer expired = window.size() == 300 ? window.pollFirst() : null;
+
+			window.addLast(value);
+			assertEquals(expired, quantiles.add(value));
+
+			if (i % 50 == 0) {
+				List<Integer> sorted = new ArrayList<Integer>(window);
+
+				Collections.sort(sorted);
+
+				for (double q : new double[] { 0, 0.5, 0.95, 0.99, 1 }) {
+					int index = Math.max(1, (int)Math.ceil(q * sorted.size())) - 1;
+
+					assertEquals(sorted.get(index), quantiles.quantile(q));
+				}
+			}
+		}
+
+		assertEquals(300, quantiles.size());
+		assertEquals(window.peekFirst(), quantiles.oldest());
+	}
+
+	@Test
+	public void testTiesAndExpiry() {
+		SlidingWindowQuantiles<Integer> quantiles = new SlidingWindowQuantiles<Integer>();
+
+		assertNull(quantiles.median());
+
+		for (int value : new int[] { 5, 5, 5, 9, 1 }) {
+			quantiles.add(value);
+		}
+
+		assertEquals(Integer.valueOf(5), quantiles.median());
+		assertEquals(Integer.valueOf(1), quantiles.quantile(0.2));
+		assertEquals(Integer.valueOf(5), quantiles.quantile(0.21));
+		assertEquals(0.2, quantiles.fractionBelow(5), 1e-9);
+
+		assertEquals(Integer.valueOf(5), quantiles.expire());
+		assertEquals(Integer.valueOf(5), quantiles.expire());
+		assertEquals(Integer.valueOf(5), quantiles.quantile(0.5));
+		assertEquals(Integer.valueOf(9), quantiles.quantile(0.9));
+
+		quantiles.clear();
+		assertNull(quantiles.expire());
+		assertTrue(quantiles.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidQuantile() {
+		new SlidingWindowQuantiles<Integer>(10).quantile(1.5);
+	}
+}
@@ -0,0 +1,167 @@
+package org.safkan.graph;
+
+/**
+ * <p>
+ * Options for {@link Graph#compile(CompilationOptions)}, selecting the preprocessing
+ * to be done on the compiled graph to speed up shortest path searches.
+ * </p>
+ *
+ * <p>
+ * By default, there is no preprocessing. Setters return the options, so they can be chained:
+ * <code>new CompilationOptions().setLandmarks(16, LandmarkStrategy.AVOID)</code>.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+public class CompilationOptions {
+
+	/**
+	 * How landmarks are chosen for ALT preprocessing.
+	 */
+	public static enum LandmarkStrategy {
+		/**
+		 * Each landmark is the node farthest from the landmarks chosen before it.
+		 */
+		FARTHEST,
+		/**
+		 * Each landmark is chosen in the region of the graph where the landmarks chosen
+		 * before it give the worst distance estimates.
+		 */
+		AVOID
+	}
+
+	private int landmarkCount;
+	private LandmarkStrategy landmarkStrategy;
+	private LandmarkTables landmarkTables;
+	private SearchMode searchMode;
+	private boolean contractionHierarchy;
+	private Heuristic heuristic;
+
+	/**
+	 * Create options with no preprocessing.
+	 */
+	public CompilationOptions() {
+		this.landmarkCount = 0;
+		this.landmarkStrategy = LandmarkStrategy.FARTHEST;
+		this.landmarkTables = null;
+		this.searchMode = SearchMode.UNIDIRECTIONAL;
+		this.contractionHierarchy = false;
+		this.heuristic = null;
+	}
+
+	/**
+	 * <p>
+	 * Request ALT preprocessing: the given number of landmarks are chosen, and the
+	 * distances from and to each landmark are computed for all nodes. Unidirectional
+	 * searches then use these distances, through the triangle inequality, as their
+	 * heuristic, together with any {@link Heuristic} they are given. This takes two single source searches per landmark:
+	 * those from the landmarks are made while choosing them, those to the landmarks
+	 * are run in parallel. It takes memory for two distances per landmark and node.
+	 * </p>
+	 * @param count the number of landmarks; zero for no ALT preprocessing.
+	 * @param strategy how the landmarks are chosen.
+	 * @return these options.
+	 * @throws IllegalArgumentException if the count is negative, or the strategy null.
+	 */
+	public CompilationOptions setLandmarks(int count, LandmarkStrategy strategy) {
+		if (count < 0) {
+			throw new IllegalArgumentException("The number of landmarks may not be negative: " + count);
+		}
+
+		if (strategy == null) {
+			throw new IllegalArgumentException("The landmark strategy may not be null.");
+		}
+
+		this.landmarkCount = count;
+		this.landmarkStrategy = strategy;
+		return this;
+	}
+
+	/**
+	 * Use landmark tables computed before, for instance by compiling the same graph and
+	 * saving its {@link CompiledGraph#getLandmarkTables()} with {@link LandmarkTables#write(java.io.DataOutput)},
+	 * instead of computing them again. This takes precedence over {@link #setLandmarks(int, LandmarkStrategy)}.
+	 * @param landmarkTables the tables, or null to compute them if requested.
+	 * @return these options.
+	 */
+	public CompilationOptions setLandmarkTables(LandmarkTables landmarkTables) {
+		this.landmarkTables = landmarkTables;
+		return this;
+	}
+
+	/**
+	 * Select how shortest paths are searched for when no {@link Heuristic} is given.
+	 * Searches with a heuristic are always unidirectional.
+	 * @param searchMode the search mode.
+	 * @return these options.
+	 * @throws IllegalArgumentException if the search mode is null.
+	 */
+	public CompilationOptions setSearchMode(SearchMode searchMode) {
+		if (searchMode == null) {
+			throw new IllegalArgumentException("The search mode may not be null.");
+		}
+
+		this.searchMode = searchMode;
+		return this;
+	}
+
+	/**
+	 * <p>
+	 * Request Contraction Hierarchies preprocessing: the nodes are ranked, and contracted
+	 * in the order of their rank, adding shortcut edges between their neighbors. Searches
+	 * without a {@link Heuristic} then only follow edges to nodes of higher rank, from
+	 * both ends at once, and settle a small fraction of the nodes other searches do; this
+	 * takes precedence over the search mode and landmarks. Round trips, whose target is
+	 * their starting node, are still searched for in the graph itself.
+	 * </p>
+	 *
+	 * <p>
+	 * Contraction takes much longer than the other preprocessing, though it is done in
+	 * parallel, and the shortcuts take about as much memory as the edges of the graph.
+	 * </p>
+	 * @param contractionHierarchy true to contract the graph.
+	 * @return these options.
+	 */
+	public CompilationOptions setContractionHierarchy(boolean contractionHierarchy) {
+		this.contractionHierarchy = contractionHierarchy;
+		return this;
+	}
+
+	/**
+	 * Give the graph a {@link Heuristic} for its unidirectional searches. The heuristic
+	 * is checked against every edge when the graph is compiled, and used by the searches
+	 * which do not name a heuristic of their own; searches may also name it explicitly,
+	 * or an equal one, but no other.
+	 * @param heuristic the heuristic, or null for none.
+	 * @return these options.
+	 */
+	public CompilationOptions setHeuristic(Heuristic heuristic) {
+		this.heuristic = heuristic == Heuristic.NONE ? null : heuristic;
+		return this;
+	}
+
+	public int getLandmarkCount() {
+		return this.landmarkCount;
+	}
+
+	public LandmarkStrategy getLandmarkStrategy() {
+		return this.landmarkStrategy;
+	}
+
+	public LandmarkTables getLandmarkTables() {
+		return this.landmarkTables;
+	}
+
+	public SearchMode getSearchMode() {
+		return this.searchMode;
+	}
+
+	public boolean isContractionHierarchy() {
+		return this.contractionHierarchy;
+	}
+
+	public Heuristic getHeuristic() {
+		return this.heuristic;
+	}
+}
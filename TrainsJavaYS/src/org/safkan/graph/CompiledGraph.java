@@ -70,7 +70,8 @@ public interface CompiledGraph {
 	
 	/**
 	 * <p>
-	 * Finds and returns the shortest path between two nodes.
+	 * Finds and returns the shortest path between two nodes, with the {@link Heuristic}
+	 * the graph was compiled with, if any.
 	 * Will return null if no path exists.
 	 * </p>
 	 * @param startingNode the starting node
@@ -90,6 +91,49 @@ public interface CompiledGraph {
 	 * @return the length of the shortest path. Null if no path exists.
 	 */
 	public Double findLengthOfShortestPath(Node startingNode, Node targetNode);
+	
+	/**
+	 * <p>
+	 * Finds and returns the shortest path between two nodes, using the given {@link Heuristic}
+	 * to search towards the target first, or without one. This finds the same distance
+	 * either way, usually settling far fewer nodes with the heuristic. The heuristic must
+	 * be the one given to {@link CompilationOptions#setHeuristic(Heuristic)}, or equal to it,
+	 * so that it has been checked against the edges when the graph was compiled.
+	 * Will return null if no path exists.
+	 * </p>
+	 * @param startingNode the starting node
+	 * @param targetNode the target node.
+	 * @param heuristic the heuristic; null for none.
+	 * @return the shortest path. Null if no path exists.
+	 * @throws IllegalArgumentException if the graph was not compiled with the heuristic.
+	 */
+	public Path findShortestPath(Node startingNode, Node targetNode, Heuristic heuristic);
+	
+	/**
+	 * <p>
+	 * Finds the shortest path between two nodes using the given {@link Heuristic}, which
+	 * must be the one the graph was compiled with, or none, as in
+	 * {@link #findShortestPath(Node, Node, Heuristic)}, and returns its length.
+	 * Will return null if no such path exists.
+	 * </p>
+	 * 
+	 * @param startingNode the starting node.
+	 * @param targetNode the target node.
+	 * @param heuristic the heuristic; null for none.
+	 * @return the length of the shortest path. Null if no path exists.
+	 * @throws IllegalArgumentException if the graph was not compiled with the heuristic.
+	 */
+	public Double findLengthOfShortestPath(Node startingNode, Node targetNode, Heuristic heuristic);
 
+	/**
+	 * <p>
+	 * Returns the landmark tables of ALT preprocessing, see {@link CompilationOptions#setLandmarks(int, CompilationOptions.LandmarkStrategy)}.
+	 * Unidirectional shortest path searches use them as their heuristic, together with any
+	 * {@link Heuristic} they are given. The tables can be saved, to compile the same graph again without
+	 * computing them.
+	 * </p>
+	 * @return the landmark tables, or null if the graph was compiled without landmarks.
+	 */
+	public LandmarkTables getLandmarkTables();
 
 }
@@ -1,10 +1,14 @@
 package org.safkan.graph;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.safkan.graph.util.PriorityQueue;
+import org.safkan.graph.util.IndexedDaryHeap;
 
 /**
  * <p>
@@ -16,29 +20,215 @@ import org.safkan.graph.util.PriorityQueue;
  */
 class CompiledGraphImplementation implements CompiledGraph {
 	private Graph graph;
-	private Map<String, CompiledNode> compiledNodeMap;
 	
-	CompiledNode  getCompiledNode(String nodeId) {
-		return this.compiledNodeMap.get(nodeId);
-	}
+	/**
+	 * The ordinal of each node, by id. Nodes are numbered densely from zero, in the
+	 * order of their ids, and all computations on the compiled graph use the ordinals.
+	 */
+	private Map<String, Integer> ordinals;
+	
+	/**
+	 * The id of each node, by ordinal.
+	 */
+	String[] ids;
+	
+	/**
+	 * Each node, by ordinal, as added to the graph, with its coordinates if it has any.
+	 */
+	Node[] nodes;
+	
+	/**
+	 * The edges, in compressed sparse row layout: the edges leaving node i are at
+	 * indices offsets[i] (inclusive) to offsets[i + 1] (exclusive) of targets and
+	 * weights, sorted by the ordinal of their target nodes.
+	 */
+	int[] offsets;
+	int[] targets;
+	double[] weights;
+	
+	/**
+	 * The reversed edges, in the same layout: the edges arriving at node i are at
+	 * indices reverseOffsets[i] (inclusive) to reverseOffsets[i + 1] (exclusive) of
+	 * sources and reverseWeights.
+	 */
+	int[] reverseOffsets;
+	int[] sources;
+	double[] reverseWeights;
+	
+	/**
+	 * The ALT preprocessing of this graph, or null if there is none.
+	 */
+	private LandmarkTables landmarkTables;
+	
+	/**
+	 * How searches without a heuristic are run.
+	 */
+	private SearchMode searchMode;
+	
+	/**
+	 * The Contraction Hierarchies preprocessing of this graph, or null if there is none.
+	 */
+	ContractionHierarchy contractionHierarchy;
+	
+	/**
+	 * The search state of each thread, so that threads can search this graph concurrently.
+	 */
+	ThreadLocal<SearchContext> searchContexts;
+	
+	/**
+	 * The heuristic given when compiling, which has been checked against the edges of
+	 * this graph, or null if there is none.
+	 */
+	private Heuristic heuristic;
 	
 	CompiledGraphImplementation(Graph graph) {
 		this.graph = graph;
-		this.compiledNodeMap = new HashMap<String, CompiledNode>();
+		this.ordinals = new HashMap<String, Integer>();
 	}
 	
-	void compile() {
-		for (Node node : this.graph.getNodes()) {
-			CompiledNode compiledNode = new CompiledNode(node);
-			this.compiledNodeMap.put(compiledNode.id, compiledNode);
+	/**
+	 * @param nodeId the id of a node.
+	 * @return the ordinal of the node, or -1 if it is not in the graph.
+	 */
+	int getOrdinal(String nodeId) {
+		Integer ordinal = this.ordinals.get(nodeId);
+		
+		return ordinal == null ? -1 : ordinal.intValue();
+	}
+	
+	/**
+	 * @param from the ordinal of the starting node.
+	 * @param to the ordinal of the ending node.
+	 * @return the index of the edge between the nodes, or a negative number if there is none.
+	 */
+	int findEdge(int from, int to) {
+		return Arrays.binarySearch(this.targets, this.offsets[from], this.offsets[from + 1], to);
+	}
+	
+	void compile(CompilationOptions options) {
+		List<Node> graphNodes = new ArrayList<Node>(this.graph.getNodes());
+		
+		Collections.sort(graphNodes, (a, b) -> a.getId().compareTo(b.getId()));
+		
+		this.nodes = graphNodes.toArray(new Node[graphNodes.size()]);
+		this.ids = new String[this.nodes.length];
+		
+		for (int i = 0; i < this.ids.length; i++) {
+			this.ids[i] = this.nodes[i].getId();
+			this.ordinals.put(this.ids[i], i);
+		}
+		
+		Set<Edge> edges = this.graph.getEdges();
+		int[] from = new int[edges.size()];
+		int[] to = new int[edges.size()];
+		double[] distances = new double[edges.size()];
+		int edgeCount = 0;
+		
+		this.offsets = new int[this.ids.length + 1];
+		
+		for (Edge edge : edges) {
+			from[edgeCount] = this.ordinals.get(edge.getFrom().getId());
+			to[edgeCount] = this.ordinals.get(edge.getTo().getId());
+			distances[edgeCount] = edge.getDistance();
+			this.offsets[from[edgeCount] + 1]++;
+			edgeCount++;
+		}
+		
+		for (int i = 0; i < this.ids.length; i++) {
+			this.offsets[i + 1] += this.offsets[i];
 		}
 		
-		for (Edge edge : this.graph.getEdges()) {
-			CompiledNode from = this.compiledNodeMap.get(edge.getFrom().getId());
-			CompiledNode to = this.compiledNodeMap.get(edge.getTo().getId());
+		// A counting sort by starting node, then each row is sorted by ending node.
+		int[] next = Arrays.copyOf(this.offsets, this.ids.length);
+		
+		this.targets = new int[edgeCount];
+		this.weights = new double[edgeCount];
+		
+		for (int i = 0; i < edgeCount; i++) {
+			int index = next[from[i]]++;
 			
-			from.links.put(to.id, edge.getDistance());
+			this.targets[index] = to[i];
+			this.weights[index] = distances[i];
+		}
+		
+		for (int node = 0; node < this.ids.length; node++) {
+			this.sortRow(this.offsets[node], this.offsets[node + 1]);
+		}
+		
+		// The reverse adjacency, by another counting sort, on the ending node.
+		this.reverseOffsets = new int[this.ids.length + 1];
+		this.sources = new int[edgeCount];
+		this.reverseWeights = new double[edgeCount];
+		
+		for (int i = 0; i < edgeCount; i++) {
+			this.reverseOffsets[this.targets[i] + 1]++;
+		}
+		
+		for (int i = 0; i < this.ids.length; i++) {
+			this.reverseOffsets[i + 1] += this.reverseOffsets[i];
+		}
+		
+		next = Arrays.copyOf(this.reverseOffsets, this.ids.length);
+		
+		for (int node = 0; node < this.ids.length; node++) {
+			for (int edge = this.offsets[node]; edge < this.offsets[node + 1]; edge++) {
+				int index = next[this.targets[edge]]++;
+				
+				this.sources[index] = node;
+				this.reverseWeights[index] = this.weights[edge];
+			}
+		}
+		
+		if (options.getHeuristic() != null) {
+			this.validateHeuristic(options.getHeuristic());
+			this.heuristic = options.getHeuristic();
+		}
+		
+		if (options.getLandmarkTables() != null) {
+			options.getLandmarkTables().checkGraph(this);
+			this.landmarkTables = options.getLandmarkTables();
+		} else if (options.getLandmarkCount() > 0) {
+			this.landmarkTables = LandmarkTables.compute(this, options.getLandmarkCount(), options.getLandmarkStrategy());
 		}
+		
+		if (this.landmarkTables != null && this.landmarkTables.getLandmarkCount() == 0) {
+			this.landmarkTables = null;
+		}
+		
+		this.searchMode = options.getSearchMode();
+		
+		if (options.isContractionHierarchy()) {
+			this.contractionHierarchy = ContractionHierarchy.build(this);
+		}
+		
+		int nodeCount = this.ids.length;
+		
+		this.searchContexts = ThreadLocal.withInitial(() -> new SearchContext(nodeCount));
+	}
+	
+	/*
+	 * Insertion sort of the edges in a row by target; rows are short.
+	 */
+	private void sortRow(int start, int end) {
+		for (int i = start + 1; i < end; i++) {
+			int target = this.targets[i];
+			double weight = this.weights[i];
+			int j = i - 1;
+			
+			while (j >= start && this.targets[j] > target) {
+				this.targets[j + 1] = this.targets[j];
+				this.weights[j + 1] = this.weights[j];
+				j--;
+			}
+			
+			this.targets[j + 1] = target;
+			this.weights[j + 1] = weight;
+		}
+	}
+	
+	@Override
+	public LandmarkTables getLandmarkTables() {
+		return this.landmarkTables;
 	}
 	
 	@Override
@@ -70,137 +260,420 @@ class CompiledGraphImplementation implements CompiledGraph {
 	public TraversedPath traverse(Path path) {
 		TraversedPath traversedPath = null;
 		
-		CompiledNode previousCompiledNode = null;
+		int previous = -1;
 		
 		for(Node node : path.nodes) {
-			CompiledNode compiledNode = this.compiledNodeMap.get(node.getId());
+			int current = this.getOrdinal(node.getId());
 			
-			if (compiledNode == null) {
+			if (current < 0) {
 				return null;
 			}
 			
-			if (previousCompiledNode == null) {
+			if (previous < 0) {
 				traversedPath = new TraversedPath(node);
 			} else {
 				
-				Double distance = previousCompiledNode.links.get(compiledNode.id);
+				int edge = this.findEdge(previous, current);
 				
-				if (distance == null) {
+				if (edge < 0) {
 					return null;
 				}
 				
-				traversedPath.addNode(distance.doubleValue(), node);
+				traversedPath.addNode(this.weights[edge], node);
 			}
 		
-			previousCompiledNode = compiledNode;
+			previous = current;
 		}
 		
 		return traversedPath;
 	}
 	
 	public Path findShortestPath(Node startingNode, Node targetNode) {
-		CompiledNode compiledNode = this.runAStar(startingNode, targetNode);
+		return this.findShortestPath(startingNode, targetNode, this.heuristic);
+	}
+
+	public Double findLengthOfShortestPath(Node startingNode, Node targetNode) {
+		return this.findLengthOfShortestPath(startingNode, targetNode, this.heuristic);
+	}
+	
+	public Path findShortestPath(Node startingNode, Node targetNode, Heuristic heuristic) {
+		SearchContext context = this.searchContexts.get();
 		
-		if (compiledNode == null) {
+		heuristic = this.checkHeuristic(heuristic);
+		
+		if (this.isContracted(startingNode, targetNode, heuristic)) {
+			if (!this.runContractionHierarchyQuery(context, startingNode, targetNode)) {
+				return null;
+			} else {
+				return this.contractionHierarchy.constructPath(context, this.nodes);
+			}
+		}
+		
+		if (this.isBidirectional(heuristic)) {
+			if (!this.runBidirectionalDijkstra(context, startingNode, targetNode)) {
+				return null;
+			} else {
+				return this.constructBidirectionalPath(context);
+			}
+		}
+		
+		if (!this.runAStar(context, startingNode, targetNode, heuristic)) {
 			return null;
 		} else {
-			return this.constructPath(compiledNode);
+			return this.constructPath(context, this.getOrdinal(targetNode.getId()));
 		}
 	}
 
-	public Double findLengthOfShortestPath(Node startingNode, Node targetNode) {
-		CompiledNode compiledNode = this.runAStar(startingNode, targetNode);
+	public Double findLengthOfShortestPath(Node startingNode, Node targetNode, Heuristic heuristic) {
+		SearchContext context = this.searchContexts.get();
+		
+		heuristic = this.checkHeuristic(heuristic);
+		
+		if (this.isContracted(startingNode, targetNode, heuristic)) {
+			if (!this.runContractionHierarchyQuery(context, startingNode, targetNode)) {
+				return null;
+			} else {
+				return context.meetingDistance;
+			}
+		}
+		
+		if (this.isBidirectional(heuristic)) {
+			if (!this.runBidirectionalDijkstra(context, startingNode, targetNode)) {
+				return null;
+			} else {
+				return context.meetingDistance;
+			}
+		}
 		
-		if (compiledNode == null) {
+		if (!this.runAStar(context, startingNode, targetNode, heuristic)) {
 			return null;
 		} else {
-			return compiledNode.g;
+			return context.getG(this.getOrdinal(targetNode.getId()));
+		}
+	}
+	
+	/*
+	 * Round trips are left to the other searches: the hierarchy only keeps the shortest
+	 * paths between different nodes.
+	 */
+	private boolean isContracted(Node startingNode, Node targetNode, Heuristic heuristic) {
+		return this.contractionHierarchy != null && heuristic == null
+				&& !startingNode.getId().equals(targetNode.getId());
+	}
+	
+	private boolean isBidirectional(Heuristic heuristic) {
+		return this.searchMode == SearchMode.BIDIRECTIONAL && heuristic == null;
+	}
+	
+	/**
+	 * @param heuristic the heuristic named by a search, or null.
+	 * @return the heuristic checked when compiling, or null if the search has none.
+	 * @throws IllegalArgumentException if the heuristic is not the one the graph was compiled with.
+	 */
+	private Heuristic checkHeuristic(Heuristic heuristic) {
+		if (heuristic == null || heuristic == Heuristic.NONE) {
+			return null;
+		} else if (!heuristic.equals(this.heuristic)) {
+			throw new IllegalArgumentException("The heuristic " + heuristic + " was not checked when the graph was compiled; "
+											   + "give it to CompilationOptions.setHeuristic().");
+		}
+		
+		return this.heuristic;
+	}
+	
+	/**
+	 * Check that the heuristic does not overestimate the distance of any edge. With the
+	 * triangle inequality, this makes the heuristic consistent, for any target.
+	 * A geometric heuristic estimates nodes without coordinates at zero, which breaks
+	 * the triangle inequality, so all nodes must have coordinates for it.
+	 * @param heuristic the heuristic.
+	 * @throws IllegalArgumentException if the heuristic overestimates an edge, or is
+	 * geometric and a node has no coordinates.
+	 */
+	private void validateHeuristic(Heuristic heuristic) {
+		if (heuristic instanceof GeometricHeuristic) {
+			for (Node node : this.nodes) {
+				if (!node.hasCoordinates()) {
+					throw new IllegalArgumentException("The heuristic " + heuristic + " needs coordinates, which the node " + node + " does not have.");
+				}
+			}
+		}
+		
+		for (int from = 0; from < this.nodes.length; from++) {
+			for (int edge = this.offsets[from]; edge < this.offsets[from + 1]; edge++) {
+				Node to = this.nodes[this.targets[edge]];
+				double estimate = heuristic.estimate(this.nodes[from], to);
+				
+				// Allow for rounding, when the edge is exactly as long as the estimate.
+				if (!(estimate >= 0.0) || estimate > this.weights[edge] * (1 + 1e-9) + 1e-12) {
+					throw new IllegalArgumentException("The heuristic is not admissible: it estimates the edge from " + this.nodes[from] 
+													   + " to " + to + " with distance " + this.weights[edge] + " as " + estimate);
+				}
+			}
 		}
 	}
 	
-	private CompiledNode runAStar(Node startingNode, Node targetNode) {
+	/**
+	 * Run a search in the given context, which holds its result afterwards.
+	 * @return true if the target node has been reached.
+	 */
+	private boolean runAStar(SearchContext context, Node startingNode, Node targetNode, Heuristic heuristic) {
 
-        CompiledNode start = this.compiledNodeMap.get(startingNode.getId());
+        int start = this.requireOrdinal(startingNode, "startingNode");
+        int goal = this.requireOrdinal(targetNode, "targetNode");
         
-        if (start == null) {
-        	throw new IllegalArgumentException("Graph does not contain node (startingNode) with id: " + startingNode.getId());
-        }
+        int[] offsets = this.offsets;
+        int[] targets = this.targets;
+        double[] weights = this.weights;
+        Node[] nodes = this.nodes;
+        LandmarkTables landmarks = this.landmarkTables;
         
-        CompiledNode goal = this.compiledNodeMap.get(targetNode.getId());
-
-        if (goal == null) {
-        	throw new IllegalArgumentException("Graph does not contain node (targetNode) with id: " + targetNode.getId());
-        }
+        context.begin();
         
-        PriorityQueue<CompiledNode> openQueue = new PriorityQueue<CompiledNode>();
-
-        for (CompiledNode node : this.compiledNodeMap.values()) {
-            node.f = Double.MAX_VALUE;
-            node.g = Double.MAX_VALUE;
-            node.h = 0.0F;
-            node.open = false;
-            node.closed = false;
-            node.cameFrom = null;
-        }
+        IndexedDaryHeap openQueue = context.openQueue;
 
-        start.g = 0.0;
-        start.f = start.g + start.h;
-        start.open = true;
+        context.touch(start, this.estimate(heuristic, landmarks, start, goal));
+        context.update(start, 0.0, -1);
 
-        openQueue.insertObjectWithPriority(start, start.f);
-        CompiledNode current;
-        while ((current = openQueue.popLowestPriority()) != null) {
+        openQueue.insert(start, context.getG(start) + context.getH(start));
+        
+        // On a round trip, the goal is popped first as the start, and is re-opened once,
+        // so that it may be reached again; any later pop of the goal ends the search,
+        // even over edges of zero length.
+        boolean roundTrip = start == goal;
+        int current;
+        while ((current = openQueue.deleteMinimum()) >= 0) {
 
-            current.open = false;
-            current.closed = true;
+            context.setSettled(current, true);
 
         	
             if (current == goal) {
-            	if (current.g > 0.0) {
-            		return goal;
+            	if (!roundTrip) {
+            		return true;
             	} else {
-            		current.closed = false;
+            		context.setSettled(current, false);
+            		roundTrip = false;
             	}
             }
 
+            double g = context.getG(current);
 
-            for (String neighborKey : current.links.keySet()) {
-            	CompiledNode neighbor = this.compiledNodeMap.get(neighborKey);
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+            	int neighbor = targets[edge];
             	
-                if (neighbor.closed) {
+                if (context.isSettled(neighbor)) {
                     continue;
                 }
 
-                double tentative_g = current.g + current.links.get(neighborKey) ;
+                if (!context.isTouched(neighbor)) {
+                	context.touch(neighbor, this.estimate(heuristic, landmarks, neighbor, goal));
+                }
+
+                double tentative_g = g + weights[edge];
+                boolean open = openQueue.contains(neighbor);
 
-                if (!neighbor.open || tentative_g < neighbor.g) {
-                    neighbor.cameFrom = current;
-                    neighbor.g  = tentative_g;
-                    
-                    neighbor.f = neighbor.g + neighbor.h;
+                if (!open || tentative_g < context.getG(neighbor)) {
+                    context.update(neighbor, tentative_g, current);
 
-                    if (!neighbor.open) {
-                        openQueue.insertObjectWithPriority(neighbor, neighbor.f);
-                        neighbor.open  = true;
-                        
+                    if (!open) {
+                        openQueue.insert(neighbor, tentative_g + context.getH(neighbor));
+                    } else {
+                        openQueue.decreaseKey(neighbor, tentative_g + context.getH(neighbor));
                     }
                 }
             }
         }
 
 
-        return null;
+        return false;
     }
 	
-	private Path constructPath(CompiledNode goal) {
+	/**
+	 * @param node a node.
+	 * @param name the name of the parameter holding the node, for the error message.
+	 * @return the ordinal of the node.
+	 * @throws IllegalArgumentException if the node is not in the graph.
+	 */
+	private int requireOrdinal(Node node, String name) {
+		int ordinal = this.getOrdinal(node.getId());
+		
+		if (ordinal < 0) {
+			throw new IllegalArgumentException("Graph does not contain node (" + name + ") with id: " + node.getId());
+		}
+		
+		return ordinal;
+	}
+	
+	/**
+	 * Run a query on the contraction hierarchy, see {@link ContractionHierarchy#query(SearchContext, int, int)}.
+	 * @return true if the target node has been reached.
+	 */
+	private boolean runContractionHierarchyQuery(SearchContext context, Node startingNode, Node targetNode) {
+		return this.contractionHierarchy.query(context, this.requireOrdinal(startingNode, "startingNode"), this.requireOrdinal(targetNode, "targetNode"));
+	}
+	
+	/**
+	 * <p>
+	 * Run a bidirectional Dijkstra search, forward from the starting node in the given
+	 * context, and backward from the target in its reverse context. Afterwards the context
+	 * holds the edge where the searches meet on the shortest path, and its length.
+	 * </p>
+	 * 
+	 * <p>
+	 * The shortest path is looked for among the paths with at least one edge, so that
+	 * a round trip, whose target is its starting node, is the shortest cycle through it,
+	 * as in {@link #runAStar(SearchContext, Node, Node, Heuristic)}. This follows from
+	 * taking the paths through each edge scanned by either search, but never the path
+	 * of length zero through the starting node: on a round trip, the forward search starts
+	 * at the starting node and the backward search at its copy, the target.
+	 * </p>
+	 * 
+	 * <p>
+	 * The search stops when the smallest keys of the two queues add up to the length of
+	 * the shortest path found so far; any shorter path would have to go through an edge
+	 * from a node settled by the forward search to one settled by the backward search,
+	 * and has been seen when the later of them was scanned.
+	 * </p>
+	 * @return true if the target node has been reached.
+	 */
+	private boolean runBidirectionalDijkstra(SearchContext forward, Node startingNode, Node targetNode) {
+		int start = this.requireOrdinal(startingNode, "startingNode");
+		int goal = this.requireOrdinal(targetNode, "targetNode");
+		
+		SearchContext backward = forward.getReverse();
+		
+		forward.begin();
+		backward.begin();
+		
+		forward.touch(start, 0.0);
+		forward.update(start, 0.0, -1);
+		forward.openQueue.insert(start, 0.0);
+		
+		backward.touch(goal, 0.0);
+		backward.update(goal, 0.0, -1);
+		backward.openQueue.insert(goal, 0.0);
+		
+		while (!forward.openQueue.isEmpty() && !backward.openQueue.isEmpty()) {
+			double forwardTop = forward.openQueue.getKey(forward.openQueue.peekMinimum());
+			double backwardTop = backward.openQueue.getKey(backward.openQueue.peekMinimum());
+			
+			if (forwardTop + backwardTop >= forward.meetingDistance) {
+				break;
+			}
+			
+			if (forwardTop <= backwardTop) {
+				this.scan(forward, backward, this.offsets, this.targets, this.weights, true);
+			} else {
+				this.scan(backward, forward, this.reverseOffsets, this.sources, this.reverseWeights, false);
+			}
+		}
+		
+		forward.settledCount += backward.settledCount;
+		
+		return forward.meetingFrom >= 0;
+	}
+	
+	/**
+	 * Settle the first node in the queue of one direction of a bidirectional search, and
+	 * relax its edges in that direction, recording any shorter path through them in the
+	 * forward context.
+	 * @param context the context of the direction.
+	 * @param other the context of the other direction.
+	 * @param offsets the offsets of the adjacency in the direction, forward or reverse.
+	 * @param adjacent the adjacent nodes.
+	 * @param weights the distances of the edges.
+	 * @param isForward true if this is the forward direction.
+	 */
+	private void scan(SearchContext context, SearchContext other, int[] offsets, int[] adjacent, double[] weights, boolean isForward) {
+		int current = context.openQueue.deleteMinimum();
+		double g = context.getG(current);
+		
+		context.setSettled(current, true);
+		
+		for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+			int neighbor = adjacent[edge];
+			double tentative_g = g + weights[edge];
+			
+			if (other.isTouched(neighbor)) {
+				SearchContext forward = isForward ? context : other;
+				double distance = tentative_g + other.getG(neighbor);
+				
+				if (distance < forward.meetingDistance) {
+					forward.meetingDistance = distance;
+					forward.meetingFrom = isForward ? current : neighbor;
+					forward.meetingTo = isForward ? neighbor : current;
+				}
+			}
+			
+			if (context.isSettled(neighbor)) {
+				continue;
+			}
+			
+			if (!context.isTouched(neighbor)) {
+				context.touch(neighbor, 0.0);
+			}
+			
+			if (tentative_g < context.getG(neighbor)) {
+				boolean open = context.openQueue.contains(neighbor);
+				
+				context.update(neighbor, tentative_g, current);
+				
+				if (!open) {
+					context.openQueue.insert(neighbor, tentative_g);
+				} else {
+					context.openQueue.decreaseKey(neighbor, tentative_g);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the larger of the estimates of the heuristic and the landmarks, either of which may be null.
+	 */
+	private double estimate(Heuristic heuristic, LandmarkTables landmarks, int node, int goal) {
+		double estimate = heuristic == null ? 0.0 : heuristic.estimate(this.nodes[node], this.nodes[goal]);
+		
+		if (landmarks != null) {
+			estimate = Math.max(estimate, landmarks.estimate(node, goal));
+		}
+		
+		return estimate;
+	}
+	
+	/*
+	 * The path of a bidirectional search: from the starting node to the meeting edge
+	 * along the forward search, then on to the target along the backward search.
+	 */
+	private Path constructBidirectionalPath(SearchContext context) {
+		Path path = new Path();
+		SearchContext backward = context.getReverse();
+		
+		for (int node = context.meetingFrom; node >= 0; node = context.getCameFrom(node)) {
+			path.addNodeToBeginning(this.nodes[node]);
+		}
+		
+		for (int node = context.meetingTo; node >= 0; node = backward.getCameFrom(node)) {
+			path.addNodeToEnd(this.nodes[node]);
+		}
+		
+		return path;
+	}
+	
+	private Path constructPath(SearchContext context, int goal) {
 
         Path path = new Path();
 
-        CompiledNode compiledNode;
+        path.addNodeToBeginning(this.nodes[goal]);
 
-        for (compiledNode = goal; compiledNode != null; compiledNode = compiledNode.cameFrom) {
-        	path.addNodeToBeginning(new Node(compiledNode.id));
+        // On a round trip, the start is the goal, and is reached again.
+        for (int node = context.getCameFrom(goal); node >= 0; node = context.getCameFrom(node)) {
+        	path.addNodeToBeginning(this.nodes[node]);
+        	
+        	if (node == goal) {
+        		break;
+        	}
         }
+        
         return path;
     }
 
@@ -0,0 +1,648 @@
+package org.safkan.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.safkan.graph.util.IndexedDaryHeap;
+
+/**
+ * <p>
+ * Contraction Hierarchies preprocessing of a {@link CompiledGraphImplementation}, and
+ * its shortest path query.
+ * </p>
+ *
+ * <p>
+ * Nodes are contracted one after the other, in the order of their rank: a contracted
+ * node is removed from the graph, and for each pair of its neighbors whose shortest
+ * path went through it, a shortcut edge replaces that path. The edges of a node at
+ * the time it is contracted, original or shortcut, all lead to nodes of higher rank.
+ * Between any two nodes, there is then a shortest path which first goes up in rank,
+ * then down, and a bidirectional search which only goes up from each end finds it,
+ * settling very few nodes.
+ * </p>
+ *
+ * <p>
+ * Nodes are ordered by their edge difference (the shortcuts their contraction adds,
+ * less the edges it removes), plus the number of their neighbors already contracted
+ * and the depth of the hierarchy below them, which spread the contraction evenly over
+ * the graph. In each round, all nodes ordered
+ * before their neighbors form an independent set, and are contracted in parallel: the
+ * witness searches, which look for a path avoiding a node to show that a shortcut is not
+ * needed, avoid the whole set, so the contractions do not depend on each other.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+final class ContractionHierarchy {
+	/**
+	 * The number of nodes a witness search may settle, before giving up and taking
+	 * the shortcut to be needed. A needless shortcut makes queries a little slower,
+	 * but never wrong. Priorities, which are computed far more often, are estimated
+	 * with shorter searches.
+	 */
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+	private static final int PRIORITY_WITNESS_SETTLE_LIMIT = 50;
+
+	/**
+	 * The rank of each node, by ordinal; nodes are contracted in order of rank.
+	 */
+	private final int[] rank;
+
+	/**
+	 * The upward edges, leaving each node to nodes of higher rank, in compressed
+	 * sparse row layout sorted by target, and the downward edges, arriving at each
+	 * node from nodes of higher rank, sorted by source. The middle of an edge is the
+	 * node the shortcut bypasses, or -1 if it is an edge of the graph.
+	 */
+	private final int[] upOffsets;
+	private final int[] upTargets;
+	private final double[] upWeights;
+	private final int[] upMiddles;
+
+	private final int[] downOffsets;
+	private final int[] downSources;
+	private final double[] downWeights;
+	private final int[] downMiddles;
+
+	private ContractionHierarchy(int[] rank, EdgeList[] up, EdgeList[] down) {
+		this.rank = rank;
+		this.upOffsets = new int[rank.length + 1];
+		this.downOffsets = new int[rank.length + 1];
+
+		for (int node = 0; node < rank.length; node++) {
+			this.upOffsets[node + 1] = this.upOffsets[node] + up[node].size;
+			this.downOffsets[node + 1] = this.downOffsets[node] + down[node].size;
+		}
+
+		this.upTargets = new int[this.upOffsets[rank.length]];
+		this.upWeights = new double[this.upTargets.length];
+		this.upMiddles = new int[this.upTargets.length];
+		this.downSources = new int[this.downOffsets[rank.length]];
+		this.downWeights = new double[this.downSources.length];
+		this.downMiddles = new int[this.downSources.length];
+
+		for (int node = 0; node < rank.length; node++) {
+			up[node].copySorted(this.upTargets, this.upWeights, this.upMiddles, this.upOffsets[node]);
+			down[node].copySorted(this.downSources, this.downWeights, this.downMiddles, this.downOffsets[node]);
+		}
+	}
+
+	/**
+	 * @return the number of shortcut edges added by the contraction.
+	 */
+	int getShortcutCount() {
+		int count = 0;
+
+		for (int middle : this.upMiddles) {
+			count += middle >= 0 ? 1 : 0;
+		}
+
+		for (int middle : this.downMiddles) {
+			count += middle >= 0 ? 1 : 0;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Contract the given graph.
+	 * @param graph the graph, whose adjacency must be compiled.
+	 * @return the contraction hierarchy.
+	 */
+	static ContractionHierarchy build(CompiledGraphImplementation graph) {
+		return new Contraction(graph).contract();
+	}
+
+	/**
+	 * <p>
+	 * Search for the shortest path between two different nodes, upward from the starting
+	 * node in the given context, and upward from the target along reversed edges in its
+	 * reverse context. Afterwards, the forward context holds the node where the searches
+	 * meet, as both ends of its meeting edge, and the length of the path.
+	 * </p>
+	 *
+	 * <p>
+	 * Each search stops when the smallest key in its queue is no less than the shortest
+	 * path found; the searches do not stop each other, since the highest node on the path
+	 * may be settled by either of them well after the other reached the other end.
+	 * </p>
+	 * @return true if the target has been reached.
+	 */
+	boolean query(SearchContext forward, int start, int goal) {
+		SearchContext backward = forward.getReverse();
+
+		forward.begin();
+		backward.begin();
+
+		forward.touch(start, 0.0);
+		forward.update(start, 0.0, -1);
+		forward.openQueue.insert(start, 0.0);
+
+		backward.touch(goal, 0.0);
+		backward.update(goal, 0.0, -1);
+		backward.openQueue.insert(goal, 0.0);
+
+		while (true) {
+			double forwardTop = forward.openQueue.isEmpty() ? Double.POSITIVE_INFINITY : forward.openQueue.getKey(forward.openQueue.peekMinimum());
+			double backwardTop = backward.openQueue.isEmpty() ? Double.POSITIVE_INFINITY : backward.openQueue.getKey(backward.openQueue.peekMinimum());
+
+			// Also stops when both queues are empty: both tops are infinite then, so this
+			// holds whether or not a meeting was found.
+			if (Math.min(forwardTop, backwardTop) >= forward.meetingDistance) {
+				break;
+			}
+
+			if (forwardTop <= backwardTop) {
+				this.scan(forward, backward, forward, this.upOffsets, this.upTargets, this.upWeights);
+			} else {
+				this.scan(backward, forward, forward, this.downOffsets, this.downSources, this.downWeights);
+			}
+		}
+
+		forward.settledCount += backward.settledCount;
+
+		return forward.meetingFrom >= 0;
+	}
+
+	private void scan(SearchContext context, SearchContext other, SearchContext forward, int[] offsets, int[] adjacent, double[] weights) {
+		int current = context.openQueue.deleteMinimum();
+		double g = context.getG(current);
+
+		context.setSettled(current, true);
+
+		if (other.isTouched(current) && g + other.getG(current) < forward.meetingDistance) {
+			forward.meetingDistance = g + other.getG(current);
+			forward.meetingFrom = current;
+			forward.meetingTo = current;
+		}
+
+		for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+			int neighbor = adjacent[edge];
+			double tentative_g = g + weights[edge];
+
+			if (context.isSettled(neighbor)) {
+				continue;
+			}
+
+			if (!context.isTouched(neighbor)) {
+				context.touch(neighbor, 0.0);
+			}
+
+			if (tentative_g < context.getG(neighbor)) {
+				boolean open = context.openQueue.contains(neighbor);
+
+				context.update(neighbor, tentative_g, current);
+
+				if (!open) {
+					context.openQueue.insert(neighbor, tentative_g);
+				} else {
+					context.openQueue.decreaseKey(neighbor, tentative_g);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Build the path found by {@link #query(SearchContext, int, int)}, unpacking its
+	 * shortcuts into the edges of the graph.
+	 * @param forward the forward context of the query.
+	 * @param nodes the nodes of the graph, by ordinal.
+	 * @return the path.
+	 */
+	Path constructPath(SearchContext forward, Node[] nodes) {
+		SearchContext backward = forward.getReverse();
+		List<Integer> hierarchyPath = new ArrayList<Integer>();
+
+		for (int node = forward.meetingFrom; node >= 0; node = forward.getCameFrom(node)) {
+			hierarchyPath.add(0, node);
+		}
+
+		for (int node = backward.getCameFrom(forward.meetingTo); node >= 0; node = backward.getCameFrom(node)) {
+			hierarchyPath.add(node);
+		}
+
+		Path path = new Path(nodes[hierarchyPath.get(0)]);
+		int[] stack = new int[8];
+
+		for (int i = 1; i < hierarchyPath.size(); i++) {
+			// A stack of edges still to unpack, from and to, the last one first in the path.
+			int size = 0;
+
+			stack[size++] = hierarchyPath.get(i - 1);
+			stack[size++] = hierarchyPath.get(i);
+
+			while (size > 0) {
+				int to = stack[--size];
+				int from = stack[--size];
+				int middle = this.findMiddle(from, to);
+
+				if (middle < 0) {
+					path.addNodeToEnd(nodes[to]);
+				} else {
+					if (size + 4 > stack.length) {
+						stack = Arrays.copyOf(stack, stack.length * 2);
+					}
+
+					stack[size++] = middle;
+					stack[size++] = to;
+					stack[size++] = from;
+					stack[size++] = middle;
+				}
+			}
+		}
+
+		return path;
+	}
+
+	/**
+	 * @return the middle node of the hierarchy edge between the given nodes, which must exist.
+	 */
+	private int findMiddle(int from, int to) {
+		if (this.rank[to] > this.rank[from]) {
+			return this.upMiddles[Arrays.binarySearch(this.upTargets, this.upOffsets[from], this.upOffsets[from + 1], to)];
+		} else {
+			return this.downMiddles[Arrays.binarySearch(this.downSources, this.downOffsets[to], this.downOffsets[to + 1], from)];
+		}
+	}
+
+	// =============== Contraction ===============
+
+	/**
+	 * The edges of a node during the contraction: neighbors, distances and middle nodes,
+	 * with at most one edge, the shortest, to each neighbor.
+	 */
+	private static final class EdgeList {
+		int[] nodes = new int[4];
+		double[] weights = new double[4];
+		int[] middles = new int[4];
+		int size = 0;
+
+		private int indexOf(int node) {
+			for (int i = 0; i < this.size; i++) {
+				if (this.nodes[i] == node) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		/**
+		 * Add an edge, unless there is a shorter or equal one to the same neighbor.
+		 */
+		void put(int node, double weight, int middle) {
+			int index = this.indexOf(node);
+
+			if (index < 0) {
+				if (this.size == this.nodes.length) {
+					this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+					this.weights = Arrays.copyOf(this.weights, this.size * 2);
+					this.middles = Arrays.copyOf(this.middles, this.size * 2);
+				}
+
+				index = this.size++;
+			} else if (this.weights[index] <= weight) {
+				return;
+			}
+
+			this.nodes[index] = node;
+			this.weights[index] = weight;
+			this.middles[index] = middle;
+		}
+
+		void remove(int node) {
+			int index = this.indexOf(node);
+
+			if (index >= 0) {
+				this.size--;
+				this.nodes[index] = this.nodes[this.size];
+				this.weights[index] = this.weights[this.size];
+				this.middles[index] = this.middles[this.size];
+			}
+		}
+
+		EdgeList copy() {
+			EdgeList copy = new EdgeList();
+
+			copy.nodes = Arrays.copyOf(this.nodes, this.size);
+			copy.weights = Arrays.copyOf(this.weights, this.size);
+			copy.middles = Arrays.copyOf(this.middles, this.size);
+			copy.size = this.size;
+			return copy;
+		}
+
+		/*
+		 * Copy the edges into the given arrays at the given offset, sorted by neighbor.
+		 */
+		void copySorted(int[] nodes, double[] weights, int[] middles, int offset) {
+			Integer[] order = new Integer[this.size];
+
+			for (int i = 0; i < this.size; i++) {
+				order[i] = i;
+			}
+
+			Arrays.sort(order, (a, b) -> Integer.compare(this.nodes[a], this.nodes[b]));
+
+			for (int i = 0; i < this.size; i++) {
+				nodes[offset + i] = this.nodes[order[i]];
+				weights[offset + i] = this.weights[order[i]];
+				middles[offset + i] = this.middles[order[i]];
+			}
+		}
+	}
+
+	/**
+	 * A bounded Dijkstra search from a neighbor of a node being contracted, looking for
+	 * paths to its other neighbors which avoid it. Each thread has one, reused with
+	 * generation stamps, like a {@link SearchContext}.
+	 */
+	private static final class WitnessSearch {
+		private final double[] distances;
+		private final int[] reached;
+		private final int[] targeted;
+		private final IndexedDaryHeap queue;
+		private int generation;
+
+		WitnessSearch(int nodeCount) {
+			this.distances = new double[nodeCount];
+			this.reached = new int[nodeCount];
+			this.targeted = new int[nodeCount];
+			this.queue = new IndexedDaryHeap(nodeCount);
+			this.generation = 0;
+		}
+
+		/**
+		 * @param out the edges of the graph.
+		 * @param source the node to search from.
+		 * @param targets the edges to the nodes to search for; the search stops once all are settled.
+		 * @param avoided the node being contracted.
+		 * @param avoidedSet the nodes being contracted together with it, or null.
+		 * @param maxDistance the distance beyond which paths are of no interest.
+		 * @param settleLimit the number of nodes to settle at most.
+		 */
+		void run(EdgeList[] out, int source, EdgeList targets, int avoided, boolean[] avoidedSet, double maxDistance, int settleLimit) {
+			this.queue.clear();
+			this.generation++;
+
+			if (this.generation == Integer.MAX_VALUE) {
+				Arrays.fill(this.reached, 0);
+				Arrays.fill(this.targeted, 0);
+				this.generation = 1;
+			}
+
+			int unsettledTargets = 0;
+
+			for (int i = 0; i < targets.size; i++) {
+				if (targets.nodes[i] != source) {
+					this.targeted[targets.nodes[i]] = this.generation;
+					unsettledTargets++;
+				}
+			}
+
+			this.reached[source] = this.generation;
+			this.distances[source] = 0.0;
+			this.queue.insert(source, 0.0);
+
+			int settled = 0;
+			int current;
+
+			while (settled < settleLimit && (current = this.queue.deleteMinimum()) >= 0) {
+				double distance = this.distances[current];
+
+				if (distance > maxDistance) {
+					break;
+				}
+
+				settled++;
+
+				if (this.targeted[current] == this.generation && --unsettledTargets == 0) {
+					break;
+				}
+
+				EdgeList edges = out[current];
+
+				for (int i = 0; i < edges.size; i++) {
+					int neighbor = edges.nodes[i];
+					double tentative = distance + edges.weights[i];
+
+					if (neighbor == avoided || (avoidedSet != null && avoidedSet[neighbor])) {
+						continue;
+					}
+
+					if (this.reached[neighbor] != this.generation) {
+						this.reached[neighbor] = this.generation;
+						this.distances[neighbor] = tentative;
+						this.queue.insert(neighbor, tentative);
+					} else if (tentative < this.distances[neighbor] && this.queue.contains(neighbor)) {
+						this.distances[neighbor] = tentative;
+						this.queue.decreaseKey(neighbor, tentative);
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return the distance found to the node, which may be longer than the shortest
+		 * if the node has not been settled; infinite if it has not been reached.
+		 */
+		double getDistance(int node) {
+			return this.reached[node] == this.generation ? this.distances[node] : Double.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * The state of the contraction of a graph.
+	 */
+	private static final class Contraction {
+		private final int nodeCount;
+		private final EdgeList[] out;
+		private final EdgeList[] in;
+		private final EdgeList[] up;
+		private final EdgeList[] down;
+		private final int[] rank;
+		private final int[] priority;
+		private final int[] contractedNeighbors;
+		private final int[] level;
+		private final ThreadLocal<WitnessSearch> witnessSearches;
+
+		Contraction(CompiledGraphImplementation graph) {
+			this.nodeCount = graph.ids.length;
+			this.out = new EdgeList[this.nodeCount];
+			this.in = new EdgeList[this.nodeCount];
+			this.up = new EdgeList[this.nodeCount];
+			this.down = new EdgeList[this.nodeCount];
+			this.rank = new int[this.nodeCount];
+			this.priority = new int[this.nodeCount];
+			this.contractedNeighbors = new int[this.nodeCount];
+			this.level = new int[this.nodeCount];
+
+			int nodeCount = this.nodeCount;
+			this.witnessSearches = ThreadLocal.withInitial(() -> new WitnessSearch(nodeCount));
+
+			for (int node = 0; node < this.nodeCount; node++) {
+				this.out[node] = new EdgeList();
+				this.in[node] = new EdgeList();
+			}
+
+			// Loops are never on a shortest path between two different nodes.
+			for (int from = 0; from < this.nodeCount; from++) {
+				for (int edge = graph.offsets[from]; edge < graph.offsets[from + 1]; edge++) {
+					int to = graph.targets[edge];
+
+					if (to != from) {
+						this.out[from].put(to, graph.weights[edge], -1);
+						this.in[to].put(from, graph.weights[edge], -1);
+					}
+				}
+			}
+		}
+
+		ContractionHierarchy contract() {
+			int[] remaining = IntStream.range(0, this.nodeCount).toArray();
+			boolean[] inSet = new boolean[this.nodeCount];
+			boolean[] changed = new boolean[this.nodeCount];
+			int nextRank = 0;
+
+			IntStream.of(remaining).parallel().forEach(node -> this.priority[node] = this.computePriority(node));
+
+			while (remaining.length > 0) {
+				int[] independentSet = IntStream.of(remaining).parallel().filter(this::isLocalMinimum).toArray();
+
+				for (int node : independentSet) {
+					inSet[node] = true;
+				}
+
+				double[][] shortcuts = IntStream.of(independentSet).parallel()
+						.mapToObj(node -> this.findShortcuts(node, inSet, WITNESS_SETTLE_LIMIT))
+						.toArray(double[][]::new);
+
+				for (int i = 0; i < independentSet.length; i++) {
+					this.contract(independentSet[i], shortcuts[i], nextRank++, changed);
+				}
+
+				int[] changedNodes = IntStream.of(remaining).filter(node -> changed[node] && !inSet[node]).toArray();
+
+				IntStream.of(changedNodes).parallel().forEach(node -> this.priority[node] = this.computePriority(node));
+
+				for (int node : changedNodes) {
+					changed[node] = false;
+				}
+
+				remaining = IntStream.of(remaining).filter(node -> !inSet[node]).toArray();
+			}
+
+			return new ContractionHierarchy(this.rank, this.up, this.down);
+		}
+
+		/*
+		 * A node is contracted in this round if it comes before all its neighbors, by
+		 * priority then ordinal.
+		 */
+		private boolean isLocalMinimum(int node) {
+			for (EdgeList edges : new EdgeList[] { this.out[node], this.in[node] }) {
+				for (int i = 0; i < edges.size; i++) {
+					int neighbor = edges.nodes[i];
+
+					if (this.priority[neighbor] < this.priority[node] || (this.priority[neighbor] == this.priority[node] && neighbor < node)) {
+						return false;
+					}
+				}
+			}
+
+			return true;
+		}
+
+		private int computePriority(int node) {
+			int shortcutCount = this.findShortcuts(node, null, PRIORITY_WITNESS_SETTLE_LIMIT).length / 3;
+
+			return 2 * (shortcutCount - this.out[node].size - this.in[node].size) + this.contractedNeighbors[node] + this.level[node];
+		}
+
+		/**
+		 * Find the shortcuts needed to contract a node.
+		 * @param node the node.
+		 * @param avoidedSet the nodes contracted together with it, which witnesses avoid, or null.
+		 * @param settleLimit the number of nodes each witness search may settle.
+		 * @return the shortcuts, as triples of from, to and distance.
+		 */
+		private double[] findShortcuts(int node, boolean[] avoidedSet, int settleLimit) {
+			EdgeList incoming = this.in[node];
+			EdgeList outgoing = this.out[node];
+			WitnessSearch witnessSearch = this.witnessSearches.get();
+			double[] shortcuts = new double[0];
+			int size = 0;
+
+			for (int i = 0; i < incoming.size; i++) {
+				int from = incoming.nodes[i];
+				double maxDistance = 0.0;
+
+				for (int j = 0; j < outgoing.size; j++) {
+					if (outgoing.nodes[j] != from) {
+						maxDistance = Math.max(maxDistance, incoming.weights[i] + outgoing.weights[j]);
+					}
+				}
+
+				witnessSearch.run(this.out, from, outgoing, node, avoidedSet, maxDistance, settleLimit);
+
+				for (int j = 0; j < outgoing.size; j++) {
+					int to = outgoing.nodes[j];
+					double distance = incoming.weights[i] + outgoing.weights[j];
+
+					if (to != from && witnessSearch.getDistance(to) > distance) {
+						if (size + 3 > shortcuts.length) {
+							shortcuts = Arrays.copyOf(shortcuts, Math.max(6, shortcuts.length * 2));
+						}
+
+						shortcuts[size++] = from;
+						shortcuts[size++] = to;
+						shortcuts[size++] = distance;
+					}
+				}
+			}
+
+			return Arrays.copyOf(shortcuts, size);
+		}
+
+		/*
+		 * Remove a node from the graph, keeping its edges as its upward and downward
+		 * edges in the hierarchy, and add its shortcuts.
+		 */
+		private void contract(int node, double[] shortcuts, int rank, boolean[] changed) {
+			this.rank[node] = rank;
+			this.up[node] = this.out[node].copy();
+			this.down[node] = this.in[node].copy();
+
+			for (int i = 0; i < this.out[node].size; i++) {
+				int neighbor = this.out[node].nodes[i];
+
+				this.in[neighbor].remove(node);
+				this.contractedNeighbors[neighbor]++;
+				this.level[neighbor] = Math.max(this.level[neighbor], this.level[node] + 1);
+				changed[neighbor] = true;
+			}
+
+			for (int i = 0; i < this.in[node].size; i++) {
+				int neighbor = this.in[node].nodes[i];
+
+				this.out[neighbor].remove(node);
+				this.contractedNeighbors[neighbor]++;
+				this.level[neighbor] = Math.max(this.level[neighbor], this.level[node] + 1);
+				changed[neighbor] = true;
+			}
+
+			for (int i = 0; i < shortcuts.length; i += 3) {
+				int from = (int) shortcuts[i];
+				int to = (int) shortcuts[i + 1];
+
+				this.out[from].put(to, shortcuts[i + 2], node);
+				this.in[to].put(from, shortcuts[i + 2], node);
+			}
+
+			this.out[node] = new EdgeList();
+			this.in[node] = new EdgeList();
+		}
+	}
+}
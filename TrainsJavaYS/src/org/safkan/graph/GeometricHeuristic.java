@@ -0,0 +1,65 @@
+package org.safkan.graph;
+
+/**
+ * <p>
+ * The heuristics of {@link Heuristic#euclidean(double)} and {@link Heuristic#haversine(double)}.
+ * These are values: two heuristics of the same kind and scale are equal, so the heuristic
+ * a graph was compiled with may be created again for each query.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+final class GeometricHeuristic implements Heuristic {
+	private final boolean spherical;
+	private final double scale;
+
+	/**
+	 * @param spherical true for great circle distances, false for straight line distances.
+	 * @param scale the distance per unit of the coordinates, or the radius of the sphere.
+	 */
+	GeometricHeuristic(boolean spherical, double scale) {
+		this.spherical = spherical;
+		this.scale = scale;
+	}
+
+	@Override
+	public double estimate(Node from, Node to) {
+		if (!from.hasCoordinates() || !to.hasCoordinates()) {
+			return 0.0;
+		}
+
+		if (!this.spherical) {
+			return this.scale * Math.hypot(from.getX() - to.getX(), from.getY() - to.getY());
+		}
+
+		double latitude1 = Math.toRadians(from.getY());
+		double latitude2 = Math.toRadians(to.getY());
+		double sinLatitude = Math.sin((latitude2 - latitude1) / 2);
+		double sinLongitude = Math.sin(Math.toRadians(to.getX() - from.getX()) / 2);
+		double a = sinLatitude * sinLatitude + Math.cos(latitude1) * Math.cos(latitude2) * sinLongitude * sinLongitude;
+
+		return 2 * this.scale * Math.asin(Math.min(1.0, Math.sqrt(a)));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof GeometricHeuristic)) {
+			return false;
+		}
+
+		GeometricHeuristic other = (GeometricHeuristic) obj;
+
+		return this.spherical == other.spherical && Double.compare(this.scale, other.scale) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Double.hashCode(this.scale) + (this.spherical ? 1 : 0);
+	}
+
+	@Override
+	public String toString() {
+		return (this.spherical ? "haversine(" : "euclidean(") + this.scale + ")";
+	}
+}
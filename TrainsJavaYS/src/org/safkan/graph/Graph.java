@@ -177,8 +177,26 @@ public class Graph {
 	 * @return the compiled graph.
 	 */
 	public CompiledGraph compile() {
+		return this.compile(new CompilationOptions());
+	}
+	
+	/**
+	 * <p>
+	 * Compile this graph as {@link #compile()} does, with the preprocessing selected by
+	 * the given options.
+	 * </p>
+	 * @param options the compilation options.
+	 * @return the compiled graph.
+	 * @throws IllegalArgumentException if the options hold landmark tables computed for another graph,
+	 * or a heuristic which overestimates the distance of an edge.
+	 */
+	public CompiledGraph compile(CompilationOptions options) {
+		if (options == null) {
+			throw new IllegalArgumentException("options may not be null.");
+		}
+		
 		CompiledGraphImplementation compiledGraphImplementation = new CompiledGraphImplementation(this);
-		compiledGraphImplementation.compile();
+		compiledGraphImplementation.compile(options);
 		return compiledGraphImplementation;
 	}
 	
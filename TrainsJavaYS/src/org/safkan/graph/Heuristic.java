@@ -0,0 +1,71 @@
+package org.safkan.graph;
+
+/**
+ * <p>
+ * An estimate of the distance between two nodes, used to guide shortest path searches
+ * towards the target, see {@link CompiledGraph#findShortestPath(Node, Node, Heuristic)}.
+ * </p>
+ *
+ * <p>
+ * For the search to find the shortest paths, the estimate must never exceed the distance
+ * of any edge between the two nodes, and must obey the triangle inequality, as any
+ * distance between points does. A heuristic is given to a graph when it is compiled,
+ * see {@link CompilationOptions#setHeuristic(Heuristic)}: the estimate between the endpoints
+ * of every edge is then checked against the distance of the edge, once, and an
+ * {@link IllegalArgumentException} is thrown if it is larger.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+public interface Heuristic {
+
+	/**
+	 * The mean radius of the earth, in kilometers.
+	 */
+	public static final double EARTH_RADIUS_KM = 6371.0088;
+
+	/**
+	 * The heuristic which estimates all distances as zero, turning the search into
+	 * Dijkstra's algorithm.
+	 */
+	public static final Heuristic NONE = (from, to) -> 0.0;
+
+	/**
+	 * Estimate the distance between two nodes.
+	 * @param from the first node.
+	 * @param to the second node.
+	 * @return the estimate, which must not be negative.
+	 */
+	public double estimate(Node from, Node to);
+
+	/**
+	 * <p>
+	 * Returns the heuristic estimating distances as the straight line distance between
+	 * the coordinates of the nodes, multiplied by the given scale. Nodes without
+	 * coordinates are estimated at a distance of zero; as that breaks the triangle
+	 * inequality, a graph with such nodes can not be compiled with this heuristic.
+	 * </p>
+	 * @param scale the distance of the edges per unit of the coordinates.
+	 * @return the heuristic.
+	 */
+	public static Heuristic euclidean(double scale) {
+		return new GeometricHeuristic(false, scale);
+	}
+
+	/**
+	 * <p>
+	 * Returns the heuristic estimating distances as the great circle distance between
+	 * the nodes, whose x coordinates are longitudes and y coordinates latitudes, in degrees,
+	 * on a sphere with the given radius. Nodes without coordinates are estimated at a
+	 * distance of zero, and a graph with such nodes can not be compiled with this
+	 * heuristic. Heuristics with the same radius are equal.
+	 * </p>
+	 * @param radius the radius of the sphere, in units of the distances of the edges;
+	 * {@link #EARTH_RADIUS_KM} for kilometers on the earth.
+	 * @return the heuristic.
+	 */
+	public static Heuristic haversine(double radius) {
+		return new GeometricHeuristic(true, radius);
+	}
+}
@@ -0,0 +1,469 @@
+package org.safkan.graph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.safkan.graph.CompilationOptions.LandmarkStrategy;
+import org.safkan.graph.util.IndexedDaryHeap;
+
+/**
+ * <p>
+ * The result of ALT (A*, landmarks and triangle inequality) preprocessing of a compiled
+ * graph: a few nodes chosen as landmarks, and the shortest distances from each landmark
+ * to every node, and from every node to each landmark.
+ * </p>
+ *
+ * <p>
+ * By the triangle inequality, for any landmark L, the distance from a node v to the target t
+ * is at least d(L, t) - d(L, v), and at least d(v, L) - d(t, L). The largest of these bounds
+ * over all landmarks is a consistent heuristic, which needs no coordinates at all.
+ * </p>
+ *
+ * <p>
+ * Tables can be saved with {@link #write(DataOutput)}, and given back to
+ * {@link Graph#compile(CompilationOptions)} for the same graph after {@link #read(DataInput)}.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+public final class LandmarkTables {
+	private static final int MAGIC = 0x414C5432;
+
+	/**
+	 * The ordinals and ids of the landmarks.
+	 */
+	final int[] landmarks;
+	final String[] landmarkIds;
+
+	/**
+	 * fromLandmark[i][v] is the distance from landmark i to node v, and toLandmark[i][v]
+	 * the distance from node v to landmark i; infinite if there is no path.
+	 */
+	final double[][] fromLandmark;
+	final double[][] toLandmark;
+
+	/**
+	 * The fingerprint of the graph the tables were computed for, see {@link #fingerprint(CompiledGraphImplementation)}.
+	 */
+	private final long graphFingerprint;
+
+	private LandmarkTables(long graphFingerprint, int[] landmarks, String[] landmarkIds, double[][] fromLandmark, double[][] toLandmark) {
+		this.graphFingerprint = graphFingerprint;
+		this.landmarks = landmarks;
+		this.landmarkIds = landmarkIds;
+		this.fromLandmark = fromLandmark;
+		this.toLandmark = toLandmark;
+	}
+
+	/**
+	 * @return the number of landmarks.
+	 */
+	public int getLandmarkCount() {
+		return this.landmarks.length;
+	}
+
+	/**
+	 * @return the number of nodes of the graph these tables were computed for.
+	 */
+	public int getNodeCount() {
+		return this.fromLandmark.length == 0 ? 0 : this.fromLandmark[0].length;
+	}
+
+	/**
+	 * Write these tables, with a fingerprint of the nodes and edges of their graph.
+	 * @param out the output.
+	 * @throws IOException if the output fails.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeLong(this.graphFingerprint);
+		out.writeInt(this.getNodeCount());
+		out.writeInt(this.landmarks.length);
+
+		for (int i = 0; i < this.landmarks.length; i++) {
+			out.writeInt(this.landmarks[i]);
+			out.writeUTF(this.landmarkIds[i]);
+		}
+
+		for (double[][] table : new double[][][] { this.fromLandmark, this.toLandmark }) {
+			for (double[] distances : table) {
+				for (double distance : distances) {
+					out.writeDouble(distance);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read tables written by {@link #write(DataOutput)}.
+	 * @param in the input.
+	 * @return the tables.
+	 * @throws IOException if the input fails, or does not hold landmark tables.
+	 */
+	public static LandmarkTables read(DataInput in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("The input does not hold landmark tables.");
+		}
+
+		long graphFingerprint = in.readLong();
+		int nodeCount = in.readInt();
+		int landmarkCount = in.readInt();
+
+		if (nodeCount < 0 || landmarkCount < 0 || landmarkCount > nodeCount) {
+			throw new IOException("Invalid landmark table size: " + landmarkCount + " landmarks, " + nodeCount + " nodes.");
+		}
+
+		int[] landmarks = new int[landmarkCount];
+		String[] landmarkIds = new String[landmarkCount];
+
+		for (int i = 0; i < landmarkCount; i++) {
+			landmarks[i] = in.readInt();
+			landmarkIds[i] = in.readUTF();
+
+			if (landmarks[i] < 0 || landmarks[i] >= nodeCount) {
+				throw new IOException("Invalid landmark ordinal: " + landmarks[i]);
+			}
+		}
+
+		double[][] fromLandmark = new double[landmarkCount][nodeCount];
+		double[][] toLandmark = new double[landmarkCount][nodeCount];
+
+		for (double[][] table : new double[][][] { fromLandmark, toLandmark }) {
+			for (double[] distances : table) {
+				for (int v = 0; v < nodeCount; v++) {
+					distances[v] = in.readDouble();
+				}
+			}
+		}
+
+		return new LandmarkTables(graphFingerprint, landmarks, landmarkIds, fromLandmark, toLandmark);
+	}
+
+	/**
+	 * Check that these tables belong to the given graph: it must have the same nodes,
+	 * and the same edges with the same distances, as the graph they were computed for.
+	 * @throws IllegalArgumentException if they do not.
+	 */
+	void checkGraph(CompiledGraphImplementation graph) {
+		boolean matches = this.graphFingerprint == fingerprint(graph)
+				&& (this.getNodeCount() == graph.ids.length || this.landmarks.length == 0);
+
+		for (int i = 0; matches && i < this.landmarks.length; i++) {
+			matches = this.landmarks[i] < graph.ids.length && graph.ids[this.landmarks[i]].equals(this.landmarkIds[i]);
+		}
+
+		if (!matches) {
+			throw new IllegalArgumentException("The landmark tables were computed for a different graph.");
+		}
+	}
+
+	/**
+	 * @param node a node ordinal.
+	 * @param target the ordinal of the target.
+	 * @return the lower bound of the distance from the node to the target.
+	 */
+	double estimate(int node, int target) {
+		double estimate = 0.0;
+
+		for (int i = 0; i < this.landmarks.length; i++) {
+			double[] from = this.fromLandmark[i];
+			double[] to = this.toLandmark[i];
+
+			// Terms with infinite distances tell nothing, and are left out.
+			if (from[target] != Double.POSITIVE_INFINITY && from[node] != Double.POSITIVE_INFINITY) {
+				estimate = Math.max(estimate, from[target] - from[node]);
+			}
+
+			if (to[node] != Double.POSITIVE_INFINITY && to[target] != Double.POSITIVE_INFINITY) {
+				estimate = Math.max(estimate, to[node] - to[target]);
+			}
+		}
+
+		return estimate;
+	}
+
+	/**
+	 * Choose landmarks for the graph, and compute their tables. The tables from the
+	 * landmarks are computed while choosing them, as each choice depends on them;
+	 * the searches to the landmarks then run in parallel.
+	 * @param graph the graph, whose forward and reverse adjacency must be compiled.
+	 * @param count the number of landmarks; at most the number of nodes are chosen.
+	 * @param strategy how the landmarks are chosen.
+	 * @return the tables.
+	 */
+	static LandmarkTables compute(CompiledGraphImplementation graph, int count, LandmarkStrategy strategy) {
+		int k = Math.min(count, graph.ids.length);
+		double[][] fromLandmark = new double[k][];
+		int[] landmarks = selectLandmarks(graph, k, strategy, fromLandmark);
+		String[] landmarkIds = new String[k];
+		double[][] toLandmark = new double[k][];
+
+		for (int i = 0; i < k; i++) {
+			landmarkIds[i] = graph.ids[landmarks[i]];
+		}
+
+		IntStream.range(0, k).parallel().forEach(i -> {
+			toLandmark[i] = distances(landmarks[i], graph.reverseOffsets, graph.sources, graph.reverseWeights, null, null);
+		});
+
+		return new LandmarkTables(fingerprint(graph), landmarks, landmarkIds, fromLandmark, toLandmark);
+	}
+
+	/**
+	 * A 64 bit FNV-1a hash of the node ids, and of the compressed sparse row adjacency,
+	 * including the distances of the edges. Any change to the graph which could change
+	 * a distance in the tables changes the fingerprint, but for a collision.
+	 * @param graph the graph, whose adjacency must be compiled.
+	 * @return the fingerprint.
+	 */
+	static long fingerprint(CompiledGraphImplementation graph) {
+		long hash = 0xCBF29CE484222325L;
+
+		hash = mix(hash, graph.ids.length);
+
+		for (String id : graph.ids) {
+			hash = mix(hash, id.length());
+
+			for (int i = 0; i < id.length(); i++) {
+				hash = mix(hash, id.charAt(i));
+			}
+		}
+
+		for (int offset : graph.offsets) {
+			hash = mix(hash, offset);
+		}
+
+		for (int target : graph.targets) {
+			hash = mix(hash, target);
+		}
+
+		for (double weight : graph.weights) {
+			hash = mix(hash, Double.doubleToLongBits(weight));
+		}
+
+		return hash;
+	}
+
+	private static long mix(long hash, long value) {
+		for (int i = 0; i < 8; i++) {
+			hash ^= (value >>> (8 * i)) & 0xFF;
+			hash *= 0x100000001B3L;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Dijkstra's algorithm from a single source, over all nodes.
+	 * @param source the source node ordinal.
+	 * @param offsets the offsets of the adjacency, forward or reverse.
+	 * @param targets the adjacent nodes.
+	 * @param weights the distances of the edges.
+	 * @param parents filled with the predecessor of each node on its shortest path, or -1; may be null.
+	 * @param order filled with the reachable nodes in order of distance, followed by -1; may be null.
+	 * @return the distance of each node from the source, infinite if it is not reachable.
+	 */
+	static double[] distances(int source, int[] offsets, int[] targets, double[] weights, int[] parents, int[] order) {
+		int nodeCount = offsets.length - 1;
+		double[] distances = new double[nodeCount];
+		boolean[] settled = new boolean[nodeCount];
+		IndexedDaryHeap queue = new IndexedDaryHeap(nodeCount);
+		int settledCount = 0;
+
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+		if (parents != null) {
+			Arrays.fill(parents, -1);
+		}
+
+		distances[source] = 0.0;
+		queue.insert(source, 0.0);
+
+		int current;
+		while ((current = queue.deleteMinimum()) >= 0) {
+			settled[current] = true;
+
+			if (order != null) {
+				order[settledCount] = current;
+			}
+
+			settledCount++;
+
+			for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+				int neighbor = targets[edge];
+				double distance = distances[current] + weights[edge];
+
+				if (!settled[neighbor] && distance < distances[neighbor]) {
+					if (queue.contains(neighbor)) {
+						queue.decreaseKey(neighbor, distance);
+					} else {
+						queue.insert(neighbor, distance);
+					}
+
+					distances[neighbor] = distance;
+
+					if (parents != null) {
+						parents[neighbor] = current;
+					}
+				}
+			}
+		}
+
+		if (order != null && settledCount < nodeCount) {
+			order[settledCount] = -1;
+		}
+
+		return distances;
+	}
+
+	// =============== Landmark Selection ===============
+
+	/**
+	 * @param graph the graph.
+	 * @param count the number of landmarks, at most the number of nodes.
+	 * @param strategy how the landmarks are chosen.
+	 * @param fromChosen filled with the distances from each landmark to every node.
+	 * @return the ordinals of the landmarks.
+	 */
+	private static int[] selectLandmarks(CompiledGraphImplementation graph, int count, LandmarkStrategy strategy, double[][] fromChosen) {
+		int nodeCount = graph.ids.length;
+		int[] landmarks = new int[count];
+		boolean[] isLandmark = new boolean[nodeCount];
+
+		// The distance from the nearest landmark chosen so far.
+		double[] nearest = new double[nodeCount];
+		Random random = new Random(nodeCount);
+
+		Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+
+		for (int i = 0; i < count; i++) {
+			int landmark = -1;
+
+			if (i == 0) {
+				// The node farthest from an arbitrary one.
+				landmark = farthest(distances(0, graph.offsets, graph.targets, graph.weights, null, null), isLandmark, true);
+			} else if (strategy == LandmarkStrategy.AVOID) {
+				landmark = avoid(graph, random.nextInt(nodeCount), fromChosen, i, isLandmark);
+			}
+
+			if (landmark < 0) {
+				landmark = farthest(nearest, isLandmark, false);
+			}
+
+			landmarks[i] = landmark;
+			isLandmark[landmark] = true;
+			fromChosen[i] = distances(landmark, graph.offsets, graph.targets, graph.weights, null, null);
+
+			for (int v = 0; v < nodeCount; v++) {
+				nearest[v] = Math.min(nearest[v], fromChosen[i][v]);
+			}
+		}
+
+		return landmarks;
+	}
+
+	/**
+	 * @param distances a distance for each node.
+	 * @param excluded the nodes which may not be chosen.
+	 * @param finiteOnly true to ignore infinite distances; otherwise they are the farthest.
+	 * @return the node with the greatest distance, the first one of several; or the first
+	 * node which is not excluded, if all distances are ignored.
+	 */
+	private static int farthest(double[] distances, boolean[] excluded, boolean finiteOnly) {
+		int farthest = -1;
+
+		for (int v = 0; v < distances.length; v++) {
+			if (excluded[v] || (finiteOnly && distances[v] == Double.POSITIVE_INFINITY)) {
+				continue;
+			}
+
+			if (farthest < 0 || distances[v] > distances[farthest]) {
+				farthest = v;
+			}
+		}
+
+		if (farthest < 0) {
+			for (int v = 0; farthest < 0 && v < excluded.length; v++) {
+				farthest = excluded[v] ? -1 : v;
+			}
+		}
+
+		return farthest;
+	}
+
+	/*
+	 * The "avoid" strategy of Goldberg and Werneck: build the shortest path tree from
+	 * a root, and weigh each node by how much the current landmarks underestimate its
+	 * distance from the root. The weight of a subtree is the sum of the weights of its
+	 * nodes, or zero if it holds a landmark. Starting at the root, descend into the
+	 * heaviest subtree until reaching a leaf, which becomes the next landmark. Only
+	 * the bounds from the landmarks (not to them) are used for the weights.
+	 */
+	private static int avoid(CompiledGraphImplementation graph, int root, double[][] fromChosen, int chosenCount, boolean[] isLandmark) {
+		int nodeCount = graph.ids.length;
+		int[] parents = new int[nodeCount];
+		int[] order = new int[nodeCount];
+		double[] distances = distances(root, graph.offsets, graph.targets, graph.weights, parents, order);
+		double[] size = new double[nodeCount];
+		boolean[] covered = new boolean[nodeCount];
+		int reached = 0;
+
+		while (reached < nodeCount && order[reached] >= 0) {
+			reached++;
+		}
+
+		// Children come after their parents in the order, so visit it backwards.
+		for (int i = reached - 1; i >= 0; i--) {
+			int v = order[i];
+			double bound = 0.0;
+
+			for (int j = 0; j < chosenCount; j++) {
+				if (fromChosen[j][v] != Double.POSITIVE_INFINITY && fromChosen[j][root] != Double.POSITIVE_INFINITY) {
+					bound = Math.max(bound, fromChosen[j][v] - fromChosen[j][root]);
+				}
+			}
+
+			covered[v] |= isLandmark[v];
+
+			if (covered[v]) {
+				size[v] = 0.0;
+			} else {
+				size[v] += distances[v] - bound;
+			}
+
+			if (parents[v] >= 0) {
+				covered[parents[v]] |= covered[v];
+				size[parents[v]] += size[v];
+			}
+		}
+
+		if (covered[root] && size[root] <= 0.0) {
+			return -1;
+		}
+
+		int current = root;
+
+		while (true) {
+			int heaviest = -1;
+
+			for (int edge = graph.offsets[current]; edge < graph.offsets[current + 1]; edge++) {
+				int child = graph.targets[edge];
+
+				if (parents[child] == current && !covered[child] && (heaviest < 0 || size[child] > size[heaviest])) {
+					heaviest = child;
+				}
+			}
+
+			if (heaviest < 0) {
+				return isLandmark[current] ? -1 : current;
+			}
+
+			current = heaviest;
+		}
+	}
+}
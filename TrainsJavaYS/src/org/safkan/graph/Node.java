@@ -8,6 +8,13 @@ package org.safkan.graph;
  * </p>
  * 
  * <p>
+ * A node may also have coordinates, which a {@link Heuristic} can use to estimate
+ * distances. Coordinates do not take part in the identity of a node. Since a graph
+ * keeps the first of several equal nodes added to it, a node with coordinates should
+ * be added to the graph before any edges referring to it.
+ * </p>
+ * 
+ * <p>
  * 
  * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
  *
@@ -15,6 +22,9 @@ package org.safkan.graph;
 
 public class Node {
 	private String id;
+	private double x;
+	private double y;
+	private boolean hasCoordinates;
 	
 	/**
 	 * Construct a new node with the given id. The id may not be null.
@@ -29,10 +39,48 @@ public class Node {
 		this.id = id;
 	}
 	
+	/**
+	 * Construct a new node with the given id and coordinates. For geographic
+	 * coordinates, x is the longitude and y the latitude, in degrees.
+	 * @param id the id of the node to be created.
+	 * @param x the x coordinate, or longitude.
+	 * @param y the y coordinate, or latitude.
+	 * @throws IllegalArgumentException if id is null, or a coordinate is not finite.
+	 */
+	public Node (String id, double x, double y) {
+		this(id);
+		
+		if (Double.isNaN(x) || Double.isInfinite(x) || Double.isNaN(y) || Double.isInfinite(y)) {
+			throw new IllegalArgumentException("The coordinates of a Node must be finite. We have: " + x + ", " + y);
+		}
+		
+		this.x = x;
+		this.y = y;
+		this.hasCoordinates = true;
+	}
+	
 	public String getId() {
 		return this.id;
 	}
 	
+	public boolean hasCoordinates() {
+		return this.hasCoordinates;
+	}
+	
+	/**
+	 * @return the x coordinate, or longitude; zero if the node has no coordinates.
+	 */
+	public double getX() {
+		return this.x;
+	}
+	
+	/**
+	 * @return the y coordinate, or latitude; zero if the node has no coordinates.
+	 */
+	public double getY() {
+		return this.y;
+	}
+	
 	@Override
 	/*
 	 * (non-Javadoc)
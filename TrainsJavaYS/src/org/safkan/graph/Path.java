@@ -39,6 +39,9 @@ public class Path {
 		this.nodes.add(0, node);
 	}
 	
+	void addNodeToEnd(Node node) {
+		this.nodes.add(node);
+	}
 
 	
 	@Override
@@ -0,0 +1,154 @@
+package org.safkan.graph;
+
+import java.util.Arrays;
+
+import org.safkan.graph.util.IndexedDaryHeap;
+
+/**
+ * <p>
+ * The state of a shortest path search on a {@link CompiledGraphImplementation}: the
+ * distance, heuristic estimate and predecessor of each node, whether it has been
+ * settled, and the open queue. Each thread has a context of its own, reused by its
+ * searches, so searches on the same graph can run concurrently.
+ * </p>
+ *
+ * <p>
+ * Instead of resetting every node before a search, each search has a generation
+ * number, and the state of a node is valid only if it has been stamped with the
+ * current generation. Any other node is untouched: at an infinite distance, without
+ * a predecessor, and not settled. Starting a search thus takes time proportional to
+ * the nodes the previous search left in the open queue, not to the whole graph.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+class SearchContext {
+	private double[] g;
+	private double[] h;
+	private int[] cameFrom;
+
+	/**
+	 * The generation at which each node was last touched, and settled.
+	 */
+	private int[] touched;
+	private int[] settled;
+
+	private int generation;
+
+	/**
+	 * The number of nodes settled by the current search.
+	 */
+	int settledCount;
+
+	final IndexedDaryHeap openQueue;
+
+	/**
+	 * The best path found by a bidirectional search so far: the edge where the forward
+	 * and backward searches meet, and the length of the path through it.
+	 */
+	int meetingFrom;
+	int meetingTo;
+	double meetingDistance;
+
+	/**
+	 * The context of the backward search of bidirectional searches, created when first needed.
+	 */
+	private SearchContext reverse;
+
+	SearchContext(int nodeCount) {
+		this.g = new double[nodeCount];
+		this.h = new double[nodeCount];
+		this.cameFrom = new int[nodeCount];
+		this.touched = new int[nodeCount];
+		this.settled = new int[nodeCount];
+		this.generation = 0;
+		this.openQueue = new IndexedDaryHeap(nodeCount);
+	}
+
+	/**
+	 * Start a new search, forgetting the state of the previous one.
+	 */
+	void begin() {
+		this.openQueue.clear();
+		this.settledCount = 0;
+		this.meetingFrom = -1;
+		this.meetingTo = -1;
+		this.meetingDistance = Double.MAX_VALUE;
+		this.generation++;
+
+		if (this.generation == Integer.MAX_VALUE) {
+			// Stamps from the old generations could be mistaken for new ones.
+			Arrays.fill(this.touched, 0);
+			Arrays.fill(this.settled, 0);
+			this.generation = 1;
+		}
+	}
+
+	/**
+	 * @param node a node ordinal.
+	 * @return true if the node has been reached in this search.
+	 */
+	boolean isTouched(int node) {
+		return this.touched[node] == this.generation;
+	}
+
+	/**
+	 * Reach a node for the first time in this search.
+	 * @param node the node ordinal.
+	 * @param h the heuristic estimate of the distance from the node to the goal.
+	 */
+	void touch(int node, double h) {
+		this.touched[node] = this.generation;
+		this.g[node] = Double.MAX_VALUE;
+		this.h[node] = h;
+		this.cameFrom[node] = -1;
+	}
+
+	double getG(int node) {
+		return this.isTouched(node) ? this.g[node] : Double.MAX_VALUE;
+	}
+
+	double getH(int node) {
+		return this.h[node];
+	}
+
+	/**
+	 * @param node a node ordinal, which must have been touched.
+	 * @param g the distance of the node from the start.
+	 * @param cameFrom the predecessor of the node, or -1.
+	 */
+	void update(int node, double g, int cameFrom) {
+		this.g[node] = g;
+		this.cameFrom[node] = cameFrom;
+	}
+
+	int getCameFrom(int node) {
+		return this.isTouched(node) ? this.cameFrom[node] : -1;
+	}
+
+	boolean isSettled(int node) {
+		return this.settled[node] == this.generation;
+	}
+
+	void setSettled(int node, boolean settled) {
+		if (settled) {
+			this.settled[node] = this.generation;
+			this.settledCount++;
+		} else {
+			this.settled[node] = 0;
+		}
+	}
+
+	/**
+	 * @return the context for the backward search of a bidirectional search, whose
+	 * predecessors are the next nodes towards the target.
+	 */
+	SearchContext getReverse() {
+		if (this.reverse == null) {
+			this.reverse = new SearchContext(this.g.length);
+		}
+
+		return this.reverse;
+	}
+}
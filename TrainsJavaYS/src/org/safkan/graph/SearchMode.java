@@ -0,0 +1,25 @@
+package org.safkan.graph;
+
+/**
+ * <p>
+ * How a compiled graph searches for shortest paths without a {@link Heuristic}, see
+ * {@link CompilationOptions#setSearchMode(SearchMode)}.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+public enum SearchMode {
+	/**
+	 * Search forward from the starting node only, settling the nodes closer to it than
+	 * the target; guided by landmarks, if the graph has them.
+	 */
+	UNIDIRECTIONAL,
+	/**
+	 * Search forward from the starting node and backward from the target at the same time,
+	 * until the searches meet. Each search settles the nodes within about half the distance
+	 * of the target, which on road-like graphs is about half as many nodes in total. Landmarks
+	 * are not used.
+	 */
+	BIDIRECTIONAL
+}
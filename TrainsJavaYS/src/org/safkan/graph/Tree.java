@@ -21,33 +21,38 @@ public class Tree {
 			throw new IllegalArgumentException("Both maxDepth and maxDistance may not be null.");
 		}
 		
+		this.root.node = compiledGraph.getOrdinal(this.root.nodeId);
+		
+		if (this.root.node < 0) {
+			throw new IllegalArgumentException("Node with id " + this.root.nodeId + " is not present in the graph.");
+		}
+		
+		int[] offsets = compiledGraph.offsets;
+		int[] targets = compiledGraph.targets;
+		double[] weights = compiledGraph.weights;
+		
 		this.openQueue.add(this.root);
 		
 		while (!this.openQueue.isEmpty()) {
 			TreeElement current = this.openQueue.poll();
 			this.allTreeElements.add(current);
 			
-			CompiledNode compiledNode = compiledGraph.getCompiledNode(current.nodeId);
+			int targetDepth = current.depth + 1;
 			
-			if (compiledNode == null) {
-				throw new IllegalArgumentException("Node with id " + current.nodeId + " is not present in the graph.");
+			if (maxDepth != null && targetDepth > maxDepth) {
+				continue;
 			}
 			
-			for (String targetNodeId : compiledNode.links.keySet()) {
-				double distanceToNode = compiledNode.links.get(targetNodeId);
-				
-				int targetDepth = current.depth + 1;
+			for (int edge = offsets[current.node]; edge < offsets[current.node + 1]; edge++) {
+				double distanceToNode = weights[edge];
 				double targetDistance = current.distanceFromRoot + distanceToNode;
 				
-				if (maxDepth != null && targetDepth > maxDepth) {
-					break;
-				}
-				
 				if (maxDistance != null && targetDistance >= maxDistance) {
 					continue;
 				}
 				
-				TreeElement child = new TreeElement(current, targetNodeId, targetDistance);
+				int target = targets[edge];
+				TreeElement child = new TreeElement(current, target, compiledGraph.ids[target], targetDistance);
 				
 				current.addChild(distanceToNode, child);
 				
@@ -5,16 +5,18 @@ import java.util.Map;
 
 public class TreeElement {
 	String nodeId;
+	int node;
 	Map<Double, TreeElement> children;
 	TreeElement parent;
 	int depth;
 	double distanceFromRoot;
 	
 	TreeElement(String nodeId) {
-		this(null, nodeId, 0.0);
+		this(null, -1, nodeId, 0.0);
 	}
 	
-	TreeElement(TreeElement parent, String nodeId, double distanceFromRoot) {
+	TreeElement(TreeElement parent, int node, String nodeId, double distanceFromRoot) {
+		this.node = node;
 		this.nodeId = nodeId;
 		this.parent = parent;
 		this.distanceFromRoot = distanceFromRoot;
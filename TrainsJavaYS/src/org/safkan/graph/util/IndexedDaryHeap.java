@@ -0,0 +1,211 @@
+package org.safkan.graph.util;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A minimum heap of int items, from zero to a fixed capacity, each with a double key.
+ * The heap knows the position of every item, so the key of an item in the heap can be
+ * decreased in O(log n) time, which is what shortest path searches need.
+ * </p>
+ *
+ * <p>
+ * Each inner node has four children rather than two: the heap is half as deep, which
+ * makes decrease-key cheaper, and the four children sit next to each other in memory.
+ * Items, keys and positions are kept in primitive arrays allocated once, so pushing
+ * an item allocates nothing.
+ * </p>
+ *
+ * @author Dr. Y. Safkan &lt;safkan@gmail.com&gt;
+ *
+ */
+public class IndexedDaryHeap {
+	private static final int ARITY = 4;
+
+	/**
+	 * The items, in heap order.
+	 */
+	private int[] heap;
+
+	/**
+	 * The position of each item in the heap, or -1 if it is not in the heap.
+	 */
+	private int[] positions;
+
+	/**
+	 * The key of each item.
+	 */
+	private double[] keys;
+
+	private int size;
+
+	/**
+	 * Create a new, empty heap.
+	 * @param capacity the number of items; items are from zero to capacity - 1.
+	 */
+	public IndexedDaryHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.keys = new double[capacity];
+		this.size = 0;
+
+		Arrays.fill(this.positions, -1);
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param item an item.
+	 * @return true if the item is in the heap.
+	 */
+	public boolean contains(int item) {
+		return this.positions[item] >= 0;
+	}
+
+	/**
+	 * @param item an item in the heap.
+	 * @return the key of the item.
+	 */
+	public double getKey(int item) {
+		return this.keys[item];
+	}
+
+	/**
+	 * Insert an item.
+	 * @param item the item, which may not be in the heap.
+	 * @param key the key of the item.
+	 * @throws IllegalArgumentException if the item is already in the heap.
+	 */
+	public void insert(int item, double key) {
+		if (this.positions[item] >= 0) {
+			throw new IllegalArgumentException("Item " + item + " is already in the heap.");
+		}
+
+		this.keys[item] = key;
+		this.positions[item] = this.size;
+		this.heap[this.size] = item;
+		this.size++;
+		this.siftUp(this.size - 1);
+	}
+
+	/**
+	 * Decrease the key of an item in the heap. A key which is not smaller than
+	 * the current one is ignored.
+	 * @param item the item, which must be in the heap.
+	 * @param key the new key.
+	 * @throws IllegalArgumentException if the item is not in the heap.
+	 */
+	public void decreaseKey(int item, double key) {
+		if (this.positions[item] < 0) {
+			throw new IllegalArgumentException("Item " + item + " is not in the heap.");
+		}
+
+		if (key < this.keys[item]) {
+			this.keys[item] = key;
+			this.siftUp(this.positions[item]);
+		}
+	}
+
+	/**
+	 * @return the item with the smallest key, without removing it, or -1 if the heap is empty.
+	 */
+	public int peekMinimum() {
+		return this.size == 0 ? -1 : this.heap[0];
+	}
+
+	/**
+	 * Remove the item with the smallest key.
+	 * @return the removed item, or -1 if the heap is empty.
+	 */
+	public int deleteMinimum() {
+		if (this.size == 0) {
+			return -1;
+		}
+
+		int minimum = this.heap[0];
+
+		this.size--;
+		this.positions[minimum] = -1;
+
+		if (this.size > 0) {
+			this.heap[0] = this.heap[this.size];
+			this.positions[this.heap[0]] = 0;
+			this.siftDown(0);
+		}
+
+		return minimum;
+	}
+
+	/**
+	 * Remove all items, in time proportional to the number of items in the heap.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.positions[this.heap[i]] = -1;
+		}
+
+		this.size = 0;
+	}
+
+	private void siftUp(int position) {
+		int item = this.heap[position];
+		double key = this.keys[item];
+
+		while (position > 0) {
+			int parentPosition = (position - 1) / ARITY;
+			int parent = this.heap[parentPosition];
+
+			if (this.keys[parent] <= key) {
+				break;
+			}
+
+			this.heap[position] = parent;
+			this.positions[parent] = position;
+			position = parentPosition;
+		}
+
+		this.heap[position] = item;
+		this.positions[item] = position;
+	}
+
+	private void siftDown(int position) {
+		int item = this.heap[position];
+		double key = this.keys[item];
+
+		while (true) {
+			int first = position * ARITY + 1;
+
+			if (first >= this.size) {
+				break;
+			}
+
+			int last = Math.min(first + ARITY, this.size);
+			int smallest = first;
+
+			for (int child = first + 1; child < last; child++) {
+				if (this.keys[this.heap[child]] < this.keys[this.heap[smallest]]) {
+					smallest = child;
+				}
+			}
+
+			int smallestItem = this.heap[smallest];
+
+			if (this.keys[smallestItem] >= key) {
+				break;
+			}
+
+			this.heap[position] = smallestItem;
+			this.positions[smallestItem] = position;
+			position = smallest;
+		}
+
+		this.heap[position] = item;
+		this.positions[item] = position;
+	}
+}
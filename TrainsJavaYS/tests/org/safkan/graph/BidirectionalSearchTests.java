@@ -0,0 +1,111 @@
+package org.safkan.graph;
+
+import static org.junit.Assert.*;
+import static org.safkan.graph.GraphFixtures.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BidirectionalSearchTests {
+
+	private static final CompilationOptions BIDIRECTIONAL = new CompilationOptions().setSearchMode(SearchMode.BIDIRECTIONAL);
+
+	@Test
+	public void testRoundTrips() {
+		CompiledGraph compiled = readmeGraph().compile(BIDIRECTIONAL);
+
+		assertEquals(Double.valueOf(9.0), compiled.findLengthOfShortestPath(A, C));
+		assertEquals(Double.valueOf(9.0), compiled.findLengthOfShortestPath(C, C));
+		assertEquals(Double.valueOf(9.0), compiled.findLengthOfShortestPath(B, B));
+		assertNull(compiled.findLengthOfShortestPath(B, A));
+		assertNull(compiled.findLengthOfShortestPath(A, A));
+
+		assertEquals(Arrays.asList(A, B, C), compiled.findShortestPath(A, C).getNodes());
+		assertEquals(Arrays.asList(C, E, B, C), compiled.findShortestPath(C, C).getNodes());
+		assertNull(compiled.findShortestPath(B, A));
+	}
+
+	@Test
+	public void testSelfLoop() {
+		Node A = new Node("A");
+		Node B = new Node("B");
+		Graph graph = new Graph();
+
+		graph.addEdge(new Edge(A, A, 2));
+		graph.addEdge(new Edge(A, B, 1));
+		graph.addEdge(new Edge(B, A, 4));
+
+		CompiledGraph compiled = graph.compile(BIDIRECTIONAL);
+
+		assertEquals(Double.valueOf(2.0), compiled.findLengthOfShortestPath(A, A));
+		assertEquals(Arrays.asList(A, A), compiled.findShortestPath(A, A).getNodes());
+		assertEquals(Double.valueOf(5.0), compiled.findLengthOfShortestPath(B, B));
+	}
+
+	@Test
+	public void testZeroLengthEdges() {
+		Node A = new Node("A");
+		Node B = new Node("B");
+		Node C = new Node("C");
+		Graph graph = new Graph();
+
+		graph.addEdge(new Edge(A, B, 0));
+		graph.addEdge(new Edge(B, C, 0));
+		graph.addEdge(new Edge(C, B, 0));
+
+		CompilationOptions[] modes = {
+				new CompilationOptions(),
+				BIDIRECTIONAL,
+				new CompilationOptions().setContractionHierarchy(true)
+		};
+
+		for (CompilationOptions mode : modes) {
+			CompiledGraph compiled = graph.compile(mode);
+
+			assertEquals(Double.valueOf(0.0), compiled.findLengthOfShortestPath(A, B));
+			assertEquals(Arrays.asList(A, B), compiled.findShortestPath(A, B).getNodes());
+			assertEquals(Double.valueOf(0.0), compiled.findLengthOfShortestPath(A, C));
+			assertEquals(Double.valueOf(0.0), compiled.findLengthOfShortestPath(B, B));
+			assertEquals(Arrays.asList(B, C, B), compiled.findShortestPath(B, B).getNodes());
+			assertNull(compiled.findLengthOfShortestPath(B, A));
+			assertNull(compiled.findShortestPath(A, A));
+		}
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(49);
+
+		for (int round = 0; round < 30; round++) {
+			int nodeCount = 2 + random.nextInt(40);
+
+			assertMatchesPlain(randomGraph(random, nodeCount, nodeCount * 2), BIDIRECTIONAL);
+		}
+	}
+
+	@Test
+	public void testFewerSettledNodes() {
+		int size = 40;
+		Random random = new Random(4949);
+		Graph graph = grid(size, 4949);
+
+		CompiledGraphImplementation unidirectional = (CompiledGraphImplementation) graph.compile();
+		CompiledGraphImplementation bidirectional = (CompiledGraphImplementation) graph.compile(BIDIRECTIONAL);
+		long unidirectionalSettled = 0;
+		long bidirectionalSettled = 0;
+
+		for (int i = 0; i < 100; i++) {
+			Node from = gridNode(random.nextInt(size), random.nextInt(size));
+			Node to = gridNode(random.nextInt(size), random.nextInt(size));
+
+			assertEquals(unidirectional.findLengthOfShortestPath(from, to), bidirectional.findLengthOfShortestPath(from, to));
+
+			unidirectionalSettled += unidirectional.searchContexts.get().settledCount;
+			bidirectionalSettled += bidirectional.searchContexts.get().settledCount;
+		}
+
+		assertTrue(bidirectionalSettled + " settled against " + unidirectionalSettled, bidirectionalSettled * 3 < unidirectionalSettled * 2);
+	}
+}
@@ -0,0 +1,126 @@
+package org.safkan.graph;
+
+import static org.junit.Assert.*;
+import static org.safkan.graph.GraphFixtures.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledGraphTests {
+
+	private CompiledGraph compiledGraph;
+
+	@Before
+	public void setUp() throws Exception {
+		this.compiledGraph = readmeGraph().compile();
+	}
+
+	@Test
+	public void testTraverse() {
+		assertEquals(9.0, this.compiledGraph.traverse(new Path(A, B, C)).getTotalDistance(), 0.0);
+		assertEquals(5.0, this.compiledGraph.traverse(new Path(A, D)).getTotalDistance(), 0.0);
+		assertEquals(13.0, this.compiledGraph.traverse(new Path(A, D, C)).getTotalDistance(), 0.0);
+		assertEquals(22.0, this.compiledGraph.traverse(new Path(A, E, B, C, D)).getTotalDistance(), 0.0);
+		assertNull(this.compiledGraph.traverse(new Path(A, E, D)));
+		assertNull(this.compiledGraph.traverse(new Path(A, new Node("X"))));
+	}
+
+	@Test
+	public void testCountPaths() {
+		assertEquals(2, this.compiledGraph.countPaths(C, C, null, 3, null));
+		assertEquals(3, this.compiledGraph.countPaths(A, C, 4, 4, null));
+		assertEquals(7, this.compiledGraph.countPaths(C, C, null, null, 30.0));
+	}
+
+	@Test
+	public void testShortestPaths() {
+		assertEquals(Double.valueOf(9.0), this.compiledGraph.findLengthOfShortestPath(A, C));
+		assertEquals(Double.valueOf(9.0), this.compiledGraph.findLengthOfShortestPath(C, C));
+		assertNull(this.compiledGraph.findLengthOfShortestPath(B, A));
+
+		assertEquals(Arrays.asList(A, B, C), this.compiledGraph.findShortestPath(A, C).getNodes());
+		assertEquals(Arrays.asList(C, E, B, C), this.compiledGraph.findShortestPath(C, C).getNodes());
+		assertNull(this.compiledGraph.findShortestPath(B, A));
+	}
+
+	@Test
+	public void testShorterRouteToOpenNode() {
+		Node S = new Node("S");
+		Node T = new Node("T");
+		Graph graph = new Graph();
+
+		// A is opened at 10 and improved to 2 before T is reached directly at 6.
+		graph.addEdge(new Edge(S, A, 10));
+		graph.addEdge(new Edge(S, B, 1));
+		graph.addEdge(new Edge(B, A, 1));
+		graph.addEdge(new Edge(A, T, 1));
+		graph.addEdge(new Edge(S, T, 6));
+
+		CompiledGraph compiled = graph.compile();
+
+		assertEquals(Double.valueOf(3.0), compiled.findLengthOfShortestPath(S, T));
+		assertEquals(Arrays.asList(S, B, A, T), compiled.findShortestPath(S, T).getNodes());
+	}
+
+	@Test
+	public void testConcurrentQueries() throws Exception {
+		Random random = new Random(46);
+		Graph graph = new Graph();
+		int nodeCount = 300;
+
+		for (int i = 0; i < nodeCount * 4; i++) {
+			graph.addEdge(new Edge(new Node("N" + random.nextInt(nodeCount)), new Node("N" + random.nextInt(nodeCount)), 1 + random.nextInt(50)));
+		}
+
+		CompiledGraph compiled = graph.compile();
+		List<Node> nodes = new ArrayList<Node>(graph.getNodes());
+		int queryCount = 200;
+		Node[] from = new Node[queryCount];
+		Node[] to = new Node[queryCount];
+		Double[] expected = new Double[queryCount];
+
+		for (int i = 0; i < queryCount; i++) {
+			from[i] = nodes.get(random.nextInt(nodes.size()));
+			to[i] = nodes.get(random.nextInt(nodes.size()));
+			expected[i] = compiled.findLengthOfShortestPath(from[i], to[i]);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+
+		try {
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int round = 0; round < 5; round++) {
+						for (int i = 0; i < queryCount; i++) {
+							Double length = compiled.findLengthOfShortestPath(from[i], to[i]);
+							Path path = compiled.findShortestPath(from[i], to[i]);
+
+							if (expected[i] == null ? length != null || path != null
+									: !expected[i].equals(length) || compiled.traverse(path).getTotalDistance() != expected[i]) {
+								return false;
+							}
+						}
+					}
+
+					return true;
+				}));
+			}
+
+			for (Future<Boolean> future : futures) {
+				assertTrue(future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
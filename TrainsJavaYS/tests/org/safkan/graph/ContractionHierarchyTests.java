@@ -0,0 +1,73 @@
+package org.safkan.graph;
+
+import static org.junit.Assert.*;
+import static org.safkan.graph.GraphFixtures.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ContractionHierarchyTests {
+
+	private static final CompilationOptions CONTRACTED = new CompilationOptions().setContractionHierarchy(true);
+
+	@Test
+	public void testReadmeGraph() {
+		CompiledGraph compiled = readmeGraph().compile(CONTRACTED);
+
+		assertEquals(Double.valueOf(9.0), compiled.findLengthOfShortestPath(A, C));
+		assertNull(compiled.findLengthOfShortestPath(B, A));
+		assertEquals(Arrays.asList(A, B, C), compiled.findShortestPath(A, C).getNodes());
+		assertNull(compiled.findShortestPath(B, A));
+
+		// Round trips are searched for in the graph.
+		assertEquals(Double.valueOf(9.0), compiled.findLengthOfShortestPath(C, C));
+		assertEquals(Arrays.asList(C, E, B, C), compiled.findShortestPath(C, C).getNodes());
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(50);
+
+		for (int round = 0; round < 30; round++) {
+			int nodeCount = 2 + random.nextInt(50);
+
+			// The paths are traversed in the graph, so shortcuts must have been unpacked.
+			assertMatchesPlain(randomGraph(random, nodeCount, nodeCount * (1 + random.nextInt(3))), CONTRACTED);
+		}
+	}
+
+	@Test
+	public void testFewerSettledNodes() {
+		int size = 40;
+		Random random = new Random(5050);
+		Graph graph = grid(size, 5050);
+
+		CompiledGraphImplementation plain = (CompiledGraphImplementation) graph.compile();
+		CompiledGraphImplementation contracted = (CompiledGraphImplementation) graph.compile(CONTRACTED);
+		long plainSettled = 0;
+		long contractedSettled = 0;
+
+		assertTrue(contracted.contractionHierarchy.getShortcutCount() > 0);
+
+		for (int i = 0; i < 200; i++) {
+			Node from = gridNode(random.nextInt(size), random.nextInt(size));
+			Node to = gridNode(random.nextInt(size), random.nextInt(size));
+
+			if (from == to) {
+				continue;
+			}
+
+			Double expected = plain.findLengthOfShortestPath(from, to);
+			plainSettled += plain.searchContexts.get().settledCount;
+
+			assertEquals(expected, contracted.findLengthOfShortestPath(from, to));
+			contractedSettled += contracted.searchContexts.get().settledCount;
+
+			assertEquals(expected, contracted.traverse(contracted.findShortestPath(from, to)).getTotalDistance(), 1e-9);
+		}
+
+		assertTrue(contractedSettled + " settled against " + plainSettled, contractedSettled * 5 < plainSettled);
+	}
+}
@@ -0,0 +1,118 @@
+package org.safkan.graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Graphs shared by the tests of the graph package.
+ */
+final class GraphFixtures {
+
+	/**
+	 * The nodes of the graph in the README.
+	 */
+	static final Node A = new Node("A");
+	static final Node B = new Node("B");
+	static final Node C = new Node("C");
+	static final Node D = new Node("D");
+	static final Node E = new Node("E");
+
+	private GraphFixtures() {
+	}
+
+	/**
+	 * @return the graph of the README: AB5, BC4, CD8, DC8, DE6, AD5, CE2, EB3, AE7.
+	 */
+	static Graph readmeGraph() {
+		Graph graph = new Graph(false, true);
+
+		graph.addEdge(new Edge(A, B, 5));
+		graph.addEdge(new Edge(B, C, 4));
+		graph.addEdge(new Edge(C, D, 8));
+		graph.addEdge(new Edge(D, C, 8));
+		graph.addEdge(new Edge(D, E, 6));
+		graph.addEdge(new Edge(A, D, 5));
+		graph.addEdge(new Edge(C, E, 2));
+		graph.addEdge(new Edge(E, B, 3));
+		graph.addEdge(new Edge(A, E, 7));
+
+		return graph;
+	}
+
+	/**
+	 * @return the node of a grid at the given position, with the position as its coordinates.
+	 */
+	static Node gridNode(int x, int y) {
+		return new Node(x + ":" + y, x, y);
+	}
+
+	/**
+	 * A grid of nodes one unit apart, with edges in both directions between neighbors,
+	 * of random whole distances from one to nine, differing in each direction. No edge
+	 * is shorter than the straight line, so the euclidean heuristic of scale one holds.
+	 */
+	static Graph grid(int size, long seed) {
+		Random random = new Random(seed);
+		Graph graph = new Graph();
+
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					graph.addEdge(new Edge(gridNode(x, y), gridNode(x + 1, y), 1 + random.nextInt(9)));
+					graph.addEdge(new Edge(gridNode(x + 1, y), gridNode(x, y), 1 + random.nextInt(9)));
+				}
+
+				if (y + 1 < size) {
+					graph.addEdge(new Edge(gridNode(x, y), gridNode(x, y + 1), 1 + random.nextInt(9)));
+					graph.addEdge(new Edge(gridNode(x, y + 1), gridNode(x, y), 1 + random.nextInt(9)));
+				}
+			}
+		}
+
+		return graph;
+	}
+
+	/**
+	 * A graph of random edges, of whole distances from one to twenty, between nodes
+	 * named N0 and so on; self loops and nodes without edges may occur.
+	 */
+	static Graph randomGraph(Random random, int nodeCount, int edgeCount) {
+		Graph graph = new Graph();
+
+		for (int i = 0; i < edgeCount; i++) {
+			graph.addEdge(new Edge(new Node("N" + random.nextInt(nodeCount)), new Node("N" + random.nextInt(nodeCount)), 1 + random.nextInt(20)));
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Check that the graph, compiled with the given options, finds the shortest distance
+	 * of a plain compilation between every pair of nodes, and a path of that length.
+	 */
+	static void assertMatchesPlain(Graph graph, CompilationOptions options) {
+		CompiledGraph plain = graph.compile();
+		CompiledGraph compiled = graph.compile(options);
+		List<Node> nodes = new ArrayList<Node>(graph.getNodes());
+
+		for (Node from : nodes) {
+			for (Node to : nodes) {
+				Double expected = plain.findLengthOfShortestPath(from, to);
+				Path path = compiled.findShortestPath(from, to);
+
+				assertEquals(expected, compiled.findLengthOfShortestPath(from, to));
+
+				if (expected == null) {
+					assertNull(path);
+				} else {
+					assertEquals(from, path.getNodes().get(0));
+					assertTrue(path.endsWith(to));
+					assertEquals(expected, compiled.traverse(path).getTotalDistance(), 1e-9);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.safkan.graph;
+
+import static org.junit.Assert.*;
+import static org.safkan.graph.GraphFixtures.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HeuristicTests {
+
+	@Test
+	public void testEuclideanMatchesDijkstra() {
+		CompiledGraphImplementation compiled = (CompiledGraphImplementation)grid(40, 47).compile(new CompilationOptions().setHeuristic(Heuristic.euclidean(1.0)));
+		Random random = new Random(47);
+		long plainSettled = 0;
+		long guidedSettled = 0;
+
+		for (int i = 0; i < 30; i++) {
+			Node from = gridNode(random.nextInt(40), random.nextInt(40));
+			Node to = gridNode(random.nextInt(40), random.nextInt(40));
+
+			Double plain = compiled.findLengthOfShortestPath(from, to, null);
+			plainSettled += compiled.searchContexts.get().settledCount;
+
+			// An equal heuristic, created for the query, is accepted.
+			Double guided = compiled.findLengthOfShortestPath(from, to, Heuristic.euclidean(1.0));
+			guidedSettled += compiled.searchContexts.get().settledCount;
+
+			assertEquals(plain, guided, 1e-9);
+			assertEquals(plain, compiled.findLengthOfShortestPath(from, to), 1e-9);
+			assertEquals(plain, compiled.traverse(compiled.findShortestPath(from, to)).getTotalDistance(), 1e-9);
+		}
+
+		assertTrue(guidedSettled < plainSettled);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInadmissibleHeuristic() {
+		grid(5, 48).compile(new CompilationOptions().setHeuristic(Heuristic.euclidean(3.0)));
+	}
+
+	@Test
+	public void testHeuristicNotCompiled() {
+		Graph graph = grid(5, 49);
+		CompiledGraph compiled = graph.compile(new CompilationOptions().setHeuristic(Heuristic.euclidean(1.0)));
+
+		assertEquals(Heuristic.euclidean(1.0), Heuristic.euclidean(1.0));
+		assertNotEquals(Heuristic.euclidean(1.0), Heuristic.euclidean(0.5));
+		assertNotEquals(Heuristic.euclidean(1.0), Heuristic.haversine(1.0));
+
+		for (Heuristic heuristic : new Heuristic[] { Heuristic.euclidean(0.5), (from, to) -> 0.0 }) {
+			try {
+				compiled.findShortestPath(gridNode(0, 0), gridNode(4, 4), heuristic);
+				fail("A heuristic the graph was not compiled with should be rejected.");
+			} catch (IllegalArgumentException e) {
+				// Expected.
+			}
+		}
+
+		try {
+			graph.compile().findShortestPath(gridNode(0, 0), gridNode(4, 4), Heuristic.euclidean(1.0));
+			fail("A graph compiled without a heuristic should reject one.");
+		} catch (IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testNodesWithoutCoordinates() {
+		Node S = new Node("S");
+		Node A = new Node("A", 0, 0);
+		Node B = new Node("B");
+		Node T = new Node("T", 10, 0);
+		Node E = new Node("E", 10, 0);
+		Graph graph = new Graph();
+
+		// Estimating S and B at zero lets the detour through E look as short as the path through A.
+		graph.addEdge(new Edge(S, A, 1));
+		graph.addEdge(new Edge(A, B, 1));
+		graph.addEdge(new Edge(B, T, 1));
+		graph.addEdge(new Edge(S, E, 5));
+		graph.addEdge(new Edge(E, T, 5));
+
+		assertEquals(Double.valueOf(3.0), graph.compile().findLengthOfShortestPath(S, T));
+
+		for (Heuristic heuristic : new Heuristic[] { Heuristic.euclidean(1.0), Heuristic.haversine(Heuristic.EARTH_RADIUS_KM) }) {
+			try {
+				graph.compile(new CompilationOptions().setHeuristic(heuristic));
+				fail("A geometric heuristic should be rejected for nodes without coordinates.");
+			} catch (IllegalArgumentException e) {
+				// Expected.
+			}
+		}
+	}
+
+	@Test
+	public void testHaversine() {
+		Node london = new Node("LON", -0.1276, 51.5072);
+		Node paris = new Node("PAR", 2.3522, 48.8566);
+
+		assertEquals(343.6, Heuristic.haversine(Heuristic.EARTH_RADIUS_KM).estimate(london, paris), 1.0);
+		assertEquals(0.0, Heuristic.haversine(Heuristic.EARTH_RADIUS_KM).estimate(london, new Node("X")), 0.0);
+
+		Graph graph = new Graph();
+
+		graph.addNode(london);
+		graph.addNode(paris);
+		graph.addEdge(new Edge(london, paris, 450.0));
+
+		CompiledGraph compiled = graph.compile(new CompilationOptions().setHeuristic(Heuristic.haversine(Heuristic.EARTH_RADIUS_KM)));
+
+		assertEquals(Double.valueOf(450.0), compiled.findLengthOfShortestPath(london, paris, Heuristic.haversine(Heuristic.EARTH_RADIUS_KM)));
+	}
+}
@@ -0,0 +1,159 @@
+package org.safkan.graph;
+
+import static org.junit.Assert.*;
+import static org.safkan.graph.GraphFixtures.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.safkan.graph.CompilationOptions.LandmarkStrategy;
+
+public class LandmarkTablesTests {
+
+	private static final int SIZE = 30;
+
+	private Graph grid;
+
+	@Before
+	public void setUp() throws Exception {
+		this.grid = grid(SIZE, 48);
+	}
+
+	@Test
+	public void testSameDistancesWithFewerSettledNodes() {
+		CompiledGraph plain = this.grid.compile();
+
+		for (LandmarkStrategy strategy : LandmarkStrategy.values()) {
+			CompiledGraph alt = this.grid.compile(new CompilationOptions().setLandmarks(8, strategy));
+			Random random = new Random(480);
+			long plainSettled = 0;
+			long altSettled = 0;
+
+			assertNull(plain.getLandmarkTables());
+			assertEquals(8, alt.getLandmarkTables().getLandmarkCount());
+
+			for (int i = 0; i < 100; i++) {
+				Node from = gridNode(random.nextInt(SIZE), random.nextInt(SIZE));
+				Node to = gridNode(random.nextInt(SIZE), random.nextInt(SIZE));
+
+				Double expected = plain.findLengthOfShortestPath(from, to);
+				plainSettled += ((CompiledGraphImplementation) plain).searchContexts.get().settledCount;
+
+				assertEquals(expected, alt.findLengthOfShortestPath(from, to));
+				altSettled += ((CompiledGraphImplementation) alt).searchContexts.get().settledCount;
+
+				assertEquals(expected, alt.traverse(alt.findShortestPath(from, to)).getTotalDistance(), 1e-9);
+			}
+
+			assertTrue(strategy + ": " + altSettled + " settled against " + plainSettled, altSettled * 2 < plainSettled);
+		}
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(4848);
+
+		for (int round = 0; round < 20; round++) {
+			int nodeCount = 5 + random.nextInt(40);
+
+			assertMatchesPlain(randomGraph(random, nodeCount, nodeCount * 2),
+							   new CompilationOptions().setLandmarks(1 + random.nextInt(4), LandmarkStrategy.values()[round % 2]));
+		}
+	}
+
+	@Test
+	public void testRoundTrips() {
+		CompiledGraph compiled = readmeGraph().compile(new CompilationOptions().setLandmarks(2, LandmarkStrategy.AVOID));
+
+		assertEquals(Double.valueOf(9.0), compiled.findLengthOfShortestPath(C, C));
+		assertEquals(Arrays.asList(C, E, B, C), compiled.findShortestPath(C, C).getNodes());
+		assertEquals(Double.valueOf(9.0), compiled.findLengthOfShortestPath(A, C));
+		assertNull(compiled.findShortestPath(B, A));
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		CompiledGraph compiled = this.grid.compile(new CompilationOptions().setLandmarks(4, LandmarkStrategy.FARTHEST));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		compiled.getLandmarkTables().write(new DataOutputStream(bytes));
+
+		LandmarkTables tables = LandmarkTables.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertEquals(4, tables.getLandmarkCount());
+		assertEquals(SIZE * SIZE, tables.getNodeCount());
+
+		// Reading the tables takes no searches; landmark selection is ignored.
+		CompiledGraph restored = this.grid.compile(new CompilationOptions().setLandmarks(16, LandmarkStrategy.AVOID).setLandmarkTables(tables));
+
+		assertSame(tables, restored.getLandmarkTables());
+		assertEquals(compiled.findLengthOfShortestPath(gridNode(0, 0), gridNode(SIZE - 1, SIZE - 1)),
+					 restored.findLengthOfShortestPath(gridNode(0, 0), gridNode(SIZE - 1, SIZE - 1)));
+
+		Graph other = new Graph();
+		other.addEdge(new Edge(new Node("X"), new Node("Y"), 1));
+
+		try {
+			other.compile(new CompilationOptions().setLandmarkTables(tables));
+			fail("Tables of another graph should be rejected.");
+		} catch (IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testReweightedGraph() throws Exception {
+		CompiledGraph compiled = this.grid.compile(new CompilationOptions().setLandmarks(4, LandmarkStrategy.FARTHEST));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		compiled.getLandmarkTables().write(new DataOutputStream(bytes));
+
+		LandmarkTables tables = LandmarkTables.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		Graph copy = new Graph();
+		Graph reweighted = new Graph();
+
+		// The same nodes and edges, but one edge is longer in the reweighted copy.
+		for (Edge edge : this.grid.getEdges()) {
+			boolean longer = edge.getFrom().equals(gridNode(0, 0)) && edge.getTo().equals(gridNode(1, 0));
+
+			copy.addEdge(new Edge(edge.getFrom(), edge.getTo(), edge.getDistance()));
+			reweighted.addEdge(new Edge(edge.getFrom(), edge.getTo(), edge.getDistance() + (longer ? 100 : 0)));
+		}
+
+		assertSame(tables, copy.compile(new CompilationOptions().setLandmarkTables(tables)).getLandmarkTables());
+
+		try {
+			reweighted.compile(new CompilationOptions().setLandmarkTables(tables));
+			fail("Tables of a reweighted graph should be rejected.");
+		} catch (IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidLandmarkOrdinal() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		this.grid.compile(new CompilationOptions().setLandmarks(1, LandmarkStrategy.FARTHEST)).getLandmarkTables().write(out);
+
+		byte[] data = bytes.toByteArray();
+
+		// The ordinal of the only landmark follows the magic number, fingerprint and two counts.
+		Arrays.fill(data, 20, 24, (byte) 0xFF);
+
+		LandmarkTables.read(new DataInputStream(new ByteArrayInputStream(data)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeLandmarkCount() {
+		new CompilationOptions().setLandmarks(-1, LandmarkStrategy.FARTHEST);
+	}
+}
@@ -0,0 +1,68 @@
+package org.safkan.graph.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IndexedDaryHeapTests {
+
+	@Test
+	public void testDecreaseKeyOrder() {
+		Random random = new Random(45);
+		int capacity = 1000;
+		IndexedDaryHeap heap = new IndexedDaryHeap(capacity);
+		double[] keys = new double[capacity];
+
+		for (int item = 0; item < capacity; item++) {
+			keys[item] = random.nextDouble() * 1000;
+			heap.insert(item, keys[item]);
+		}
+
+		for (int i = 0; i < 3000; i++) {
+			int item = random.nextInt(capacity);
+
+			keys[item] = Math.min(keys[item], random.nextDouble() * 1000);
+			heap.decreaseKey(item, keys[item]);
+		}
+
+		double[] sorted = keys.clone();
+		Arrays.sort(sorted);
+
+		for (int i = 0; i < capacity; i++) {
+			int item = heap.deleteMinimum();
+
+			assertEquals(sorted[i], keys[item], 0.0);
+			assertFalse(heap.contains(item));
+		}
+
+		assertTrue(heap.isEmpty());
+		assertEquals(-1, heap.deleteMinimum());
+	}
+
+	@Test
+	public void testClear() {
+		IndexedDaryHeap heap = new IndexedDaryHeap(10);
+
+		heap.insert(3, 1.0);
+		heap.insert(7, 0.5);
+		heap.clear();
+
+		assertFalse(heap.contains(3));
+		assertEquals(-1, heap.peekMinimum());
+
+		heap.insert(7, 2.0);
+		assertEquals(7, heap.peekMinimum());
+		assertEquals(2.0, heap.getKey(7), 0.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateInsert() {
+		IndexedDaryHeap heap = new IndexedDaryHeap(10);
+
+		heap.insert(3, 1.0);
+		heap.insert(3, 2.0);
+	}
+}